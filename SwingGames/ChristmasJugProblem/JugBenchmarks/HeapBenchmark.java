@@ -0,0 +1,341 @@
+package waterjug;
+
+import framework.IndexedBinaryHeap;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the framework's binary heap against the JDK priority
+ * queues.
+ *
+ * <b>IndexedBinaryHeap</b> keeps the layout of the BinaryHeap class (a 1-based
+ * ArrayList, parent of i at i/2) and is the heap the searches use, so it is
+ * measured against <b>java.util.PriorityQueue</b> and
+ * <b>PriorityBlockingQueue</b> on three workloads:
+ * <ul>
+ * <li>add: n elements are added to an empty queue;</li>
+ * <li>remove: all n elements are removed from a full queue;</li>
+ * <li>mixed: the "hold" model of a search's open list, where the minimum
+ * of a full queue is removed and put back with a larger key n times.</li>
+ * </ul>
+ * One operation is a whole workload, so scores are per n elements. Keys come
+ * in random, sorted or reverse-sorted order, or are drawn from only a few
+ * values. Every comparison is counted and reported as the "comparisons"
+ * secondary result; run through <b>WaterJugBenchmarks</b> to get allocation
+ * rates as well.
+ * @author jmacvey
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HeapBenchmark {
+
+    /**
+     * The queue being measured.
+     */
+    @Param({"IndexedBinaryHeap", "PriorityQueue", "PriorityBlockingQueue"})
+    public String queue;
+
+    /**
+     * The number of elements.
+     */
+    @Param({"100", "1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    /**
+     * The order of the keys: RANDOM, SORTED, REVERSE_SORTED or DUPLICATES.
+     */
+    @Param({"RANDOM", "SORTED", "REVERSE_SORTED", "DUPLICATES"})
+    public String input;
+
+    /**
+     * Comparisons made by the measured operations, reported per operation.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+
+        /**
+         * # of comparisons.
+         */
+        public long comparisons;
+    }
+
+    /**
+     * A heap element: a key and the slot <b>IndexedBinaryHeap</b> keeps.
+     */
+    static final class Node implements IndexedBinaryHeap.Entry {
+
+        /**
+         * Creates a node.
+         * @param key the key
+         */
+        Node(int key) {
+            this.key = key;
+        }
+
+        @Override
+        public int getHeapIndex() {
+            return heapIndex;
+        }
+
+        @Override
+        public void setHeapIndex(int heapIndex) {
+            this.heapIndex = heapIndex;
+        }
+
+        /**
+         * The key the node is ordered by.
+         */
+        int key;
+
+        /**
+         * The slot of the node on an indexed heap.
+         */
+        private int heapIndex;
+    }
+
+    /**
+     * Creates the nodes in the order of the input.
+     */
+    @Setup(Level.Trial)
+    public void setUpNodes() {
+        Random random = new Random(SEED);
+        nodes = new Node[size];
+        keys = new int[size];
+        increments = new int[size];
+        for (int i = 0; i < size; i++) {
+            if (input.equals("RANDOM"))
+                keys[i] = random.nextInt(Integer.MAX_VALUE / 2);
+            else if (input.equals("SORTED"))
+                keys[i] = i;
+            else if (input.equals("REVERSE_SORTED"))
+                keys[i] = size - i;
+            else if (input.equals("DUPLICATES"))
+                keys[i] = random.nextInt(DISTINCT_DUPLICATES);
+            else
+                throw new IllegalArgumentException("unknown input: " + input);
+            nodes[i] = new Node(keys[i]);
+            increments[i] = 1 + random.nextInt(size);
+        }
+    }
+
+    /**
+     * A full queue for the remove and mixed workloads, filled again before
+     * every invocation. At the smallest sizes the cost of the invocation
+     * setup is not negligible next to the workload, so compare queues with
+     * each other there rather than with absolute times.
+     */
+    @State(Scope.Thread)
+    public static class Filled {
+
+        /**
+         * Fills a fresh queue and restores the keys the mixed workload
+         * changed.
+         * @param benchmark the benchmark whose nodes to add
+         */
+        @Setup(Level.Invocation)
+        public void fill(HeapBenchmark benchmark) {
+            queue = benchmark.fill();
+        }
+
+        /**
+         * The queue.
+         */
+        Queue queue;
+    }
+
+    /**
+     * Adds every node to an empty queue.
+     * @param counters the comparison counter
+     * @return the queue
+     */
+    @Benchmark
+    public Queue add(Counters counters) {
+        comparisons = 0;
+        Queue q = newQueue();
+        for (Node node : nodes)
+            q.add(node);
+        counters.comparisons += comparisons;
+        return q;
+    }
+
+    /**
+     * Removes every node from a full queue.
+     * @param filled the full queue
+     * @param counters the comparison counter
+     * @return the sum of the keys removed
+     */
+    @Benchmark
+    public long remove(Filled filled, Counters counters) {
+        Queue full = filled.queue;
+        long sum = 0;
+        for (int i = 0; i < size; i++)
+            sum += full.remove().key;
+        counters.comparisons += comparisons;
+        return sum;
+    }
+
+    /**
+     * Removes the minimum of a full queue and puts it back with a larger key,
+     * once per node.
+     * @param filled the full queue
+     * @param counters the comparison counter
+     * @return the final minimum key
+     */
+    @Benchmark
+    public int mixed(Filled filled, Counters counters) {
+        Queue full = filled.queue;
+        for (int i = 0; i < size; i++) {
+            Node node = full.remove();
+            node.key += increments[i];
+            full.add(node);
+        }
+        counters.comparisons += comparisons;
+        return full.remove().key;
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Data fields and Utility methods
+    //--------------------------------------------------------------------------
+
+    /**
+     * The operations the benchmarks need from a queue.
+     */
+    public abstract static class Queue {
+
+        /**
+         * Adds a node.
+         * @param node the node
+         */
+        abstract void add(Node node);
+
+        /**
+         * Removes the node with the smallest key.
+         * @return the node
+         */
+        abstract Node remove();
+    }
+
+    /**
+     * Restores the initial keys and adds every node to a fresh queue.
+     * @return the queue
+     */
+    private Queue fill() {
+        for (int i = 0; i < size; i++)
+            nodes[i].key = keys[i];
+        Queue q = newQueue();
+        for (Node node : nodes)
+            q.add(node);
+        comparisons = 0;
+        return q;
+    }
+
+    /**
+     * Creates an empty queue of the kind being measured.
+     * @return the queue
+     */
+    private Queue newQueue() {
+        if (queue.equals("IndexedBinaryHeap")) {
+            final IndexedBinaryHeap<Node> heap = new IndexedBinaryHeap<>(comparator);
+            return new Queue() {
+                void add(Node node) {
+                    heap.add(node);
+                }
+
+                Node remove() {
+                    return heap.remove();
+                }
+            };
+        } else if (queue.equals("PriorityQueue")) {
+            final PriorityQueue<Node> heap = new PriorityQueue<>(comparator);
+            return new Queue() {
+                void add(Node node) {
+                    heap.add(node);
+                }
+
+                Node remove() {
+                    return heap.poll();
+                }
+            };
+        } else if (queue.equals("PriorityBlockingQueue")) {
+            final PriorityBlockingQueue<Node> heap =
+                    new PriorityBlockingQueue<>(INITIAL_CAPACITY, comparator);
+            return new Queue() {
+                void add(Node node) {
+                    heap.add(node);
+                }
+
+                Node remove() {
+                    return heap.poll();
+                }
+            };
+        }
+        throw new IllegalArgumentException("unknown queue: " + queue);
+    }
+
+    /**
+     * Seed of the keys.
+     */
+    private static final long SEED = 2511;
+
+    /**
+     * Number of distinct keys of the DUPLICATES input.
+     */
+    private static final int DISTINCT_DUPLICATES = 16;
+
+    /**
+     * Initial capacity of a PriorityBlockingQueue, the JDK's default.
+     */
+    private static final int INITIAL_CAPACITY = 11;
+
+    /**
+     * Orders nodes by key and counts the comparisons.
+     */
+    private final Comparator<Node> comparator = new Comparator<Node>() {
+        @Override
+        public int compare(Node a, Node b) {
+            comparisons++;
+            return Integer.compare(a.key, b.key);
+        }
+    };
+
+    /**
+     * # of comparisons since the queue was last filled.
+     */
+    private long comparisons;
+
+    /**
+     * The nodes, in input order.
+     */
+    private Node[] nodes;
+
+    /**
+     * The initial key of each node.
+     */
+    private int[] keys;
+
+    /**
+     * The amount the mixed workload adds to the key of each node it removes.
+     */
+    private int[] increments;
+}
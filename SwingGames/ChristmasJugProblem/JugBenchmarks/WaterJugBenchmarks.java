@@ -0,0 +1,40 @@
+package waterjug;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the water jug benchmarks with the gc profiler, so that every result
+ * reports its allocation rate (gc.alloc.rate and gc.alloc.rate.norm, the
+ * bytes allocated per operation) next to its throughput and average time.
+ *
+ * The benchmarks need jmh-core on the class path and the JMH annotation
+ * processor run over this directory when it is compiled. Arguments are
+ * regular expressions of the benchmarks to run; with none, every benchmark
+ * of this package runs, the heap benchmarks included. For example
+ * <pre>
+ *   java waterjug.WaterJugBenchmarks WaterJugSearchBenchmark.aStar
+ * </pre>
+ * @author jmacvey
+ */
+public class WaterJugBenchmarks {
+
+    /**
+     * Runs the benchmarks.
+     * @param args patterns of the benchmarks to run
+     * @throws RunnerException if a benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        if (args.length == 0)
+            options.include(WaterJugBenchmarks.class.getPackage().getName()
+                    + ".*Benchmark");
+        for (String pattern : args)
+            options.include(pattern);
+        Options built = options.addProfiler(GCProfiler.class).build();
+        new Runner(built).run();
+    }
+}
@@ -0,0 +1,103 @@
+package waterjug;
+
+import framework.SearchAlgorithm;
+import framework.SearchResult;
+import framework.State;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the hash table searches on water jug problems too large
+ * for a state indexer.
+ *
+ * The instances of <b>WaterJugSearchBenchmark</b> all have keys of at most
+ * WaterJugProblem.MAX_INDEX_BITS bits, so they are searched by the dense
+ * engine. These have keys of 24 to 27 bits, so the graph searches run on
+ * their hash tables: Enhanced A*, parallel A* and bidirectional search. The
+ * tree searches are left out, since on spaces this large their running time
+ * grows exponentially with the solution length.
+ *
+ * Problems are made by a seeded <b>WaterJugInstanceGenerator</b>, so every run
+ * searches the same instances.
+ * @author jmacvey
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaterJugHashedSearchBenchmark {
+
+    /**
+     * The number of jugs of the instance.
+     */
+    @Param({"2", "3", "4"})
+    public int jugCount;
+
+    /**
+     * About how many states the instance has.
+     */
+    @Param({"16000000", "30000000"})
+    public long stateCount;
+
+    /**
+     * The search to run.
+     */
+    @Param({"ENHANCED_A_STAR", "PARALLEL_A_STAR", "BIDIRECTIONAL"})
+    public SearchAlgorithm algorithm;
+
+    /**
+     * Generates the problem to search and builds its pattern database.
+     * @throws IllegalStateException if the problem is small enough to be
+     * indexed, so it would not be searched with hash tables
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        problem = new WaterJugInstanceGenerator(SEED)
+                .generateWithStates(jugCount, stateCount);
+        if (problem.getStateIndexer() != null)
+            throw new IllegalStateException(problem.getSpace()
+                    + " is indexed, so it is searched densely");
+        problem.getPatternDatabase();
+        start = problem.getCurrentState();
+    }
+
+    /**
+     * Solves the problem from its start state.
+     * @return the result of the search
+     */
+    @Benchmark
+    public SearchResult solve() {
+        return problem.solve(start, algorithm);
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Data fields and Utility methods
+    //--------------------------------------------------------------------------
+
+    /**
+     * Seed of the instance generator.
+     */
+    private static final long SEED = 2511;
+
+    /**
+     * The problem being searched.
+     */
+    private WaterJugProblem problem;
+
+    /**
+     * The start state of the problem.
+     */
+    private State start;
+}
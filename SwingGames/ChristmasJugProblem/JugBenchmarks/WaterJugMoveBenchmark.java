@@ -0,0 +1,155 @@
+package waterjug;
+
+import framework.Move;
+import graph.Vertex;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks of the building blocks every search spends its time in:
+ * <b>Problem.expand</b>, <b>WaterJugMove.doMove</b> and
+ * <b>WaterJugState.equals</b>.
+ *
+ * Each invocation works on the next of a fixed ring of random states of the
+ * instance, so the results are not those of a single state the JIT could
+ * specialize for. Spaces small enough to have a transition table look moves
+ * up, and larger ones compute them, so the sizes cover both.
+ * @author jmacvey
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaterJugMoveBenchmark {
+
+    /**
+     * The number of jugs of the instance.
+     */
+    @Param({"2", "3", "4"})
+    public int jugCount;
+
+    /**
+     * About how many states the instance has.
+     */
+    @Param({"1000", "1000000", "1000000000"})
+    public long stateCount;
+
+    /**
+     * Generates the instance and the ring of states to work on.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        problem = new WaterJugInstanceGenerator(SEED)
+                .generateWithStates(jugCount, stateCount);
+        moves = problem.getMoves();
+        WaterJugSpace space = problem.getSpace();
+        Random random = new Random(SEED);
+        states = new WaterJugState[RING_SIZE];
+        copies = new WaterJugState[RING_SIZE];
+        for (int i = 0; i < RING_SIZE; i++) {
+            int[] volumes = new int[jugCount];
+            for (int jug = 0; jug < jugCount; jug++)
+                volumes[jug] = random.nextInt(space.getCapacity(jug) + 1);
+            states[i] = new WaterJugState(space, volumes);
+            copies[i] = new WaterJugState(space, volumes);
+        }
+    }
+
+    /**
+     * Expands a state with path occurrence checks, through the list form
+     * that the searches no longer use.
+     * @return the children
+     */
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public List<Vertex> expand() {
+        return problem.expand(next(), true);
+    }
+
+    /**
+     * Applies every move to a state.
+     * @param blackhole consumes the children
+     */
+    @Benchmark
+    public void doMove(Blackhole blackhole) {
+        WaterJugState state = next();
+        for (Move move : moves)
+            blackhole.consume(move.doMove(state));
+    }
+
+    /**
+     * Compares a state with an equal copy and with the next state.
+     * @param blackhole consumes the comparisons
+     */
+    @Benchmark
+    public void equals(Blackhole blackhole) {
+        int i = cursor;
+        WaterJugState state = next();
+        blackhole.consume(state.equals(copies[i]));
+        blackhole.consume(state.equals(states[cursor]));
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Data fields and Utility methods
+    //--------------------------------------------------------------------------
+
+    /**
+     * Takes the next state of the ring.
+     * @return the state
+     */
+    private WaterJugState next() {
+        WaterJugState state = states[cursor];
+        cursor = (cursor + 1) & (RING_SIZE - 1);
+        return state;
+    }
+
+    /**
+     * Seed of the instance generator and of the states.
+     */
+    private static final long SEED = 2511;
+
+    /**
+     * Number of states on the ring, a power of two.
+     */
+    private static final int RING_SIZE = 1024;
+
+    /**
+     * The instance.
+     */
+    private WaterJugProblem problem;
+
+    /**
+     * The moves of the instance.
+     */
+    private List<Move> moves;
+
+    /**
+     * The ring of states.
+     */
+    private WaterJugState[] states;
+
+    /**
+     * An equal but distinct copy of each state on the ring.
+     */
+    private WaterJugState[] copies;
+
+    /**
+     * Index of the next state on the ring.
+     */
+    private int cursor;
+}
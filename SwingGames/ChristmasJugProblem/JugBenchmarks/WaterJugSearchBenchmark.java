@@ -0,0 +1,153 @@
+package waterjug;
+
+import framework.State;
+import graph.DequeAdder;
+import graph.Vertex;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the framework searches on water jug problems: breadth-
+ * and depth-first <b>Problem.search</b>, <b>searchAStar</b> and
+ * <b>enhancedAStarSearch</b>.
+ *
+ * Problems are made by a seeded <b>WaterJugInstanceGenerator</b>, so every run
+ * searches the same instances. An instance is named by its number of jugs and
+ * roughly how many states it has. Each invocation puts the problem back at its
+ * start state and clears its counters first, since the legacy searches leave
+ * the goal as the current state.
+ *
+ * Every instance here has keys of at most WaterJugProblem.MAX_INDEX_BITS
+ * bits, so breadth-first, depth-first and Enhanced A* run on the dense engine
+ * while A* is the tree search; <b>WaterJugHashedSearchBenchmark</b> measures
+ * the hash table searches on larger instances.
+ * @author jmacvey
+ */
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaterJugSearchBenchmark {
+
+    /**
+     * The number of jugs of the instance.
+     */
+    @Param({"2", "3", "4"})
+    public int jugCount;
+
+    /**
+     * About how many states the instance has.
+     */
+    @Param({"1000", "100000", "1000000"})
+    public long stateCount;
+
+    /**
+     * Generates the problem to search.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        problem = new WaterJugInstanceGenerator(SEED)
+                .generateWithStates(jugCount, stateCount);
+        start = problem.getCurrentState();
+    }
+
+    /**
+     * Breadth-first search.
+     * @return the goal found
+     */
+    @Benchmark
+    public Vertex breadthFirst() {
+        reset();
+        return problem.search((Vertex) start, TAIL_ADDER);
+    }
+
+    /**
+     * Depth-first search.
+     * @return the goal found
+     */
+    @Benchmark
+    public Vertex depthFirst() {
+        reset();
+        return problem.search((Vertex) start, HEAD_ADDER);
+    }
+
+    /**
+     * A* search.
+     * @return the goal found
+     */
+    @Benchmark
+    public Vertex aStar() {
+        reset();
+        return problem.searchAStar((Vertex) start);
+    }
+
+    /**
+     * Enhanced A* search.
+     * @return the goal found
+     */
+    @Benchmark
+    public Vertex enhancedAStar() {
+        reset();
+        return problem.enhancedAStarSearch((Vertex) start);
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Data fields and Utility methods
+    //--------------------------------------------------------------------------
+
+    /**
+     * Puts the problem back at its start state with cleared counters.
+     */
+    private void reset() {
+        problem.setCurrentState(start);
+        problem.resetCounters();
+    }
+
+    /**
+     * Seed of the instance generator.
+     */
+    private static final long SEED = 2511;
+
+    /**
+     * Adds vertices to the back of the deque, for breadth-first search.
+     */
+    private static final DequeAdder TAIL_ADDER = new DequeAdder() {
+        @Override
+        public void add(Vertex vertex, Deque<Vertex> deque) {
+            deque.addLast(vertex);
+        }
+    };
+
+    /**
+     * Adds vertices to the front of the deque, for depth-first search.
+     */
+    private static final DequeAdder HEAD_ADDER = new DequeAdder() {
+        @Override
+        public void add(Vertex vertex, Deque<Vertex> deque) {
+            deque.addFirst(vertex);
+        }
+    };
+
+    /**
+     * The problem being searched.
+     */
+    private WaterJugProblem problem;
+
+    /**
+     * The start state of the problem.
+     */
+    private State start;
+}
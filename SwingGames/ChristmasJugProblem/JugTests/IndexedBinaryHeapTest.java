@@ -0,0 +1,151 @@
+package waterjug;
+
+import framework.IndexedBinaryHeap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * A class to test the IndexedBinaryHeap class used by the searches.
+ * @author jmacvey
+ */
+public class IndexedBinaryHeapTest {
+
+    /**
+     * A heap element holding a key and its heap slot.
+     */
+    private static class Item implements IndexedBinaryHeap.Entry {
+
+        Item(int key) {
+            this.key = key;
+        }
+
+        public int getHeapIndex() {
+            return heapIndex;
+        }
+
+        public void setHeapIndex(int heapIndex) {
+            this.heapIndex = heapIndex;
+        }
+
+        int key;
+
+        private int heapIndex;
+    }
+
+    private final Comparator<Item> byKey = new Comparator<Item>() {
+        public int compare(Item a, Item b) {
+            return Integer.compare(a.key, b.key);
+        }
+    };
+
+    /**
+     * Tests that elements come off the heap in key order.
+     */
+    @Test
+    public void testRemoveInOrder() {
+        IndexedBinaryHeap<Item> heap = new IndexedBinaryHeap<>(byKey);
+        Random random = new Random(5);
+        for (int i = 0; i < 200; i++)
+            heap.add(new Item(random.nextInt(50)));
+        assertEquals(200, heap.size());
+        int min = heap.peek().key;
+        assertEquals(min, removeAll(heap).get(0).intValue());
+        assertTrue(heap.isEmpty());
+        assertNull(heap.remove());
+    }
+
+    /**
+     * Tests that decreaseKey moves an element up to its place.
+     */
+    @Test
+    public void testDecreaseKey() {
+        IndexedBinaryHeap<Item> heap = new IndexedBinaryHeap<>(byKey);
+        List<Item> items = fill(heap, 100);
+        Item last = items.get(99);
+        last.key = -1;
+        heap.decreaseKey(last);
+        assertEquals(1, last.getHeapIndex());
+        assertSame(last, heap.peek());
+        items.get(50).key = 10;
+        heap.decreaseKey(items.get(50));
+        removeAll(heap);
+    }
+
+    /**
+     * Tests that removing arbitrary elements keeps the heap order and clears
+     * their slots.
+     */
+    @Test
+    public void testRemoveElement() {
+        IndexedBinaryHeap<Item> heap = new IndexedBinaryHeap<>(byKey);
+        List<Item> items = fill(heap, 100);
+        for (int i = 0; i < 100; i += 3) {
+            Item item = items.get(i);
+            assertTrue(heap.contains(item));
+            assertTrue(heap.remove(item));
+            assertEquals(0, item.getHeapIndex());
+            assertFalse(heap.contains(item));
+            assertFalse(heap.remove(item));
+        }
+        assertEquals(66, heap.size());
+        removeAll(heap);
+    }
+
+    /**
+     * Tests that every element on the heap knows its slot, and that elements
+     * taken off the heap, or cleared, no longer claim one.
+     */
+    @Test
+    public void testHeapIndexBookkeeping() {
+        IndexedBinaryHeap<Item> heap = new IndexedBinaryHeap<>(byKey);
+        List<Item> items = fill(heap, 64);
+        Item min = heap.remove();
+        assertEquals(0, min.getHeapIndex());
+        assertFalse(heap.contains(min));
+        for (Item item : items)
+            if (item != min) {
+                assertTrue(heap.contains(item));
+                assertTrue(item.getHeapIndex() >= 1 && item.getHeapIndex() <= heap.size());
+            }
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        for (Item item : items)
+            assertEquals(0, item.getHeapIndex());
+        // an element taken off a heap may be added again
+        heap.add(min);
+        assertTrue(heap.contains(min));
+        assertEquals(1, min.getHeapIndex());
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Utility methods
+    //--------------------------------------------------------------------------
+
+    private List<Item> fill(IndexedBinaryHeap<Item> heap, int count) {
+        Random random = new Random(count);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Item item = new Item(100 + random.nextInt(1000));
+            items.add(item);
+            heap.add(item);
+        }
+        return items;
+    }
+
+    private List<Integer> removeAll(IndexedBinaryHeap<Item> heap) {
+        List<Integer> keys = new ArrayList<>();
+        while (!heap.isEmpty())
+            keys.add(heap.remove().key);
+        assertSorted(keys);
+        return keys;
+    }
+
+    private void assertSorted(List<Integer> keys) {
+        for (int i = 1; i < keys.size(); i++)
+            assertTrue(keys.get(i - 1) <= keys.get(i));
+    }
+}
@@ -0,0 +1,56 @@
+package waterjug;
+
+import graph.Vertex;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * A class to test the WaterJugInstanceGenerator class.
+ * @author jmacvey
+ */
+public class WaterJugInstanceGeneratorTest {
+
+    /**
+     * Tests that the same seed generates the same problems.
+     */
+    @Test
+    public void testSeed() {
+        WaterJugInstanceGenerator first = new WaterJugInstanceGenerator(42);
+        WaterJugInstanceGenerator second = new WaterJugInstanceGenerator(42);
+        for (int i = 0; i < 10; i++)
+        {
+            WaterJugProblem p1 = first.generate(4, 20);
+            WaterJugProblem p2 = second.generate(4, 20);
+            assertEquals(p1.getSpace(), p2.getSpace());
+            assertEquals(p1.getGoal(), p2.getGoal());
+        }
+    }
+
+    /**
+     * Tests that problems sized by state count come close to the size asked for.
+     */
+    @Test
+    public void testStateCount() {
+        WaterJugInstanceGenerator generator = new WaterJugInstanceGenerator(7);
+        for (long states = 1000000L; states <= 1000000000L; states *= 10)
+        {
+            WaterJugSpace space = generator.generateWithStates(3, states).getSpace();
+            assertTrue(space.getStateCount() > states / 4);
+            assertTrue(space.getStateCount() < states * 4);
+        }
+    }
+
+    /**
+     * Tests that small generated problems can be solved from the empty jugs.
+     */
+    @Test
+    public void testReachable() {
+        WaterJugInstanceGenerator generator = new WaterJugInstanceGenerator(3);
+        for (int i = 0; i < 20; i++)
+        {
+            WaterJugProblem problem = generator.generate(3, 9);
+            assertTrue(problem.bidirectionalSearch(
+                    (Vertex) problem.getCurrentState()) != null);
+        }
+    }
+}
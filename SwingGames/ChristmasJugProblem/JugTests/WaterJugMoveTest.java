@@ -1,6 +1,9 @@
 package waterjug;
 
 import framework.Move;
+import framework.ReversibleMove;
+import framework.State;
+import java.util.List;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -139,4 +142,84 @@ public class WaterJugMoveTest {
         next = (WaterJugState) option5.doMove(next);
         assertTrue(next.equals(new WaterJugState(0,4)));
     }
+    
+    /**
+     * Tests that undoing a move gives exactly the states on which doing the
+     * move leads back to the undone state.
+     */
+    @Test
+    public void testUndoMove() {
+        Move[] moves = {option1, option2, option3, option4, option5, option6};
+        for (Move move : moves)
+            for (int x = 0; x <= 3; x++)
+                for (int y = 0; y <= 4; y++)
+                {
+                    WaterJugState state = new WaterJugState(x, y);
+                    List<State> preds = ((ReversibleMove) move).undoMove(state);
+                    for (int px = 0; px <= 3; px++)
+                        for (int py = 0; py <= 4; py++)
+                        {
+                            WaterJugState pred = new WaterJugState(px, py);
+                            State next = move.doMove(pred);
+                            assertTrue(preds.contains(pred)
+                                    == (next != null && next.equals(state)));
+                        }
+                }
+    }
+    
+    /**
+     * Tests the moves generated for three jugs.
+     */
+    @Test
+    public void testThreeJugMoves() {
+        List<Move> moves = WaterJugMove.createMoves(3);
+        // 3 fills, 3 empties and 6 transfers
+        assertEquals(12, moves.size());
+        assertEquals("Fill Jug Z", moves.get(2).getMoveName());
+        assertEquals("Transfer Jug Z to Jug Y", moves.get(11).getMoveName());
+        WaterJugSpace space = new WaterJugSpace(3, 5, 8);
+        State next = moves.get(11).doMove(new WaterJugState(space, 0, 1, 8));
+        assertTrue(next.equals(new WaterJugState(space, 0, 5, 4)));
+        assertTrue(moves.get(2).doMove(new WaterJugState(space, 0, 1, 8)) == null);
+    }
+    
+    /**
+     * Tests that a move on a jug the state does not have is rejected.
+     */
+    @Test
+    public void testMissingJug() {
+        Move fillZ = WaterJugMove.createMoves(3).get(2);
+        try {
+            fillZ.doMove(start);
+            fail("filled jug Z of a two-jug state");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("Fill Jug Z"));
+        }
+    }
+    
+    /**
+     * Tests that moves on a small space return the same interned state
+     * every time, and that moves on a space too large for a transition table
+     * give the same results.
+     */
+    @Test
+    public void testTransitionTable() {
+        List<Move> moves = WaterJugMove.createMoves(3);
+        WaterJugSpace small = new WaterJugSpace(3, 5, 8);
+        WaterJugSpace large = new WaterJugSpace(3, 5, 1 << 20);
+        assertSame(moves.get(11).doMove(new WaterJugState(small, 0, 1, 8)),
+                moves.get(11).doMove(new WaterJugState(small, 0, 1, 8)));
+        for (Move move : moves)
+        {
+            if (move.getMoveName().equals("Fill Jug Z"))
+                continue; // jug Z has room for anything else poured in
+            State fromSmall = move.doMove(new WaterJugState(small, 2, 3, 1));
+            State fromLarge = move.doMove(new WaterJugState(large, 2, 3, 1));
+            assertEquals(fromSmall == null, fromLarge == null);
+            if (fromSmall != null)
+                for (int jug = 0; jug < 3; jug++)
+                    assertEquals(((WaterJugState) fromSmall).getVolume(jug),
+                            ((WaterJugState) fromLarge).getVolume(jug));
+        }
+    }
 }
@@ -0,0 +1,112 @@
+package waterjug;
+
+import framework.Move;
+import framework.State;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * A class to test the WaterJugPatternDatabase class.
+ * @author jmacvey
+ */
+public class WaterJugPatternDatabaseTest {
+
+    /**
+     * Tests that the classic problem's database holds exact distances.
+     */
+    @Test
+    public void testClassicDistances() {
+        WaterJugPatternDatabase database = WaterJugPatternDatabase.forGoal(
+                WaterJugSpace.CLASSIC, WaterJugGoal.anyJugHolds(2));
+        assertEquals(2, database.getPatternJugs());
+        assertEquals(4, database.distance(new WaterJugState(0, 0)));
+        assertEquals(0, database.distance(new WaterJugState(2, 4)));
+        assertEquals(0, database.distance(new WaterJugState(3, 2)));
+        assertEquals(1, database.distance(new WaterJugState(3, 3)));
+    }
+
+    /**
+     * Tests that databases are shared by equal spaces and goals, and that
+     * only the most recently used ones are kept.
+     */
+    @Test
+    public void testShared() {
+        WaterJugSpace space = new WaterJugSpace(3, 5, 8);
+        WaterJugPatternDatabase first = WaterJugPatternDatabase.forGoal(space,
+                WaterJugGoal.volumes(0, 4, 4));
+        assertSame(first, WaterJugPatternDatabase.forGoal(new WaterJugSpace(3, 5, 8),
+                WaterJugGoal.volumes(0, 4, 4)));
+        WaterJugPatternDatabase recent = null;
+        for (int amount = 0; amount < WaterJugPatternDatabase.CACHED_DATABASES; amount++) {
+            recent = WaterJugPatternDatabase.forGoal(space, WaterJugGoal.anyJugHolds(amount));
+            assertSame(recent, WaterJugPatternDatabase.forGoal(space,
+                    WaterJugGoal.anyJugHolds(amount)));
+        }
+        // the first database was the least recently used, so it was evicted
+        assertNotSame(first, WaterJugPatternDatabase.forGoal(space,
+                WaterJugGoal.volumes(0, 4, 4)));
+        assertSame(recent, WaterJugPatternDatabase.forGoal(space,
+                WaterJugGoal.anyJugHolds(WaterJugPatternDatabase.CACHED_DATABASES - 1)));
+    }
+
+    /**
+     * Tests that a database over some of the jugs never overestimates: no
+     * move lowers the distance by more than one, and goals have distance 0.
+     */
+    @Test
+    public void testPartialPatternIsConsistent() {
+        WaterJugSpace space = new WaterJugSpace(2047, 2047, 5);
+        WaterJugGoal goal = WaterJugGoal.anyJugHolds(1000);
+        WaterJugPatternDatabase database = WaterJugPatternDatabase.forGoal(space, goal);
+        assertEquals(2, database.getPatternJugs());
+        assertEquals(1 << 16, database.getTableSize());
+        java.util.Random random = new java.util.Random(5);
+        for (int i = 0; i < 2000; i++)
+        {
+            WaterJugState state = new WaterJugState(space, random.nextInt(2048),
+                    random.nextInt(2048), random.nextInt(6));
+            if (goal.isGoal(state))
+                assertEquals(0, database.distance(state));
+            for (Move move : WaterJugMove.createMoves(3))
+            {
+                State next = move.doMove(state);
+                if (next != null)
+                    assertTrue(database.distance(state)
+                            <= database.distance((WaterJugState) next) + 1);
+            }
+        }
+    }
+
+    /**
+     * Tests that a database that cannot track every jug still bounds the
+     * distance above zero when every jug can hold the amount wanted.
+     */
+    @Test
+    public void testCodedJugsKeepTheBound() {
+        WaterJugSpace space = new WaterJugSpace(1000, 1001, 999);
+        WaterJugPatternDatabase database = WaterJugPatternDatabase.forGoal(space,
+                WaterJugGoal.anyJugHolds(500));
+        assertEquals(2, database.getPatternJugs());
+        assertEquals(4, database.distance(new WaterJugState(space, 0, 0, 0)));
+        assertEquals(0, database.distance(new WaterJugState(space, 0, 0, 500)));
+        assertEquals(0, database.distance(new WaterJugState(space, 500, 7, 999)));
+    }
+
+    /**
+     * Tests that no table is kept when every pattern is a goal.
+     */
+    @Test
+    public void testEveryPatternAGoal() {
+        WaterJugSpace space = new WaterJugSpace(3, 5, 8);
+        WaterJugPatternDatabase database = WaterJugPatternDatabase.forGoal(space,
+                new WaterJugGoal()
+                {
+                    @Override
+                    public boolean isGoal(WaterJugState state) {
+                        return true;
+                    }
+                });
+        assertEquals(0, database.getTableSize());
+        assertEquals(0, database.distance(new WaterJugState(space, 1, 2, 3)));
+    }
+}
@@ -2,11 +2,45 @@ package waterjug;
 
 import java.util.List;
 import framework.Problem;
+import framework.BatchResult;
+import framework.BatchSolver;
+import framework.SearchAlgorithm;
+import framework.SearchInstance;
+import framework.SearchMonitor;
+import framework.SearchResult;
+import framework.SolutionCache;
+import framework.SolutionOracle;
+import framework.SearchTraceReader;
+import framework.SearchTraceWriter;
+import framework.SearchStatistics;
+import framework.SolverMetrics;
 import framework.State;
 import framework.Move;
+import framework.StateIndexer;
+import graph.DequeAdder;
+import graph.Vertex;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.HashSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.SettingDescriptor;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 
 /**
  * A class to test the WaterJugProblem class.
@@ -71,6 +105,24 @@ public class WaterJugProblemTest {
         problem.setCurrentState(next);
     }
     
+    /**
+     * Makes the three-jug problem of getting 7 gallons into the (3,5,8) jugs.
+     * @param indexed whether the problem keeps its state indexer; without it
+     * the searches use their hash tables
+     * @return the problem, starting with every jug empty
+     */
+    private WaterJugProblem threeJugProblem(boolean indexed) {
+        WaterJugSpace space = new WaterJugSpace(3, 5, 8);
+        if (indexed)
+            return new WaterJugProblem(space, WaterJugGoal.anyJugHolds(7));
+        return new WaterJugProblem(space, WaterJugGoal.anyJugHolds(7)) {
+            @Override
+            public StateIndexer getStateIndexer() {
+                return null;
+            }
+        };
+    }
+    
     //--------------------------------------------------------------------------
     // Test Methods
     //--------------------------------------------------------------------------
@@ -252,6 +304,600 @@ public class WaterJugProblemTest {
 //         assertTrue(problem.success());
 //    }
     
+    /**
+     * Tests that A* finds the optimal 4-move solution.
+     */
+    @Test
+    public void testAStarSearch() {
+        problem.searchAStar((Vertex) problem.getCurrentState());
+        assertEquals(4, problem.getSolutionLength());
+    }
+
+    /**
+     * Tests that enhanced A* finds the optimal 4-move solution.
+     */
+    @Test
+    public void testEnhancedAStarSearch() {
+        problem.enhancedAStarSearch((Vertex) problem.getCurrentState());
+        assertEquals(4, problem.getSolutionLength());
+    }
+
+    /**
+     * Tests that every algorithm can solve one problem from several threads
+     * at once, without touching the problem's own counters.
+     */
+    @Test
+    public void testConcurrentSolve() throws InterruptedException {
+        final State start = problem.getCurrentState();
+        final SearchResult[] results = new SearchResult[16];
+        Thread[] threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++)
+        {
+            final int index = i;
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    SearchAlgorithm[] algorithms = SearchAlgorithm.values();
+                    results[index] = problem.solve(start,
+                            algorithms[index % algorithms.length]);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        for (SearchResult result : results)
+        {
+            assertTrue(result.isSolved());
+            assertTrue(problem.success(result.getGoal()));
+            if (result.getAlgorithm() != SearchAlgorithm.DEPTH_FIRST)
+                assertEquals(4, result.getSolutionLength());
+        }
+        assertEquals(0, problem.getQueueOps());
+        assertTrue(problem.solnSetEmpty());
+    }
+
+    /**
+     * Tests that a batch of instances solved on a pool gives each instance
+     * its own result, in whatever order the searches finish.
+     */
+    @Test
+    public void testBatchSolve() {
+        State start = problem.getCurrentState();
+        List<SearchInstance> instances = Arrays.asList(
+                new SearchInstance(start, null),
+                new SearchInstance(start, new WaterJugState(3, 0)),
+                new SearchInstance(start, new WaterJugState(0, 3)),
+                new SearchInstance(start, new WaterJugState(1, 1)));
+        int[] lengths = {4, 1, 2, -1};
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Iterator<BatchResult> results = new BatchSolver(problem, pool)
+                .solveAll(instances, SearchAlgorithm.A_STAR);
+        boolean[] seen = new boolean[instances.size()];
+        while (results.hasNext())
+        {
+            BatchResult result = results.next();
+            assertNull(result.getFailure());
+            assertFalse(seen[result.getIndex()]);
+            seen[result.getIndex()] = true;
+            assertSame(instances.get(result.getIndex()), result.getInstance());
+            assertEquals(lengths[result.getIndex()],
+                    result.getResult().getSolutionLength());
+        }
+        pool.shutdown();
+        for (boolean s : seen)
+            assertTrue(s);
+        assertEquals(0, problem.getQueueOps());
+    }
+
+    /**
+     * Tests that the problem of reaching one state is informed by a pattern
+     * database of that state, so A* on it expands no more than the path.
+     */
+    @Test
+    public void testForGoalHeuristic() {
+        Problem target = problem.forGoal(new WaterJugState(0, 3));
+        assertEquals(2, target.getHeuristic(problem.getCurrentState()));
+        assertEquals(0, target.getHeuristic(new WaterJugState(0, 3)));
+        SearchResult result = target.solve(problem.getCurrentState(),
+                SearchAlgorithm.ENHANCED_A_STAR);
+        assertEquals(2, result.getSolutionLength());
+        assertEquals(2, result.getStatistics().getExpanded());
+    }
+
+    /**
+     * Tests that a goal solved for a single instance is informed by the
+     * goal's estimate rather than a pattern database, and still solved
+     * optimally.
+     */
+    @Test
+    public void testForGoalSingleInstance() {
+        Problem target = problem.forGoal(new WaterJugState(1, 4), 1);
+        // only jug X is wrong, and a move changes at most two jugs
+        assertEquals(1, target.getHeuristic(new WaterJugState(3, 4)));
+        assertEquals(1, target.getHeuristic(problem.getCurrentState()));
+        assertEquals(0, target.getHeuristic(new WaterJugState(1, 4)));
+        SearchResult result = target.solve(problem.getCurrentState(),
+                SearchAlgorithm.A_STAR);
+        assertEquals(5, result.getSolutionLength());
+        assertEquals(2, problem.forGoal(new WaterJugState(0, 3), 2)
+                .getHeuristic(problem.getCurrentState()));
+    }
+
+    /**
+     * Tests that a batch makes one view per goal, told how many instances
+     * share it.
+     */
+    @Test
+    public void testBatchSharesGoals() {
+        final List<Integer> uses = Collections.synchronizedList(new ArrayList<Integer>());
+        WaterJugProblem counting = new WaterJugProblem(WaterJugSpace.CLASSIC,
+                WaterJugGoal.anyJugHolds(2))
+        {
+            @Override
+            public Problem forGoal(State goal, int instances) {
+                uses.add(instances);
+                return super.forGoal(goal, instances);
+            }
+        };
+        State start = counting.getCurrentState();
+        List<SearchInstance> instances = Arrays.asList(
+                new SearchInstance(start, new WaterJugState(0, 3)),
+                new SearchInstance(new WaterJugState(3, 0), new WaterJugState(0, 3)),
+                new SearchInstance(start, new WaterJugState(3, 3)),
+                new SearchInstance(start, null));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Iterator<BatchResult> results = new BatchSolver(counting, pool)
+                .solveAll(instances, SearchAlgorithm.A_STAR);
+        while (results.hasNext())
+            assertTrue(results.next().getResult().isSolved());
+        pool.shutdown();
+        Collections.sort(uses);
+        assertEquals(Arrays.asList(1, 2), uses);
+    }
+
+    /**
+     * Tests that breadth-first search over the indexed states finds the
+     * optimal 4-move solution.
+     */
+    @Test
+    public void testBreadthFirstSearch() {
+        assertNotNull(problem.getStateIndexer());
+        problem.search((Vertex) problem.getCurrentState(), new DequeAdder() {
+            public void add(Vertex vertex, Deque<Vertex> deque) {
+                deque.addLast(vertex);
+            }
+        });
+        assertEquals(4, problem.getSolutionLength());
+    }
+
+    /**
+     * Tests that the indexed and hashed enhanced A* agree on a three-jug
+     * problem.
+     */
+    @Test
+    public void testDenseSearchMatchesHashed() {
+        Problem dense = threeJugProblem(true);
+        Problem hashed = threeJugProblem(false);
+        dense.enhancedAStarSearch((Vertex) dense.getCurrentState());
+        hashed.enhancedAStarSearch((Vertex) hashed.getCurrentState());
+        assertEquals(hashed.getSolutionLength(), dense.getSolutionLength());
+    }
+    
+    /**
+     * Tests that dense searches reusing their thread's arrays are not misled
+     * by the marks of earlier searches, of the same space or of others.
+     */
+    @Test
+    public void testDenseSearchReusesArrays() {
+        Problem three = threeJugProblem(true);
+        Problem hashed = threeJugProblem(false);
+        WaterJugSpace large = new WaterJugSpace(127, 255, 127);
+        Problem big = new WaterJugProblem(large, WaterJugGoal.anyJugHolds(1));
+        int expected = hashed.solve(hashed.getCurrentState(),
+                SearchAlgorithm.ENHANCED_A_STAR).getSolutionLength();
+        int bigLength = big.solve(big.getCurrentState(),
+                SearchAlgorithm.BREADTH_FIRST).getSolutionLength();
+        for (int i = 0; i < 3; i++) {
+            for (SearchAlgorithm algorithm : Arrays.asList(SearchAlgorithm.ENHANCED_A_STAR,
+                    SearchAlgorithm.BREADTH_FIRST))
+                assertEquals(expected, three.solve(three.getCurrentState(),
+                        algorithm).getSolutionLength());
+            assertEquals(bigLength, big.solve(big.getCurrentState(),
+                    SearchAlgorithm.ENHANCED_A_STAR).getSolutionLength());
+        }
+    }
+
+    /**
+     * Tests that anytime weighted A* run to the end proves its solution
+     * optimal, and that a tiny budget stops it early with a weaker bound.
+     */
+    @Test
+    public void testAnytimeSearch() {
+        Problem three = threeJugProblem(true);
+        State start = three.getCurrentState();
+        int optimal = three.solve(start, SearchAlgorithm.BREADTH_FIRST)
+                .getSolutionLength();
+        SearchResult result = three.solveAnytime(start, 3.0, 1, TimeUnit.MINUTES,
+                Integer.MAX_VALUE);
+        assertFalse(result.isStoppedEarly());
+        assertEquals(optimal, result.getSolutionLength());
+        assertEquals(optimal, result.getLowerBound());
+        assertEquals(1.0, result.getSuboptimalityBound(), 0);
+        SearchResult stopped = three.solveAnytime(start, 3.0, 1, TimeUnit.MINUTES, 1);
+        assertTrue(stopped.isStoppedEarly());
+        assertEquals(1, stopped.getExpansions());
+        assertTrue(stopped.getLowerBound() <= optimal);
+    }
+
+    /**
+     * Tests that the time limit of anytime weighted A* does not count the
+     * time taken to build the pattern database.
+     */
+    @Test
+    public void testAnytimeLimitExcludesHeuristic() {
+        Problem slow = new WaterJugProblem(new WaterJugSpace(3, 5, 8),
+                WaterJugGoal.anyJugHolds(7))
+        {
+            @Override
+            public synchronized WaterJugPatternDatabase getPatternDatabase() {
+                if (!built)
+                {
+                    // a build slower than the time limit
+                    try
+                    {
+                        Thread.sleep(300);
+                    } catch (InterruptedException ex)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                    built = true;
+                }
+                return super.getPatternDatabase();
+            }
+
+            private boolean built;
+        };
+        State start = slow.getCurrentState();
+        SearchResult result = slow.solveAnytime(start, 3.0, 200,
+                TimeUnit.MILLISECONDS, Integer.MAX_VALUE);
+        assertFalse(result.isStoppedEarly());
+        assertEquals(slow.solve(start, SearchAlgorithm.BREADTH_FIRST)
+                .getSolutionLength(), result.getSolutionLength());
+    }
+
+    /**
+     * Tests that a wide beam prunes nothing and proves its solution optimal,
+     * and that a beam of one prunes and finds no shorter solution.
+     */
+    @Test
+    public void testBeamSearch() {
+        Problem three = threeJugProblem(true);
+        State start = three.getCurrentState();
+        int optimal = three.solve(start, SearchAlgorithm.BREADTH_FIRST)
+                .getSolutionLength();
+        SearchResult wide = three.solveBeam(start, 1000);
+        assertEquals(0, wide.getPrunedCount());
+        assertEquals(optimal, wide.getSolutionLength());
+        assertTrue(wide.isProvenOptimal());
+        SearchResult narrow = three.solveBeam(start, 1);
+        assertTrue(narrow.getPrunedCount() > 0);
+        if (narrow.isSolved())
+            assertTrue(narrow.getSolutionLength() >= optimal);
+        assertTrue(narrow.getLowerBound() <= optimal);
+    }
+
+    /**
+     * Tests that a search reports consistent statistics and adds them to the
+     * solver metrics.
+     */
+    @Test
+    public void testSearchStatistics() {
+        long searches = SolverMetrics.getInstance().getSearches();
+        SearchStatistics stats = problem.solve(problem.getCurrentState(),
+                SearchAlgorithm.ENHANCED_A_STAR).getStatistics();
+        assertTrue(stats.getExpanded() > 0);
+        assertTrue(stats.getGenerated() >= stats.getDuplicates());
+        assertTrue(stats.getPushes() >= stats.getPops());
+        assertEquals(stats.getPushes() + stats.getPops(), stats.getQueueOps());
+        assertTrue(stats.getEffectiveBranchingFactor() > 1);
+        assertTrue(SolverMetrics.getInstance().getSearches() > searches);
+    }
+
+    /**
+     * Tests that a traced search writes one record per expansion and
+     * generation, and that the reader replays them.
+     */
+    @Test
+    public void testSearchTrace() throws IOException {
+        Path file = Files.createTempFile("search", ".trace");
+        SearchTraceWriter trace = new SearchTraceWriter(file);
+        problem.setTraceWriter(trace);
+        SearchStatistics stats = problem.solve(problem.getCurrentState(),
+                SearchAlgorithm.ENHANCED_A_STAR).getStatistics();
+        problem.setTraceWriter(null);
+        trace.close();
+        SearchTraceReader reader = new SearchTraceReader(file);
+        long[] counts = reader.countByType();
+        reader.close();
+        Files.delete(file);
+        assertEquals(stats.getExpanded(), counts[SearchTraceWriter.EXPANDED]);
+        assertEquals(stats.getGenerated(), counts[SearchTraceWriter.GENERATED]);
+    }
+
+    /**
+     * Tests that the A* searches give the heuristic value of the state in
+     * every record they trace, on dense and on hashed state spaces.
+     */
+    @Test
+    public void testSearchTraceHeuristics() throws IOException {
+        for (Problem traced : Arrays.asList(threeJugProblem(true),
+                threeJugProblem(false)))
+            for (SearchAlgorithm algorithm : Arrays.asList(SearchAlgorithm.A_STAR,
+                    SearchAlgorithm.ENHANCED_A_STAR)) {
+                Path file = Files.createTempFile("search", ".trace");
+                SearchTraceWriter trace = new SearchTraceWriter(file);
+                traced.setTraceWriter(trace);
+                traced.solve(traced.getCurrentState(), algorithm);
+                traced.setTraceWriter(null);
+                trace.close();
+                SearchTraceReader reader = new SearchTraceReader(file);
+                final int[] missing = new int[1];
+                reader.replay(new SearchTraceReader.Visitor() {
+                    @Override
+                    public void record(int type, long stateKey, long parentKey,
+                            int g, int h, long nanoTime) {
+                        if (h < 0)
+                            missing[0]++;
+                    }
+                });
+                assertTrue(reader.getRecordCount() > 0);
+                reader.close();
+                Files.delete(file);
+                assertEquals(algorithm + " records without h", 0, missing[0]);
+            }
+    }
+
+    /**
+     * Tests that a search emits flight recorder events: one Search event
+     * with its statistics, an Expansion event every SAMPLE_INTERVAL (64)
+     * expansions and a Rediscovery event per rediscovered state. Also tests
+     * the defaults: Search events over 10 ms only, the others disabled.
+     * @throws IOException if the recording cannot be written
+     */
+    @Test
+    public void testFlightRecorderEvents() throws IOException {
+        // no jug can hold 9, so every reachable state is expanded
+        WaterJugSpace space = new WaterJugSpace(3, 5, 8);
+        WaterJugProblem jugs = new WaterJugProblem(space, WaterJugGoal.anyJugHolds(9));
+        Recording recording = new Recording();
+        for (String name : Arrays.asList("framework.Search",
+                "framework.Expansion", "framework.Rediscovery"))
+            recording.enable(name).withThreshold(Duration.ZERO);
+        recording.start();
+        SearchStatistics stats = jugs.solve(jugs.getCurrentState(),
+                SearchAlgorithm.ENHANCED_A_STAR).getStatistics();
+        recording.stop();
+        Path file = Files.createTempFile("search", ".jfr");
+        recording.dump(file);
+        recording.close();
+        int searches = 0, expansions = 0, rediscoveries = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            String name = event.getEventType().getName();
+            if (name.equals("framework.Search")) {
+                searches++;
+                assertFalse(event.getBoolean("solved"));
+                assertEquals(stats.getExpanded(), event.getInt("expanded"));
+                assertEquals(stats.getGenerated(), event.getInt("generated"));
+            } else if (name.equals("framework.Expansion")) {
+                expansions++;
+                assertEquals(0, event.getInt("expansions") % 64);
+            } else if (name.equals("framework.Rediscovery")) {
+                rediscoveries++;
+                assertTrue(event.getInt("newCost") >= 0);
+            }
+        }
+        Files.delete(file);
+        assertEquals(1, searches);
+        assertEquals(stats.getExpanded() / 64, expansions);
+        assertEquals(stats.getOpenRediscoveries() + stats.getClosedRediscoveries(),
+                rediscoveries);
+
+        int checked = 0;
+        for (EventType type : FlightRecorder.getFlightRecorder().getEventTypes())
+            if (type.getName().startsWith("framework."))
+                for (SettingDescriptor setting : type.getSettingDescriptors()) {
+                    if (setting.getName().equals("enabled")) {
+                        checked++;
+                        assertEquals(type.getName().equals("framework.Search"),
+                                Boolean.parseBoolean(setting.getDefaultValue()));
+                    } else if (setting.getName().equals("threshold")
+                            && type.getName().equals("framework.Search")) {
+                        checked++;
+                        assertEquals("10 ms", setting.getDefaultValue());
+                    }
+                }
+        assertEquals(4, checked);
+    }
+
+    /**
+     * Tests that a monitored search reports its progress, and that a
+     * cancelled search ends with a CancellationException whichever engine
+     * runs it.
+     */
+    @Test
+    public void testSearchMonitor() {
+        // the gcd of the capacities is 2, so no jug can ever hold 5
+        WaterJugProblem large = new WaterJugProblem(new WaterJugSpace(74, 106, 58),
+                WaterJugGoal.anyJugHolds(5));
+        SearchMonitor monitor = new SearchMonitor();
+        large.setSearchMonitor(monitor);
+        assertFalse(large.solve(large.getCurrentState(),
+                SearchAlgorithm.BREADTH_FIRST).isSolved());
+        assertTrue(monitor.getExpansions() > 0);
+        monitor.cancel();
+        for (SearchAlgorithm algorithm : new SearchAlgorithm[] {
+                SearchAlgorithm.ENHANCED_A_STAR, SearchAlgorithm.A_STAR,
+                SearchAlgorithm.PARALLEL_A_STAR, SearchAlgorithm.BIDIRECTIONAL,
+                SearchAlgorithm.SOLUTION_TABLE}) {
+            try {
+                large.solve(large.getCurrentState(), algorithm);
+                fail(algorithm + " was not cancelled");
+            } catch (CancellationException e) {
+                assertTrue(monitor.isCancelled());
+            }
+        }
+        large.setSearchMonitor(null);
+        assertFalse(large.solve(large.getCurrentState(),
+                SearchAlgorithm.BREADTH_FIRST).isSolved());
+    }
+
+    /**
+     * Tests that the solution cache answers repeated searches without
+     * searching again and evicts the least recently used result.
+     */
+    @Test
+    public void testSolutionCache() {
+        SolutionCache cache = new SolutionCache(2);
+        problem.setSolutionCache(cache);
+        State start = problem.getCurrentState();
+        SearchResult first = problem.solve(start, SearchAlgorithm.A_STAR);
+        assertSame(first, problem.solve(start, SearchAlgorithm.A_STAR));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        problem.enhancedAStarSearch((Vertex) start);
+        assertEquals(4, problem.getSolutionLength());
+        problem.solve(new WaterJugState(3, 0), SearchAlgorithm.A_STAR);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        // the first result was the least recently used
+        assertNotSame(first, problem.solve(start, SearchAlgorithm.A_STAR));
+        assertEquals(4, cache.getMisses());
+    }
+
+    /**
+     * Tests that the solution table gives the optimal 4-move solution, is
+     * built once, and is built again when the final state changes.
+     */
+    @Test
+    public void testSolutionTableSearch() {
+        State start = problem.getCurrentState();
+        SolutionOracle oracle = problem.getSolutionOracle();
+        problem.solutionTableSearch((Vertex) start);
+        assertEquals(4, problem.getSolutionLength());
+        assertSame(oracle, problem.getSolutionOracle());
+        assertEquals(4, oracle.getDistance(start));
+        assertNotNull(oracle.getNextMove(start));
+        assertNull(oracle.getNextMove(problem.getCurrentState()));
+        problem.setFinalState(problem.getFinalState());
+        assertNotSame(oracle, problem.getSolutionOracle());
+    }
+
+    /**
+     * Tests that the indexed and hashed solution tables agree with
+     * breadth-first search on every state of a three-jug space.
+     */
+    @Test
+    public void testSolutionOracleMatchesSearch() {
+        WaterJugProblem dense = threeJugProblem(true);
+        Problem hashed = threeJugProblem(false);
+        WaterJugSpace space = dense.getSpace();
+        SolutionOracle denseOracle = dense.getSolutionOracle();
+        SolutionOracle hashedOracle = hashed.getSolutionOracle();
+        assertEquals(hashedOracle.getStateCount(), denseOracle.getStateCount());
+        for (int x = 0; x <= 3; x++)
+            for (int y = 0; y <= 5; y++)
+                for (int z = 0; z <= 8; z++)
+                {
+                    State state = new WaterJugState(space, x, y, z);
+                    SearchResult result = dense.solve(state,
+                            SearchAlgorithm.BREADTH_FIRST);
+                    assertEquals(result.getSolutionLength(),
+                            denseOracle.getDistance(state));
+                    assertEquals(result.getSolutionLength(),
+                            hashedOracle.getDistance(state));
+                    List<State> path = denseOracle.getPath(state);
+                    if (path != null && !path.isEmpty())
+                        assertTrue(dense.success(path.get(path.size() - 1)));
+                }
+    }
+
+    /**
+     * Tests that parallel A* finds the optimal 4-move solution and reports
+     * one expansion count per thread.
+     */
+    @Test
+    public void testParallelAStarSearch() {
+        problem.parallelAStarSearch((Vertex) problem.getCurrentState(), 4);
+        assertEquals(4, problem.getSolutionLength());
+        assertEquals(4, problem.getThreadExpansions().length);
+    }
+    
+    /**
+     * Tests that bidirectional search finds the optimal 4-move solution.
+     */
+    @Test
+    public void testBidirectionalSearch() {
+        problem.bidirectionalSearch((Vertex) problem.getCurrentState());
+        assertEquals(4, problem.getSolutionLength());
+    }
+    
+    /**
+     * Tests that IDA* finds the optimal 4-move solution.
+     */
+    @Test
+    public void testIterativeDeepeningAStarSearch() {
+        problem.iterativeDeepeningAStarSearch((Vertex) problem.getCurrentState());
+        assertEquals(4, problem.getSolutionLength());
+        // the pattern database is exact here, so one iteration suffices
+        assertEquals(1, problem.getIterations());
+        assertEquals(Arrays.asList(4), problem.getThresholds());
+        assertTrue(problem.getExpansions() > 0);
+    }
+    
+    /**
+     * Tests that iterative-deepening depth-first search finds the optimal
+     * 4-move solution with depth limits 0 through 4.
+     */
+    @Test
+    public void testIterativeDeepeningSearch() {
+        problem.iterativeDeepeningSearch((Vertex) problem.getCurrentState());
+        assertEquals(4, problem.getSolutionLength());
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), problem.getThresholds());
+    }
+    
+    /**
+     * Tests that the goal states listed for "any jug holds" are the states
+     * found by testing every state, each listed once.
+     */
+    @Test
+    public void testAnyJugHoldsGoalStates() {
+        WaterJugSpace space = new WaterJugSpace(3, 5, 8);
+        for (int amount = 0; amount <= 9; amount++) {
+            WaterJugGoal goal = WaterJugGoal.anyJugHolds(amount);
+            Set<WaterJugState> expected = new HashSet<>();
+            for (long ordinal = 0; ordinal < space.getStateCount(); ordinal++)
+                if (goal.isGoal(space.stateAt(ordinal)))
+                    expected.add(space.stateAt(ordinal));
+            List<WaterJugState> listed = goal.getGoalStates(space);
+            assertEquals(expected.size(), listed.size());
+            assertEquals(expected, new HashSet<>(listed));
+        }
+    }
+    
+    /**
+     * Tests a three-jug problem with an exact target.
+     */
+    @Test
+    public void testThreeJugProblem() {
+        WaterJugSpace space = new WaterJugSpace(3, 5, 8);
+        Problem jugs = new WaterJugProblem(space, WaterJugGoal.volumes(0, 4, 4));
+        assertEquals(12, jugs.getMoves().size());
+        assertFalse(jugs.success());
+        assertTrue(jugs.enhancedAStarSearch((Vertex) jugs.getCurrentState()) != null);
+        assertTrue(jugs.success(new WaterJugState(space, 0, 4, 4)));
+        assertTrue(jugs.getSolutionLength() > 0);
+    }
+    
     /**
      * Tests the problem's introduction string.
      */
@@ -0,0 +1,52 @@
+package waterjug;
+
+import framework.SearchAlgorithm;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * A class to test the WaterJugSolver class.
+ * @author jmacvey
+ */
+public class WaterJugSolverTest {
+
+    /**
+     * Tests that a line is solved and written as one JSON object.
+     */
+    @Test
+    public void testSolveLine() {
+        WaterJugSolver solver = new WaterJugSolver(SearchAlgorithm.A_STAR, System.out);
+        String json = solver.solveLine(1, "3,4 - any:2 BREADTH_FIRST");
+        assertTrue(json.startsWith("{\"line\":1,"));
+        assertTrue(json.endsWith("}"));
+        assertTrue(json.contains("\"algorithm\":\"BREADTH_FIRST\""));
+        assertTrue(json.contains("\"solved\":true"));
+        assertTrue(json.contains("\"length\":4"));
+        assertTrue(json.contains("\"path\":[[3,0],[0,3],[3,3],[2,4]]"));
+    }
+
+    /**
+     * Tests that bad lines are reported and skipped lines are not, and that
+     * the summary counts both kinds of problem.
+     * @throws IOException never
+     */
+    @Test
+    public void testSolveAll() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WaterJugSolver solver = new WaterJugSolver(SearchAlgorithm.ENHANCED_A_STAR,
+                new PrintStream(bytes, true));
+        solver.solveAll(new BufferedReader(new StringReader(
+                "# problems\n3,5,8 0,0,8 any:4\n\n3,4 - 2,0 IDA*\n3,x - any:1\n")));
+        String[] lines = bytes.toString().trim().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("\"line\":2") && lines[0].contains("\"length\":6"));
+        assertTrue(lines[1].contains("\"algorithm\":\"ITERATIVE_DEEPENING_A_STAR\""));
+        assertTrue(lines[2].contains("\"line\":5,\"error\":"));
+        assertTrue(solver.getSummary().startsWith("3 problems, 2 solved, 1 failed"));
+    }
+}
@@ -70,6 +70,21 @@ public class WaterJugStateTest {
         assertFalse(state1.equals(state3));
     }
 
+    /**
+     * This method tests that <b>hashCode</b> agrees with <b>equals</b> and that
+     * distinct states get distinct keys.
+     */
+    @Test
+    public void testHashCode() {
+        assertTrue(state1.hashCode() == state1Copy.hashCode());
+        assertTrue(state2.hashCode() == state2Copy.hashCode());
+        assertTrue(state3.hashCode() == state3Copy.hashCode());
+        assertFalse(state1.getKey() == state2.getKey());
+        assertFalse(state2.getKey() == state3.getKey());
+        assertFalse(new WaterJugState(0, 3).equals(new WaterJugState(3, 0)));
+        assertFalse(state1.equals("       |   |\n"));
+    }
+
     /**
      * This method tests the <b>toString</b> method for <b>WaterJugState</b> objects.
      * Look at the definitions of <b>state1String</b> and <b>state2String</b> to see
@@ -0,0 +1,303 @@
+package waterjug;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class represents the goal of a water jug problem: a test of whether a
+ * water jug state solves the problem.
+ *
+ * Any goal can be written by extending this class and overriding
+ * <b>isGoal</b>. The two common goals, some jug holding a given amount and
+ * every jug holding a given amount, are available from <b>anyJugHolds</b> and
+ * <b>volumes</b>. Goals are compared by value so they can be used as keys.
+ * @author jmacvey
+ */
+public abstract class WaterJugGoal {
+
+    /**
+     * Stands for a volume other than empty, full or the jug's landmark in
+     * the volumes given to <b>isPatternGoal</b>.
+     */
+    public static final int OTHER_VOLUME = -1;
+
+    /**
+     * Tests whether a state satisfies this goal.
+     * @param state the state to test
+     * @return <b>true</b> if the state is a goal state
+     */
+    public abstract boolean isGoal(WaterJugState state);
+
+    /**
+     * Lists every goal state of a space.  The default tests every state of the
+     * space, so goals that can list their states directly should override it.
+     * @param space the space to search
+     * @return the goal states
+     */
+    public List<WaterJugState> getGoalStates(WaterJugSpace space) {
+        List<WaterJugState> goals = new ArrayList<>();
+        for (long ordinal = 0; ordinal < space.getStateCount(); ordinal++)
+        {
+            WaterJugState state = space.stateAt(ordinal);
+            if (isGoal(state))
+                goals.add(state);
+        }
+        return goals;
+    }
+
+    /**
+     * Gets the single state that satisfies this goal, if there is one.
+     * @param space the space of the problem
+     * @return the target state, or null if several states satisfy the goal
+     */
+    public WaterJugState getTarget(WaterJugSpace space) {
+        return null;
+    }
+
+    /**
+     * Gets a lower bound on the number of moves from a state to this goal
+     * that needs no table, for problems that would not search enough to pay
+     * for a <b>WaterJugPatternDatabase</b>.  The default is 1 for any state
+     * that is not a goal.  A bound must not drop by more than one in a move,
+     * so it stays consistent.
+     * @param state the state to estimate
+     * @return the bound
+     */
+    public int estimate(WaterJugState state) {
+        return isGoal(state) ? 0 : 1;
+    }
+
+    /**
+     * Gets the volume of a jug that this goal singles out, besides empty and
+     * full.  A <b>WaterJugPatternDatabase</b> that cannot afford to track a
+     * jug's volume exactly still tells these three volumes apart from the
+     * rest.  The default singles out none.
+     * @param space the space of the problem
+     * @param jug the index of the jug
+     * @return the volume, or -1 for none
+     */
+    public int getLandmark(WaterJugSpace space, int jug) {
+        return -1;
+    }
+
+    /**
+     * Tests whether a goal state may have the given volumes, where some jugs
+     * are only known to hold something other than empty, full or their
+     * landmark.  Used to build a <b>WaterJugPatternDatabase</b>; answering
+     * <b>true</b> too often only weakens the heuristic, but answering
+     * <b>false</b> for a possible goal makes it overestimate.  The default
+     * answers exactly only when every volume is known.
+     * @param space the space of the problem
+     * @param volumes the volume of each jug, or OTHER_VOLUME
+     * @return <b>false</b> only if no goal state has these volumes
+     */
+    public boolean isPatternGoal(WaterJugSpace space, int[] volumes) {
+        for (int volume : volumes)
+            if (volume == OTHER_VOLUME)
+                return true;
+        return isGoal(new WaterJugState(space, volumes));
+    }
+
+    /**
+     * Creates the goal of getting an exact amount into any one jug.
+     * @param amount the amount wanted
+     * @return the goal
+     */
+    public static WaterJugGoal anyJugHolds(int amount) {
+        return new AnyJugHolds(amount);
+    }
+
+    /**
+     * Creates the goal of getting an exact amount into every jug.
+     * @param volumes the amount wanted in each jug
+     * @return the goal
+     */
+    public static WaterJugGoal volumes(int... volumes) {
+        return new Volumes(volumes.clone());
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Classes
+    //--------------------------------------------------------------------------
+
+    /**
+     * Goal of getting an exact amount into any one jug.
+     */
+    private static final class AnyJugHolds extends WaterJugGoal {
+
+        AnyJugHolds(int amount) {
+            this.amount = amount;
+        }
+
+        @Override
+        public boolean isGoal(WaterJugState state) {
+            for (int jug = 0; jug < state.getSpace().getJugCount(); jug++)
+                if (state.getVolume(jug) == amount)
+                    return true;
+            return false;
+        }
+
+        @Override
+        public int getLandmark(WaterJugSpace space, int jug) {
+            return amount;
+        }
+
+        @Override
+        public boolean isPatternGoal(WaterJugSpace space, int[] volumes) {
+            for (int volume : volumes)
+                if (volume == amount)
+                    return true;
+            return false;
+        }
+
+        /**
+         * Lists the goal states without testing every state of the space:
+         * for each jug that can hold the amount, the states with that jug
+         * holding it and every volume of the other jugs.  A state is listed
+         * under the first of its jugs that holds the amount.
+         */
+        @Override
+        public List<WaterJugState> getGoalStates(WaterJugSpace space) {
+            List<WaterJugState> goals = new ArrayList<>();
+            int jugCount = space.getJugCount();
+            for (int fixed = 0; fixed < jugCount; fixed++)
+            {
+                if (amount < 0 || space.getCapacity(fixed) < amount)
+                    continue;
+                int[] volumes = new int[jugCount];
+                volumes[fixed] = amount;
+                int jug;
+                do
+                {
+                    if (firstHolding(volumes) == fixed)
+                        goals.add(space.state(space.pack(volumes)));
+                    // count through the other jugs, jug 0 fastest
+                    for (jug = 0; jug < jugCount; jug++)
+                    {
+                        if (jug == fixed)
+                            continue;
+                        if (volumes[jug] < space.getCapacity(jug))
+                        {
+                            volumes[jug]++;
+                            break;
+                        }
+                        volumes[jug] = 0;
+                    }
+                } while (jug < jugCount);
+            }
+            return goals;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof AnyJugHolds
+                    && ((AnyJugHolds) other).amount == amount;
+        }
+
+        @Override
+        public int hashCode() {
+            return amount;
+        }
+
+        @Override
+        public String toString() {
+            return "any jug holds " + amount;
+        }
+
+        /**
+         * Finds the first jug holding the amount.
+         * @param volumes the volume in each jug
+         * @return the index of the jug, or -1 if none holds the amount
+         */
+        private int firstHolding(int[] volumes) {
+            for (int jug = 0; jug < volumes.length; jug++)
+                if (volumes[jug] == amount)
+                    return jug;
+            return -1;
+        }
+
+        /**
+         * The amount wanted.
+         */
+        private final int amount;
+    }
+
+    /**
+     * Goal of getting an exact amount into every jug.
+     */
+    private static final class Volumes extends WaterJugGoal {
+
+        Volumes(int[] volumes) {
+            this.volumes = volumes;
+        }
+
+        @Override
+        public boolean isGoal(WaterJugState state) {
+            if (state.getSpace().getJugCount() != volumes.length)
+                return false;
+            for (int jug = 0; jug < volumes.length; jug++)
+                if (state.getVolume(jug) != volumes[jug])
+                    return false;
+            return true;
+        }
+
+        /**
+         * A move changes at most two jugs, so it takes at least half as many
+         * moves as there are jugs with the wrong volume.
+         */
+        @Override
+        public int estimate(WaterJugState state) {
+            if (state.getSpace().getJugCount() != volumes.length)
+                return 0;
+            int wrong = 0;
+            for (int jug = 0; jug < volumes.length; jug++)
+                if (state.getVolume(jug) != volumes[jug])
+                    wrong++;
+            return (wrong + 1) / 2;
+        }
+
+        @Override
+        public int getLandmark(WaterJugSpace space, int jug) {
+            return jug < volumes.length ? volumes[jug] : -1;
+        }
+
+        @Override
+        public boolean isPatternGoal(WaterJugSpace space, int[] volumes) {
+            return Arrays.equals(volumes, this.volumes);
+        }
+
+        @Override
+        public List<WaterJugState> getGoalStates(WaterJugSpace space) {
+            List<WaterJugState> goals = new ArrayList<>();
+            goals.add(getTarget(space));
+            return goals;
+        }
+
+        @Override
+        public WaterJugState getTarget(WaterJugSpace space) {
+            return new WaterJugState(space, volumes);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Volumes
+                    && Arrays.equals(((Volumes) other).volumes, volumes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(volumes);
+        }
+
+        @Override
+        public String toString() {
+            return "jugs hold " + Arrays.toString(volumes);
+        }
+
+        /**
+         * The amount wanted in each jug.
+         */
+        private final int[] volumes;
+    }
+}
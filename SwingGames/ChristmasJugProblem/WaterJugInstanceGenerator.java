@@ -0,0 +1,94 @@
+package waterjug;
+
+import java.util.Random;
+
+/**
+ * This class generates random water jug problems from a seed, so that the
+ * same seed always gives the same sequence of problems.
+ *
+ * Problems can be sized by their number of states, which is what search
+ * time and memory depend on. The goal of a generated problem is to get some
+ * amount into any jug; the amount is always a multiple of the greatest common
+ * divisor of the capacities no larger than the largest jug, so the goal can
+ * be reached from the empty jugs.
+ * @author jmacvey
+ */
+public class WaterJugInstanceGenerator {
+
+    /**
+     * Creates a generator.
+     * @param seed the seed of the random number generator
+     */
+    public WaterJugInstanceGenerator(long seed) {
+        random = new Random(seed);
+    }
+
+    /**
+     * Generates a problem whose jugs hold random amounts.
+     * @param jugCount the number of jugs
+     * @param maxCapacity the most any jug may hold
+     * @return the problem, starting with every jug empty
+     */
+    public WaterJugProblem generate(int jugCount, int maxCapacity) {
+        int[] capacities = new int[jugCount];
+        for (int jug = 0; jug < jugCount; jug++)
+            capacities[jug] = 1 + random.nextInt(maxCapacity);
+        return generate(capacities);
+    }
+
+    /**
+     * Generates a problem with about a given number of states.  Every jug
+     * gets a capacity near the jugCount-th root of the state count, varied by
+     * up to a quarter either way.
+     * @param jugCount the number of jugs
+     * @param stateCount the number of states wanted, for example 1e6 to 1e9
+     * @return the problem, starting with every jug empty
+     */
+    public WaterJugProblem generateWithStates(int jugCount, long stateCount) {
+        int base = (int) Math.max(1, Math.round(Math.pow(stateCount, 1.0 / jugCount)) - 1);
+        int[] capacities = new int[jugCount];
+        for (int jug = 0; jug < jugCount; jug++)
+        {
+            int spread = base / 4;
+            capacities[jug] = Math.max(1, base - spread + random.nextInt(2 * spread + 1));
+        }
+        return generate(capacities);
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Data fields and Utility methods
+    //--------------------------------------------------------------------------
+
+    /**
+     * Picks a reachable goal amount for some capacities.
+     * @param capacities the capacity of each jug
+     * @return the problem
+     */
+    private WaterJugProblem generate(int[] capacities) {
+        int gcd = 0;
+        int largest = 0;
+        for (int capacity : capacities)
+        {
+            gcd = gcd(gcd, capacity);
+            largest = Math.max(largest, capacity);
+        }
+        int amount = gcd * (1 + random.nextInt(largest / gcd));
+        return new WaterJugProblem(new WaterJugSpace(capacities),
+                WaterJugGoal.anyJugHolds(amount));
+    }
+
+    /**
+     * Greatest common divisor by Euclid's algorithm.
+     * @param a the first number
+     * @param b the second number
+     * @return gcd(a, b)
+     */
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    /**
+     * The random number generator.
+     */
+    private final Random random;
+}
@@ -1,7 +1,10 @@
 package waterjug;
 
 import framework.Move;
+import framework.ReversibleMove;
 import framework.State;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This class represents moves in the Water Jug problem.
@@ -12,16 +15,37 @@ import framework.State;
  * therefore imports <b>framework.Move</b>.
  * This class inherits the <b>getMoveName()</b> method from its parent
  * and thus it should not have an instance field for the move name.
+ * Water jug moves are reversible: <b>undoMove()</b> generates every state the
+ * move could have been applied to, for searches that work from the goal.
+ *
+ * A move only names the jugs it acts on; the capacities come from the space
+ * of the state it is applied to. The moves for any number of jugs are
+ * generated by <b>createMoves()</b>. Moves hold no mutable state, so one move
+ * object may be used by any number of threads at once.
  * @author jmacvey
 */
-public class WaterJugMove extends Move {
+public class WaterJugMove extends Move implements ReversibleMove {
+
+    /**
+     * The kinds of water jug moves.
+     */
+    public enum Kind
+    {
+        /** Fill a jug to its capacity. */
+        FILL,
+        /** Empty a jug onto the ground. */
+        EMPTY,
+        /** Pour one jug into another until the first is empty or the second full. */
+        TRANSFER
+    }
 
     /**
      * Constructs a new water jug move object.
      * Note that the move name is passed to the parent constructor
      * using <b>super</b>.
      * @param moveName the name of this move.
-     * It is an error if the name is not one of the following:
+     * It is an error if the name is not one of the following, where X and Y
+     * may be any jug names (see <b>WaterJugSpace.getJugName()</b>):
      * <ul>
      * <li> "Fill Jug X" </li>
      * <li> "Fill Jug Y" </li>
@@ -30,10 +54,55 @@ public class WaterJugMove extends Move {
      * <li> "Transfer Jug X to Jug Y" </li>
      * <li> "Transfer Jug Y to Jug X" </li>
      * </ul>
+     * @throws IllegalArgumentException if the name is not a move name
      */
     public WaterJugMove(String moveName) {
-	super(moveName); 
-        newState = null;
+	super(moveName);
+        String[] words = moveName.split(" ");
+        if (words.length == 3 && words[0].equals("Fill") && words[1].equals("Jug"))
+        {
+            kind = Kind.FILL;
+            from = to = WaterJugSpace.getJugIndex(words[2]);
+        } else if (words.length == 3 && words[0].equals("Empty") && words[1].equals("Jug"))
+        {
+            kind = Kind.EMPTY;
+            from = to = WaterJugSpace.getJugIndex(words[2]);
+        } else if (words.length == 6 && words[0].equals("Transfer")
+                && words[1].equals("Jug") && words[3].equals("to")
+                && words[4].equals("Jug"))
+        {
+            kind = Kind.TRANSFER;
+            from = WaterJugSpace.getJugIndex(words[2]);
+            to = WaterJugSpace.getJugIndex(words[5]);
+        } else
+        {
+            throw new IllegalArgumentException("not a water jug move: " + moveName);
+        }
+        if (from < 0 || to < 0 || (kind == Kind.TRANSFER && from == to))
+            throw new IllegalArgumentException("not a water jug move: " + moveName);
+    }
+
+    /**
+     * Creates the moves for a problem with a given number of jugs: a fill and
+     * an empty for every jug, then a transfer for every ordered pair of jugs.
+     * For two jugs these are the six moves of the classic problem, in the
+     * order listed above.
+     * @param jugCount the number of jugs
+     * @return the moves
+     */
+    public static List<Move> createMoves(int jugCount) {
+        List<Move> moves = new ArrayList<>();
+        for (int jug = 0; jug < jugCount; jug++)
+            moves.add(new WaterJugMove("Fill Jug " + WaterJugSpace.getJugName(jug)));
+        for (int jug = 0; jug < jugCount; jug++)
+            moves.add(new WaterJugMove("Empty Jug " + WaterJugSpace.getJugName(jug)));
+        for (int from = 0; from < jugCount; from++)
+            for (int to = 0; to < jugCount; to++)
+                if (from != to)
+                    moves.add(new WaterJugMove("Transfer Jug "
+                            + WaterJugSpace.getJugName(from) + " to Jug "
+                            + WaterJugSpace.getJugName(to)));
+        return moves;
     }
 
     /**
@@ -42,168 +111,150 @@ public class WaterJugMove extends Move {
      * in the parent.
      * Thus the argument of type <b>State</b> must be cast to type
      * <b>WaterJugState</b> before processing.
-     * The move to perform is determined by this object's move name.
+     * The move to perform is determined by this object's kind and jugs.
      * If the move can be performed a new water jug state object is returned that
      * reflects this move.
      * A move cannot be performed if trying to fill or transfer to an already
      * full jug, or if trying to empty or transfer from an empty jug.
      * If the move cannot be performed <b>null</b> is returned.
+     * For spaces small enough to have a transition table the result is looked
+     * up rather than computed, and is the space's canonical (interned) state.
      * @param otherState the water jug state on which this move is to be performed
      * @return a new water jug state reflecting the move, or <b>null</b> if it
      * cannot be performed
+     * @throws IllegalArgumentException if the move uses a jug the state's
+     * space does not have
      */
     public State doMove(State otherState) {
-	return doMoveHelper(otherState);
-    }
-    
-    //--------------------------------------------------------------------------
-    // Private methods and Instance Fields
-    //--------------------------------------------------------------------------
-    
-    /**
-     * private helper method that implements doMove().
-     * @param otherState the current state of the problem.
-     * The function calls moveIfValid(), which manipulates the private data
-     * member newState if and only if the move is valid if applied to doMoveHelper's
-     * parameter. If the move is valid, newState holds the nextState, which 
-     * is subsequently returned by doMoveHelper(), and ultimately by doMove().  Otherwise
-     * both functions return a null value after indicating the invalid move
-     * to the client.
-     * the current state
-     * @return 
-     */
-    private State doMoveHelper(State otherState)
-    {
         WaterJugState state = (WaterJugState) otherState;
-        newState = new WaterJugState(state.getXVolume(), state.getYVolume());
-        // validate the move
-        moveIfValid();
-        // if the newState is not equal to the current state, then the move
-        // is valid, so return the new state
-        if (!newState.equals(state))
-            return newState;
-        // otherwise return null
-        else 
-            return null;
+        WaterJugSpace space = state.getSpace();
+        int jugCount = space.getJugCount();
+        if (from >= jugCount || to >= jugCount)
+            throw new IllegalArgumentException(getMoveName() + " needs more than "
+                    + jugCount + " jugs");
+        WaterJugTransitions table = space.getTransitions();
+        if (table != null)
+            return table.next(state.getKey(),
+                    WaterJugTransitions.moveIndex(kind, from, to, jugCount));
+        long key = apply(space, state.getKey());
+        return key < 0 ? null : space.state(key);
     }
-    
+
     /**
-     * Utility function for public method doMoveHelper() that manipulates data field
-     * newState if the move attempted is valid.
+     * Generates every water jug state on which this move produces the given
+     * state.  A fill can only produce a full jug and an empty can only produce
+     * an empty jug; a transfer can only produce an empty source jug or a full
+     * destination jug, and may have moved any amount that fits.
+     * @param otherState the water jug state reached by this move
+     * @return the predecessor states, possibly none
      */
-    private void moveIfValid()
-    {
-        int xVolume = newState.getXVolume();
-        int yVolume = newState.getYVolume();
-        
-        switch (getMoveName())
+    public List<State> undoMove(State otherState) {
+        WaterJugState state = (WaterJugState) otherState;
+        WaterJugSpace space = state.getSpace();
+        long key = state.getKey();
+        int fromVolume = state.getVolume(from);
+        int fromCapacity = space.getCapacity(from);
+        List<State> preds = new ArrayList<>();
+
+        switch (kind)
         {
-            case ("Fill Jug X"):
-                respondToOption1(xVolume);
-                break;
-            case ("Fill Jug Y"):
-                respondToOption2(yVolume);
+            case FILL:
+                if (fromVolume == fromCapacity)
+                    for (int v = 0; v < fromCapacity; v++)
+                        preds.add(space.state(space.withVolume(key, from, v)));
                 break;
-            case ("Empty Jug X"):
-                respondToOption3(xVolume);
+            case EMPTY:
+                if (fromVolume == 0)
+                    for (int v = 1; v <= fromCapacity; v++)
+                        preds.add(space.state(space.withVolume(key, from, v)));
                 break;
-            case ("Empty Jug Y"):
-                respondToOption4(yVolume);
-                break;
-            case ("Transfer Jug X to Jug Y"):
-                respondToOption5(xVolume, yVolume);
-                break;
-            case ("Transfer Jug Y to Jug X"):
-                respondToOption6(xVolume, yVolume);
+            case TRANSFER:
+                int toVolume = state.getVolume(to);
+                int toCapacity = space.getCapacity(to);
+                if (fromVolume == 0 || toVolume == toCapacity)
+                    for (int a = 1; a <= Math.min(toVolume, fromCapacity - fromVolume); a++)
+                        preds.add(space.state(space.withVolume(
+                                space.withVolume(key, from, fromVolume + a),
+                                to, toVolume - a)));
                 break;
         }
+        return preds;
     }
-    
-    /**
-     * Response method for user choice "Fill Jug X."
-     * @param xVolume current volume of X jug.
-     */
-    private void respondToOption1(int xVolume)
-    {
-        if (xVolume != MAX_X_VOLUME)
-            newState.setXVolume(MAX_X_VOLUME);
-    }
-    
-    /**
-     * Response method for user choice "Fill Jug Y."
-     * @param yVolume current volume of Y jug
-     */
-    private void respondToOption2(int yVolume)
-    {
-        if (yVolume != MAX_Y_VOLUME)
-            newState.setYVolume(MAX_Y_VOLUME);
-    }
-    
+
     /**
-     * Response method for user choice "Empty Jug X."
-     * @param xVolume current volume of Jug X.
+     * Getter (accessor) method for the kind of this move.
+     * @return the kind
      */
-    private void respondToOption3(int xVolume)
-    {
-        if (xVolume != 0)
-            newState.setXVolume(0);
+    public Kind getKind() {
+        return kind;
     }
-    
+
     /**
-     * Response method for user choice "Empty Jug Y."
-     * @param yVolume current volume of Jug Y.
+     * Getter (accessor) method for the jug this move fills, empties or pours
+     * from.
+     * @return the index of the jug
      */
-    private void respondToOption4(int yVolume)
-    {
-        if (yVolume != 0)
-            newState.setYVolume(0);
+    public int getFrom() {
+        return from;
     }
-    
+
     /**
-     * Response method for user choice "Transfer Jug X to Jug Y."
-     * @param xVolume current volume in jug X
-     * @param yVolume current volume in jug Y
+     * Getter (accessor) method for the jug this move pours into (the same as
+     * <b>getFrom()</b> for fills and empties).
+     * @return the index of the jug
      */
-    private void respondToOption5(int xVolume, int yVolume)
-    {
-        if (yVolume != MAX_Y_VOLUME && xVolume != 0)
-        {
-            int oldYVolume = yVolume;
-            newState.setYVolume(Math.min(xVolume + yVolume, MAX_Y_VOLUME));
-            newState.setXVolume(Math.max(0, (xVolume + oldYVolume) - MAX_Y_VOLUME));
-        }
+    public int getTo() {
+        return to;
     }
-    
+
+    //--------------------------------------------------------------------------
+    // Private methods and Instance Fields
+    //--------------------------------------------------------------------------
+
     /**
-     * Response method for user choice "Transfer Jug Y to Jug X."
-     * @param xVolume current state volume in jug X
-     * @param yVolume current state volume in jug X
+     * helper method that implements doMove() on packed keys, without
+     * creating any state.  Also used to fill the transition tables.
+     * @param space the space of the state.
+     * @param key the key of the current state of the problem.
+     * @return the key of the next state, or -1 if the move is invalid.
      */
-    private void respondToOption6(int xVolume, int yVolume)
+    long apply(WaterJugSpace space, long key)
     {
-        if (xVolume != MAX_X_VOLUME && yVolume != 0)
+        int fromVolume = space.volume(key, from);
+
+        switch (kind)
         {
-            int oldXVolume = xVolume;
-            newState.setXVolume(Math.min(xVolume + yVolume, MAX_X_VOLUME));
-            newState.setYVolume(Math.max(0, (yVolume + xVolume) - MAX_X_VOLUME));
+            case FILL:
+                if (fromVolume == space.getCapacity(from))
+                    return -1;
+                return space.withVolume(key, from, space.getCapacity(from));
+            case EMPTY:
+                if (fromVolume == 0)
+                    return -1;
+                return space.withVolume(key, from, 0);
+            default:
+                int toVolume = space.volume(key, to);
+                int amount = Math.min(fromVolume, space.getCapacity(to) - toVolume);
+                if (amount == 0)
+                    return -1;
+                return space.withVolume(
+                        space.withVolume(key, from, fromVolume - amount),
+                        to, toVolume + amount);
         }
     }
-    
-    
-        
 
     /**
-     * Maximum volume allowed in X water jug
+     * The kind of this move.
      */
-    private final int MAX_X_VOLUME = 3;
-    
+    private final Kind kind;
+
     /**
-     * Maximum volume allowed in Y water jug
+     * The jug filled, emptied or poured from.
      */
-    private final int MAX_Y_VOLUME = 4;
-    
+    private final int from;
+
     /**
-     * Prospective new state to be returned after doMove() executes.
+     * The jug poured into (equal to from for fills and empties).
      */
-    WaterJugState newState;
+    private final int to;
 }
@@ -0,0 +1,660 @@
+package waterjug;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is a pattern database for water jug problems: a table of the
+ * number of moves from every state to the nearest goal, built once by a
+ * breadth-first sweep backwards from the goal states.
+ *
+ * The table has at most 2^MAX_PATTERN_BITS entries. Each jug is either
+ * tracked exactly or only coded as empty, full, holding the goal's landmark
+ * (see <b>WaterJugGoal.getLandmark()</b>) or holding something else; jugs
+ * with the fewest key bits are tracked exactly first, as many as fit. If every
+ * jug is exact the table is indexed by the key itself and the distances are
+ * exact. Otherwise a coded "something else" stands for every such volume at
+ * once, so a move between patterns is allowed if it is possible for any of
+ * the volumes, and a pattern is a goal if any goal state has it (see
+ * <b>WaterJugGoal.isPatternGoal()</b>). Every real move is then still a move
+ * between patterns, so the distances never overestimate and the heuristic is
+ * consistent. Since empty, full and the landmark stay apart, a goal such as
+ * "some jug holds 4" is not a goal of every pattern. If the goal still is,
+ * or there are too many jugs to code, there is no table and every distance
+ * is 0.
+ *
+ * Databases are shared: <b>forGoal()</b> builds each (space, goal) table once
+ * and returns the same table to every problem and search that asks. Since a
+ * table may take up to 4 MB, only the CACHED_DATABASES most recently used are
+ * kept; a problem holds on to its own table, so an evicted table is only
+ * rebuilt for the next new problem that needs it.
+ * @author jmacvey
+ */
+public final class WaterJugPatternDatabase {
+
+    /**
+     * The most bits a table index may use, which bounds the table to
+     * 2^MAX_PATTERN_BITS bytes.
+     */
+    public static final int MAX_PATTERN_BITS = 22;
+
+    /**
+     * Distance returned for states from which no goal can be reached.
+     */
+    public static final int UNREACHABLE = Short.MAX_VALUE;
+
+    /**
+     * Gets the pattern database of a space and goal, building it on first use.
+     * @param space the jugs of the problem
+     * @param goal the goal of the problem
+     * @return the shared database
+     */
+    public static WaterJugPatternDatabase forGoal(WaterJugSpace space, WaterJugGoal goal) {
+        List<Object> id = Arrays.<Object>asList(space, goal);
+        WaterJugPatternDatabase database;
+        synchronized (DATABASES)
+        {
+            database = DATABASES.get(id);
+        }
+        if (database == null)
+        {
+            // built outside the lock so other lookups are not held up
+            database = new WaterJugPatternDatabase(space, goal);
+            synchronized (DATABASES)
+            {
+                WaterJugPatternDatabase raced = DATABASES.get(id);
+                if (raced != null)
+                    database = raced;
+                else
+                    DATABASES.put(id, database);
+            }
+        }
+        return database;
+    }
+
+    /**
+     * Looks up the distance from a state to the goal.
+     * @param state a state of this database's space
+     * @return a lower bound on the number of moves to a goal, exact if every
+     * jug is tracked exactly, or UNREACHABLE
+     */
+    public int distance(WaterJugState state) {
+        if (table == null)
+            return 0;
+        int index;
+        if (patternJugs == exact.length)
+            index = (int) state.getKey();
+        else
+        {
+            index = 0;
+            for (int jug = 0; jug < exact.length; jug++)
+                index |= fieldOf(jug, state.getVolume(jug)) << offsets[jug];
+        }
+        int distance = table[index] & 0xFF;
+        return distance == UNSEEN ? UNREACHABLE : distance;
+    }
+
+    /**
+     * Getter (accessor) method for the number of jugs tracked exactly.
+     * @return the number of jugs whose volume the table tells apart
+     */
+    public int getPatternJugs() {
+        return patternJugs;
+    }
+
+    /**
+     * Getter (accessor) method for the size of the table.
+     * @return the number of entries, or 0 if there is no table
+     */
+    public int getTableSize() {
+        return table == null ? 0 : table.length;
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Data fields and Utility methods
+    //--------------------------------------------------------------------------
+
+    /**
+     * Builds the table for a space and goal.
+     * @param space the jugs of the problem
+     * @param goal the goal of the problem
+     */
+    private WaterJugPatternDatabase(WaterJugSpace space, WaterJugGoal goal) {
+        this.space = space;
+        int jugCount = space.getJugCount();
+        exact = new boolean[jugCount];
+        widths = new int[jugCount];
+        offsets = new int[jugCount];
+        landmarks = new int[jugCount];
+        Arrays.fill(widths, CODE_BITS);
+        // track the jugs with the fewest bits exactly, as many as fit
+        int bits = CODE_BITS * jugCount;
+        int jugs = 0;
+        while (jugs < jugCount)
+        {
+            int next = -1;
+            for (int jug = 0; jug < jugCount; jug++)
+                if (!exact[jug] && (next < 0 || keyBits(jug) < keyBits(next)))
+                    next = jug;
+            if (bits - CODE_BITS + keyBits(next) > MAX_PATTERN_BITS)
+                break;
+            exact[next] = true;
+            widths[next] = keyBits(next);
+            bits += keyBits(next) - CODE_BITS;
+            jugs++;
+        }
+        this.patternJugs = jugs;
+        for (int jug = 0; jug < jugCount; jug++)
+        {
+            if (jug > 0)
+                offsets[jug] = offsets[jug - 1] + widths[jug - 1];
+            int landmark = goal.getLandmark(space, jug);
+            landmarks[jug] = (landmark > 0 && landmark < space.getCapacity(jug))
+                    ? landmark : -1;
+        }
+        if (bits <= MAX_PATTERN_BITS)
+        {
+            table = new byte[1 << bits];
+            Arrays.fill(table, (byte) UNSEEN);
+            sweep(goal);
+        }
+    }
+
+    /**
+     * Fills the table by breadth-first search backwards from every goal
+     * pattern.  Distances past MAX_DISTANCE are stored as MAX_DISTANCE, which
+     * is still a lower bound.  If every pattern is a goal the table is
+     * dropped, since it would only hold zeros.
+     * @param goal the goal of the problem
+     */
+    private void sweep(WaterJugGoal goal) {
+        queue = new int[table.length];
+        tail = 0;
+        // only a coded jug makes whole lines of an exact jug one move away
+        boolean coded = patternJugs < exact.length;
+        lines = coded ? new BitSet[exact.length] : null;
+        unseen = coded ? new int[exact.length][] : null;
+        for (int jug = 0; coded && jug < exact.length; jug++)
+            if (exact[jug])
+            {
+                lines[jug] = new BitSet(table.length);
+                unseen[jug] = new int[table.length >>> widths[jug]];
+                Arrays.fill(unseen[jug], space.getCapacity(jug) + 1);
+            }
+        int patterns = 0;
+        int[] volumes = new int[exact.length];
+        for (int index = 0; index < table.length; index++)
+        {
+            if (!isPattern(index))
+                continue;
+            patterns++;
+            for (int jug = 0; jug < exact.length; jug++)
+                volumes[jug] = volumeOf(jug, field(index, jug));
+            if (goal.isPatternGoal(space, volumes))
+                visit(index, 0);
+        }
+        if (tail == patterns)
+            table = null;
+        boolean[] full = new boolean[exact.length];
+        boolean[] empty = new boolean[exact.length];
+        for (int head = 0; table != null && head < tail; head++)
+        {
+            int index = queue[head];
+            int distance = Math.min((table[index] & 0xFF) + 1, MAX_DISTANCE);
+            for (int jug = 0; jug < exact.length; jug++)
+            {
+                int capacity = space.getCapacity(jug);
+                int field = field(index, jug);
+                full[jug] = lowest(jug, field) == capacity;
+                empty[jug] = highest(jug, field) == 0;
+                if (full[jug]) // undo a fill
+                    visitRange(index, jug, 0, capacity - 1, distance);
+                if (empty[jug]) // undo an empty
+                    visitRange(index, jug, 1, capacity, distance);
+            }
+            // a transfer empties the jug poured from or fills the other
+            for (int from = 0; from < exact.length; from++)
+                for (int to = 0; to < exact.length; to++)
+                    if (from != to && (empty[from] || full[to]))
+                        undoTransfer(index, from, to, distance);
+        }
+        queue = null;
+        lines = null;
+        unseen = null;
+    }
+
+    /**
+     * Visits the patterns from which a transfer from one jug to another leads
+     * to the given pattern, in which the first jug is empty or the second
+     * full.  The two jugs hold the same total before and after.  Some of the
+     * patterns visited may not really lead there if a jug is coded, which
+     * only weakens the bound.
+     * @param index the pattern after the transfer
+     * @param from the jug poured from
+     * @param to the jug poured into
+     * @param distance the distance of the patterns visited
+     */
+    private void undoTransfer(int index, int from, int to, int distance) {
+        int fromField = field(index, from);
+        int toField = field(index, to);
+        int capacity = space.getCapacity(to);
+        int fromLeast = 0;
+        int toMost = capacity;
+        int totalLow;
+        int totalHigh;
+        if (highest(from, fromField) == 0)
+        {
+            // something was poured, all of it now in the to jug
+            fromLeast = 1;
+            totalLow = lowest(to, toField);
+            totalHigh = highest(to, toField);
+        }
+        else
+        {
+            // the to jug was short of full by what the from jug lost
+            toMost = capacity - 1;
+            totalLow = lowest(from, fromField) + capacity;
+            totalHigh = highest(from, fromField) + capacity;
+        }
+        // run through the fields of the jug with fewer of them
+        boolean fromOuter = lastField(from) <= lastField(to);
+        int outer = fromOuter ? from : to;
+        int inner = fromOuter ? to : from;
+        int outerLeast = fromOuter ? fromLeast : 0;
+        int innerLeast = fromOuter ? 0 : fromLeast;
+        int outerMost = fromOuter ? space.getCapacity(from) : toMost;
+        int innerMost = fromOuter ? toMost : space.getCapacity(from);
+        if (exact[outer])
+        {
+            // each volume of an exact jug is a field of its own
+            int first = Math.max(Math.max(totalLow - innerMost, outerLeast), 0);
+            int last = Math.min(totalHigh - innerLeast, outerMost);
+            if (exact[inner] && first <= last)
+            {
+                // both exact, so the total is known and the patterns holding
+                // it lie on a diagonal of the table
+                int step = (1 << offsets[outer]) - (1 << offsets[inner]);
+                int at = withField(withField(index, outer, first), inner,
+                        totalLow - first);
+                for (int volume = first; volume <= last; volume++, at += step)
+                    visit(at, distance);
+                return;
+            }
+            for (int volume = first; volume <= last; volume++)
+                visitRange(withField(index, outer, volume), inner,
+                        Math.max(totalLow - volume, innerLeast),
+                        Math.min(totalHigh - volume, innerMost), distance);
+            return;
+        }
+        for (int field = 0; field <= OTHER; field++)
+        {
+            if (!isField(outer, field))
+                continue;
+            int low = Math.max(lowest(outer, field), outerLeast);
+            int high = Math.min(highest(outer, field), outerMost);
+            if (low <= high)
+                visitRange(withField(index, outer, field), inner,
+                        Math.max(totalLow - high, innerLeast),
+                        Math.min(totalHigh - low, innerMost), distance);
+        }
+    }
+
+    /**
+     * Visits every pattern that differs from a pattern only in one jug, where
+     * that jug may hold a volume in a range.
+     * @param index the pattern
+     * @param jug the jug that differs
+     * @param low the least volume of the range
+     * @param high the greatest volume of the range
+     * @param distance the distance of the patterns visited
+     */
+    private void visitRange(int index, int jug, int low, int high, int distance) {
+        low = Math.max(low, 0);
+        high = Math.min(high, space.getCapacity(jug));
+        if (!exact[jug])
+            visitCodes(index, jug, low, high, distance);
+        else if (lines != null)
+            visitLine(index, jug, low, high, distance);
+        else
+        {
+            int step = 1 << offsets[jug];
+            int at = withField(index, jug, low);
+            for (int volume = low; volume <= high; volume++, at += step)
+                visit(at, distance);
+        }
+    }
+
+    /**
+     * Visits the patterns of <b>visitRange()</b> for an exact jug, skipping
+     * those of the line already seen.
+     * @param index the pattern
+     * @param jug the exact jug that differs
+     * @param low the least volume of the range
+     * @param high the greatest volume of the range
+     * @param distance the distance of the patterns visited
+     */
+    private void visitLine(int index, int jug, int low, int high, int distance) {
+        int start = alongLine(withField(index, jug, 0), jug);
+        if (unseen[jug][start >>> widths[jug]] == 0)
+            return;
+        BitSet line = lines[jug];
+        for (int volume = line.nextClearBit(start + low) - start;
+                volume <= high;
+                volume = line.nextClearBit(start + volume + 1) - start)
+            visit(withField(index, jug, volume), distance);
+    }
+
+    /**
+     * Visits the patterns of <b>visitRange()</b> for a coded jug: those whose
+     * field stands for some volume in the range.
+     * @param index the pattern
+     * @param jug the coded jug that differs
+     * @param low the least volume of the range
+     * @param high the greatest volume of the range
+     * @param distance the distance of the patterns visited
+     */
+    private void visitCodes(int index, int jug, int low, int high, int distance) {
+        for (int code = 0; code <= OTHER; code++)
+        {
+            if (!isField(jug, code))
+                continue;
+            int least = Math.max(low, lowest(jug, code));
+            int most = Math.min(high, highest(jug, code));
+            if (least < most || (least == most
+                    && (code != OTHER || least != landmarks[jug])))
+                visit(withField(index, jug, code), distance);
+        }
+    }
+
+    /**
+     * Records the distance of a pattern and queues it, if it is not yet
+     * known.
+     * @param index the pattern
+     * @param distance its distance to the goal
+     */
+    private void visit(int index, int distance) {
+        if ((table[index] & 0xFF) != UNSEEN)
+            return;
+        table[index] = (byte) distance;
+        queue[tail++] = index;
+        if (lines != null)
+            markLines(index);
+    }
+
+    /**
+     * Records that a pattern has been seen in the lines through it.
+     * @param index the pattern
+     */
+    private void markLines(int index) {
+        for (int jug = 0; jug < exact.length; jug++)
+            if (exact[jug])
+            {
+                int along = alongLine(index, jug);
+                lines[jug].set(along);
+                unseen[jug][along >>> widths[jug]]--;
+            }
+    }
+
+    /**
+     * Tests whether a table index holds a possible pattern, that is, every
+     * jug's field stands for some volume.
+     * @param index the index
+     * @return whether the index is a pattern
+     */
+    private boolean isPattern(int index) {
+        for (int jug = 0; jug < exact.length; jug++)
+            if (!isField(jug, field(index, jug)))
+                return false;
+        return true;
+    }
+
+    /**
+     * Tests whether a field of a jug stands for some volume.
+     * @param jug the jug
+     * @param field the field
+     * @return whether some volume of the jug has this field
+     */
+    private boolean isField(int jug, int field) {
+        int capacity = space.getCapacity(jug);
+        if (exact[jug])
+            return field <= capacity;
+        if (field == LANDMARK)
+            return landmarks[jug] >= 0;
+        if (field == OTHER)
+            return capacity - 1 > (landmarks[jug] >= 0 ? 1 : 0);
+        return true;
+    }
+
+    /**
+     * Gets the field of a jug that stands for a volume.
+     * @param jug the jug
+     * @param volume the volume
+     * @return the field
+     */
+    private int fieldOf(int jug, int volume) {
+        if (exact[jug])
+            return volume;
+        if (volume == 0)
+            return EMPTY;
+        if (volume == space.getCapacity(jug))
+            return FULL;
+        return volume == landmarks[jug] ? LANDMARK : OTHER;
+    }
+
+    /**
+     * Gets the volume a field of a jug stands for.
+     * @param jug the jug
+     * @param field the field
+     * @return the volume, or WaterJugGoal.OTHER_VOLUME if it stands for
+     * several
+     */
+    private int volumeOf(int jug, int field) {
+        if (exact[jug])
+            return field;
+        switch (field)
+        {
+            case EMPTY:
+                return 0;
+            case FULL:
+                return space.getCapacity(jug);
+            case LANDMARK:
+                return landmarks[jug];
+            default:
+                return WaterJugGoal.OTHER_VOLUME;
+        }
+    }
+
+    /**
+     * Gets the least volume a field of a jug stands for.
+     * @param jug the jug
+     * @param field the field
+     * @return the volume
+     */
+    private int lowest(int jug, int field) {
+        return !exact[jug] && field == OTHER ? 1 : volumeOf(jug, field);
+    }
+
+    /**
+     * Gets the greatest volume a field of a jug stands for.
+     * @param jug the jug
+     * @param field the field
+     * @return the volume
+     */
+    private int highest(int jug, int field) {
+        return !exact[jug] && field == OTHER
+                ? space.getCapacity(jug) - 1 : volumeOf(jug, field);
+    }
+
+    /**
+     * Gets the largest field of a jug.
+     * @param jug the jug
+     * @return the field
+     */
+    private int lastField(int jug) {
+        return exact[jug] ? space.getCapacity(jug) : OTHER;
+    }
+
+    /**
+     * Extracts the field of one jug from a table index.
+     * @param index the index
+     * @param jug the jug
+     * @return the field
+     */
+    private int field(int index, int jug) {
+        return (index >>> offsets[jug]) & ((1 << widths[jug]) - 1);
+    }
+
+    /**
+     * Replaces the field of one jug in a table index.
+     * @param index the index
+     * @param jug the jug
+     * @param field the new field
+     * @return the new index
+     */
+    private int withField(int index, int jug, int field) {
+        return (index & ~(((1 << widths[jug]) - 1) << offsets[jug]))
+                | (field << offsets[jug]);
+    }
+
+    /**
+     * Moves the field of one jug of a table index to the low bits, so the
+     * patterns that differ only in that jug are next to each other.
+     * @param index the index
+     * @param jug the jug
+     * @return the rearranged index
+     */
+    private int alongLine(int index, int jug) {
+        int below = index & ((1 << offsets[jug]) - 1);
+        int above = index >>> (offsets[jug] + widths[jug]);
+        return field(index, jug) | (below << widths[jug])
+                | (above << (offsets[jug] + widths[jug]));
+    }
+
+    /**
+     * Gets the number of key bits of one jug.
+     * @param jug the jug
+     * @return the number of bits
+     */
+    private int keyBits(int jug) {
+        return space.getKeyBits(jug + 1) - space.getKeyBits(jug);
+    }
+
+    /**
+     * Table entry of a pattern from which no goal is reachable.
+     */
+    private static final int UNSEEN = 0xFF;
+
+    /**
+     * The largest distance stored in the table.
+     */
+    private static final int MAX_DISTANCE = UNSEEN - 1;
+
+    /**
+     * Bits of a coded jug's field.
+     */
+    private static final int CODE_BITS = 2;
+
+    /**
+     * Field of a coded jug that is empty.
+     */
+    private static final int EMPTY = 0;
+
+    /**
+     * Field of a coded jug that is full.
+     */
+    private static final int FULL = 1;
+
+    /**
+     * Field of a coded jug that holds its landmark.
+     */
+    private static final int LANDMARK = 2;
+
+    /**
+     * Field of a coded jug that holds anything else.
+     */
+    private static final int OTHER = 3;
+
+    /**
+     * Number of databases kept for sharing.
+     */
+    static final int CACHED_DATABASES = 16;
+
+    /**
+     * The databases most recently used, by space and goal, in access order.
+     * Guarded by its own lock.
+     */
+    private static final LinkedHashMap<List<Object>, WaterJugPatternDatabase> DATABASES
+            = new LinkedHashMap<List<Object>, WaterJugPatternDatabase>(16, 0.75f, true)
+            {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<List<Object>, WaterJugPatternDatabase> eldest)
+                {
+                    return size() > CACHED_DATABASES;
+                }
+            };
+
+    /**
+     * The jugs of the problem.
+     */
+    private final WaterJugSpace space;
+
+    /**
+     * Number of jugs tracked exactly.
+     */
+    private final int patternJugs;
+
+    /**
+     * Whether each jug is tracked exactly rather than coded.
+     */
+    private final boolean[] exact;
+
+    /**
+     * Bits of each jug's field in a table index.
+     */
+    private final int[] widths;
+
+    /**
+     * Position of each jug's field in a table index.
+     */
+    private final int[] offsets;
+
+    /**
+     * The goal's landmark of each jug, or -1 if it has none strictly between
+     * empty and full.
+     */
+    private final int[] landmarks;
+
+    /**
+     * The sweep's queue of patterns; null once the table is built.
+     */
+    private int[] queue;
+
+    /**
+     * The end of the sweep's queue.
+     */
+    private int tail;
+
+    /**
+     * The patterns seen by the sweep, for each exact jug, indexed with that
+     * jug's field lowest (see <b>alongLine()</b>); null once the table is
+     * built.
+     */
+    private BitSet[] lines;
+
+    /**
+     * The number of patterns of each line of <b>lines</b> not yet seen;
+     * null once the table is built.
+     */
+    private int[][] unseen;
+
+    /**
+     * Distance to the goal of every pattern, indexed by the fields of its
+     * jugs; null if there are too many jugs or every pattern is a goal.  Not
+     * changed once the database is built.
+     */
+    private byte[] table;
+}
@@ -1,9 +1,10 @@
 package waterjug;
 
-import framework.Move;
 import framework.Problem;
+import framework.State;
+import framework.StateIndexer;
 import java.util.List;
-import java.util.Arrays;
+import java.util.LinkedList;
 
 /**
  * This class represents the Water Jug problem.
@@ -15,10 +16,27 @@ import java.util.Arrays;
  * This class inherits the <b>setIntroduction(), setCurrentState()</b>, and
  * <b>setMoves()</b> methods from its parent
  * and thus it should not have any instance fields for these attributes.
+ *
+ * Besides the classic two-jug problem, a water jug problem can have any
+ * number of jugs of any capacities (a <b>WaterJugSpace</b>) and any goal
+ * (a <b>WaterJugGoal</b>).
  * @author jmacvey
  */
 public class WaterJugProblem extends Problem {
 
+    /**
+     * Largest key size, in bits, for which states are indexed densely.
+     */
+    public static final int MAX_INDEX_BITS = 22;
+
+    /**
+     * Fewest instances that must share a goal for <b>forGoal(State, int)</b>
+     * to build the goal's pattern database.  Building it sweeps the whole
+     * space, which costs about as much as one uninformed search, so a single
+     * search is informed by the goal's <b>estimate</b> instead.
+     */
+    public static final int MIN_PATTERN_DATABASE_USES = 2;
+
     /**
      * Constructs a new water jug problem object.  A new water jug state object
      * should be constructed with zero gallons in both jugs.
@@ -30,9 +48,62 @@ public class WaterJugProblem extends Problem {
      * using the inherited <b>setIntroduction()</b>.
      */
     public WaterJugProblem() {
+        this.space = WaterJugSpace.CLASSIC;
+        this.goal = WaterJugGoal.anyJugHolds(2);
+        this.usePatternDatabase = true;
+        this.indexer = new KeyIndexer(space);
         initializeAll();
     }
 
+    /**
+     * Constructs a water jug problem with any jugs and any goal, starting with
+     * every jug empty.
+     * The final state is the goal's target if it has a single one, and
+     * null otherwise.
+     * @param space the jugs of the problem
+     * @param goal the goal of the problem
+     */
+    public WaterJugProblem(WaterJugSpace space, WaterJugGoal goal) {
+        this(space, goal, new WaterJugState(space, new int[space.getJugCount()]));
+    }
+
+    /**
+     * Constructs a water jug problem with any jugs, goal and start state.
+     * @param space the jugs of the problem
+     * @param goal the goal of the problem
+     * @param start the start state, which must belong to the space
+     */
+    public WaterJugProblem(WaterJugSpace space, WaterJugGoal goal,
+            WaterJugState start) {
+        this(space, goal, start, true);
+    }
+
+    /**
+     * Constructs a water jug problem with any jugs, goal and start state,
+     * choosing its heuristic.
+     * @param space the jugs of the problem
+     * @param goal the goal of the problem
+     * @param start the start state, which must belong to the space
+     * @param usePatternDatabase whether the heuristic reads a pattern
+     * database, rather than the goal's estimate
+     */
+    private WaterJugProblem(WaterJugSpace space, WaterJugGoal goal,
+            WaterJugState start, boolean usePatternDatabase) {
+        this.space = space;
+        this.goal = goal;
+        this.usePatternDatabase = usePatternDatabase;
+        this.indexer = new KeyIndexer(space);
+        this.setCurrentState(start);
+        this.setFinalState(goal.getTarget(space));
+        this.setMultiProblem(false);
+        this.setHasCanvas(false);
+        this.setIntroduction("Welcome to the Water Jug Problem.\n\n"
+                + "You are given " + space.getJugCount() + " jugs holding "
+                + space + " gallons.\n"
+                + "The goal is: " + goal + ".");
+        this.setMoves(WaterJugMove.createMoves(space.getJugCount()));
+    }
+
     /**
      * Returns whether the current state of this problem is a success.
      * Note that this method implements the abstract <b>success</b> method declared
@@ -41,22 +112,147 @@ public class WaterJugProblem extends Problem {
      * inherited <b>getCurrentState()</b> method.
      * Since that method returns a value of type <b>State</b>, it must be cast to
      * <b>WaterJugState</b> before processing.
-     * The current state is a success if either jug has 2 gallons.
+     * The current state is a success if it satisfies the goal; for the classic
+     * problem, if either jug has 2 gallons.
      * @return <b>true</b> if the current state is a success, <b>false</b> otherwise
      */
     public boolean success() {
+        return success(getCurrentState());
+    }
+
+    /**
+     * Returns whether a given state is a success, without touching the
+     * current state of the problem.  This is safe to call from several
+     * search threads at once.
+     * @param state the state to test
+     * @return <b>true</b> if the state satisfies the goal, <b>false</b> otherwise
+     */
+    @Override
+    public boolean success(State state) {
+        return goal.isGoal((WaterJugState) state);
+    }
+
+    /**
+     * Gets the heuristic estimate of the distance from a state to the goal,
+     * read from the pattern database of this problem's space and goal, or
+     * the goal's own estimate for a problem made by <b>forGoal(State, int)</b>
+     * for too few instances.  The estimate never overestimates, and is exact
+     * when the database tracks every jug.
+     * @param state the state to estimate
+     * @return the estimated number of moves to a goal
+     */
+    @Override
+    public int getHeuristic(State state) {
+        WaterJugState jugs = (WaterJugState) state;
+        return usePatternDatabase ? getPatternDatabase().distance(jugs)
+                : goal.estimate(jugs);
+    }
+
+    /**
+     * Builds (or fetches) the pattern database now, if the heuristic reads
+     * one, so that a time-limited search does not spend its time on it.
+     */
+    @Override
+    public void prepareHeuristic() {
+        if (usePatternDatabase)
+            getPatternDatabase();
+    }
+
+    /**
+     * Gets the state indexer of this problem.  A state's ordinal is its
+     * packed key, so indexing is free; spaces whose keys need more than
+     * MAX_INDEX_BITS bits have no indexer and are searched with hash tables.
+     * @return the indexer, or null if the space is too large
+     */
+    @Override
+    public StateIndexer getStateIndexer() {
+        return space.getKeyBits(space.getJugCount()) <= MAX_INDEX_BITS
+                ? indexer : null;
+    }
+
+    /**
+     * Gets the pattern database of this problem, building it (or fetching
+     * it from the shared databases) on first use.
+     * @return the pattern database
+     */
+    public WaterJugPatternDatabase getPatternDatabase() {
+        WaterJugPatternDatabase database = patternDatabase;
+        if (database == null)
+        {
+            synchronized (this)
+            {
+                database = patternDatabase;
+                if (database == null)
+                    patternDatabase = database = WaterJugPatternDatabase.forGoal(space, goal);
+            }
+        }
+        return database;
+    }
+
+    /**
+     * Returns every state that is a success.  Used by searches that work
+     * backwards from the goal.
+     * @return the goal states
+     */
+    @Override
+    public List<State> getGoalStates() {
+        return new LinkedList<State>(goal.getGoalStates(space));
+    }
 
-	WaterJugState cur = (WaterJugState) getCurrentState();
-        if (cur.getXVolume() == 2 || cur.getYVolume() == 2)
-            return true;
-        else
-            return false;
+    /**
+     * Gets the problem of reaching a given state in the same jugs.  Unlike
+     * the view made by <b>Problem.forGoal</b>, whose heuristic would be the
+     * states' own (always 0), this is a water jug problem in its own right,
+     * so its searches read the pattern database of the new goal.
+     * @param goal the goal state, of this problem's space
+     * @return the problem of reaching the goal
+     */
+    @Override
+    public Problem forGoal(State goal) {
+        return forGoal(goal, MIN_PATTERN_DATABASE_USES);
+    }
+
+    /**
+     * Gets the problem of reaching a given state in the same jugs, to be
+     * solved for a number of instances.  Its searches read the pattern
+     * database of the new goal only if at least MIN_PATTERN_DATABASE_USES
+     * instances share it; otherwise they use the goal's estimate, which
+     * needs no table.
+     * @param goal the goal state, of this problem's space
+     * @param instances the number of instances that will be solved
+     * @return the problem of reaching the goal
+     */
+    @Override
+    public Problem forGoal(State goal, int instances) {
+        WaterJugState target = (WaterJugState) goal;
+        int[] volumes = new int[space.getJugCount()];
+        for (int jug = 0; jug < volumes.length; jug++)
+            volumes[jug] = target.getVolume(jug);
+        return new WaterJugProblem(space, WaterJugGoal.volumes(volumes),
+                (WaterJugState) getCurrentState(),
+                instances >= MIN_PATTERN_DATABASE_USES);
+    }
+
+    /**
+     * Getter (accessor) method for the jugs of this problem.
+     * @return the space of the problem
+     */
+    public WaterJugSpace getSpace() {
+        return space;
+    }
+
+    /**
+     * Getter (accessor) method for the goal of this problem.
+     * @return the goal
+     */
+    public WaterJugGoal getGoal() {
+        return goal;
     }
-    
+
     //--------------------------------------------------------------------------
     // Private Data fields and Utility methods
     //--------------------------------------------------------------------------
-    
+
     /**
      * Private utility method to initialize the first water jug state, the
      * string, as we as the valid moves list.
@@ -66,28 +262,76 @@ public class WaterJugProblem extends Problem {
     {
         // initialize the water jug state
         this.setCurrentState(new WaterJugState(0,0));
-        
+
         this.setFinalState(new WaterJugState(2, 4));
         this.setMultiProblem(false);
         // initialize intro string
-        String introStr =  "Welcome to the Water Jug Problem.\n\n" 
+        String introStr =  "Welcome to the Water Jug Problem.\n\n"
                 + "You are given two empty jugs: jug X holds 3 gallons, jug Y holds 4.\n"
                 + "Neither has any measuring markers on it. You have a ready supply\n"
                 + "of water. You can fill either jug, empty either jug on the ground\n"
                 + "or pour all or some of either jug into the other.  The goal is to\n"
                 + "get exactly 2 gallons of water into either jug.";
         this.setIntroduction(introStr);
-        
-        // Initialize the List (immutable)
-            // note that we lose type protection here
-      List<? extends Move> WaterJugMoves = Arrays.asList(
-              new WaterJugMove("Fill Jug X"),
-              new WaterJugMove("Fill Jug Y"),
-              new WaterJugMove("Empty Jug X"),
-              new WaterJugMove("Empty Jug Y"),
-              new WaterJugMove("Transfer Jug X to Jug Y"),
-              new WaterJugMove("Transfer Jug Y to Jug X"));
-      this.setMoves((List<Move>) WaterJugMoves);
-    }
-    
+
+        // the six moves: fill X/Y, empty X/Y, transfer X to Y and Y to X
+        this.setMoves(WaterJugMove.createMoves(space.getJugCount()));
+    }
+
+    /**
+     * State indexer that uses the packed key of a state as its ordinal.
+     */
+    private static final class KeyIndexer implements StateIndexer {
+
+        KeyIndexer(WaterJugSpace space) {
+            this.space = space;
+        }
+
+        @Override
+        public int getStateCount() {
+            return 1 << space.getKeyBits(space.getJugCount());
+        }
+
+        @Override
+        public int indexOf(State state) {
+            return (int) ((WaterJugState) state).getKey();
+        }
+
+        @Override
+        public State stateAt(int index) {
+            return space.state(index);
+        }
+
+        /**
+         * The jugs of the problem.
+         */
+        private final WaterJugSpace space;
+    }
+
+    /**
+     * The jugs of this problem.
+     */
+    private final WaterJugSpace space;
+
+    /**
+     * The goal of this problem.
+     */
+    private final WaterJugGoal goal;
+
+    /**
+     * Whether the heuristic reads the pattern database rather than the
+     * goal's estimate.
+     */
+    private final boolean usePatternDatabase;
+
+    /**
+     * The pattern database, fetched on first use.
+     */
+    private volatile WaterJugPatternDatabase patternDatabase;
+
+    /**
+     * Indexer of this problem's states, used if the space is small enough.
+     */
+    private final StateIndexer indexer;
+
 }
@@ -0,0 +1,342 @@
+package waterjug;
+
+import framework.SearchAlgorithm;
+import framework.SearchResult;
+import framework.SearchStatistics;
+import framework.State;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A command-line solver for batches of water jug problems, with no GUI.
+ *
+ * Each line of the input describes one problem by up to four fields separated
+ * by white space:
+ * <pre>
+ *   capacities  start  goal  [algorithm]
+ *   3,5,8       0,0,8  any:4 ENHANCED_A_STAR
+ *   3,4         -      2,0
+ * </pre>
+ * The start lists the volume in each jug, or is "-" for empty jugs. The goal
+ * is "any:k" for any jug holding k, or the volume wanted in each jug. The
+ * algorithm is the name of a <b>SearchAlgorithm</b> constant, or its display
+ * name without spaces such as IDA*; it defaults to the one given with -a, or
+ * to Enhanced A*. Blank lines and lines starting with '#' are skipped.
+ *
+ * One JSON object is written to the standard output for each problem (NDJSON),
+ * with the solution path and the statistics of the search, or with an error
+ * if the line could not be parsed or solved. A summary of the throughput and
+ * latency percentiles goes to the standard error at the end, so the output
+ * stays valid NDJSON.
+ *
+ * Only the framework and the water jug model are used, never the GUI, so no
+ * AWT or Swing class is loaded and the solver runs on headless machines.
+ * @author jmacvey
+ */
+public class WaterJugSolver {
+
+    /**
+     * Solves the problems of a file, or of the standard input.
+     * @param args [-a algorithm] [file]; a file of "-" is the standard input
+     */
+    public static void main(String[] args) {
+        SearchAlgorithm algorithm = SearchAlgorithm.ENHANCED_A_STAR;
+        String file = "-";
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("-a") && i + 1 < args.length)
+                    algorithm = parseAlgorithm(args[++i]);
+                else if (args[i].startsWith("-") && args[i].length() > 1)
+                    throw new IllegalArgumentException("unknown option: " + args[i]);
+                else
+                    file = args[i];
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        WaterJugSolver solver = new WaterJugSolver(algorithm, System.out);
+        try (InputStream in = file.equals("-") ? System.in
+                : new FileInputStream(file)) {
+            solver.solveAll(new BufferedReader(
+                    new InputStreamReader(in, StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            System.err.println("cannot read " + file + ": " + e.getMessage());
+            System.exit(1);
+        }
+        System.err.println(solver.getSummary());
+    }
+
+    /**
+     * Creates a solver.
+     * @param algorithm the algorithm for lines that do not name one
+     * @param out where the results are written
+     */
+    public WaterJugSolver(SearchAlgorithm algorithm, PrintStream out) {
+        this.algorithm = algorithm;
+        this.out = out;
+    }
+
+    /**
+     * Solves the problem on every line of the input, writing one result per
+     * problem.
+     * @param in the input
+     * @throws IOException if the input cannot be read
+     */
+    public void solveAll(BufferedReader in) throws IOException {
+        long begin = System.nanoTime();
+        int lineNumber = 0;
+        for (String line = in.readLine(); line != null; line = in.readLine()) {
+            lineNumber++;
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#"))
+                out.println(solveLine(lineNumber, line));
+        }
+        out.flush();
+        elapsedNanos += System.nanoTime() - begin;
+    }
+
+    /**
+     * Solves the problem on one line.
+     * @param lineNumber the number of the line in the input
+     * @param line the line
+     * @return the result as a JSON object
+     */
+    public String solveLine(int lineNumber, String line) {
+        StringBuilder json = new StringBuilder("{\"line\":").append(lineNumber);
+        long begin = System.nanoTime();
+        try {
+            String[] fields = line.split("\\s+");
+            if (fields.length < 3 || fields.length > 4)
+                throw new IllegalArgumentException(
+                        "expected capacities, start, goal and algorithm");
+            WaterJugSpace space = new WaterJugSpace(parseVolumes(fields[0]));
+            WaterJugState start = fields[1].equals("-")
+                    ? new WaterJugState(space, new int[space.getJugCount()])
+                    : new WaterJugState(space, parseVolumes(fields[1]));
+            WaterJugGoal goal = fields[2].startsWith("any:")
+                    ? WaterJugGoal.anyJugHolds(Integer.parseInt(fields[2].substring(4)))
+                    : WaterJugGoal.volumes(parseVolumes(fields[2]));
+            SearchAlgorithm lineAlgorithm = (fields.length == 4)
+                    ? parseAlgorithm(fields[3]) : algorithm;
+
+            SearchResult result = new WaterJugProblem(space, goal, start)
+                    .solve(start, lineAlgorithm);
+            long latency = System.nanoTime() - begin;
+            // the result is written apart, so a failure leaves neither half
+            // of it in the line nor the problem counted twice
+            StringBuilder resultFields = new StringBuilder();
+            appendResult(resultFields, space, start, goal, lineAlgorithm, result, latency);
+            json.append(resultFields);
+            record(latency);
+            if (result.isSolved())
+                solved++;
+        } catch (RuntimeException e) {
+            failed++;
+            json.append(",\"error\":");
+            appendString(json, String.valueOf(e.getMessage() == null
+                    ? e.getClass().getSimpleName() : e.getMessage()));
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Summarizes the problems solved so far: how many, how fast, and the
+     * percentiles of the time taken per problem.
+     * @return the summary
+     */
+    public String getSummary() {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        double seconds = elapsedNanos / 1e9;
+        return String.format("%d problems, %d solved, %d failed in %.3f s"
+                + " (%.1f problems/s); latency ms p50 %.3f p90 %.3f p99 %.3f max %.3f",
+                count + failed, solved, failed, seconds,
+                seconds > 0 ? count / seconds : 0.0,
+                percentile(sorted, 50), percentile(sorted, 90),
+                percentile(sorted, 99), percentile(sorted, 100));
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Data fields and Utility methods
+    //--------------------------------------------------------------------------
+
+    /**
+     * Writes the fields of a solved or unsolved problem.
+     * @param json the object being written
+     * @param space the jugs
+     * @param start the start state
+     * @param goal the goal
+     * @param lineAlgorithm the algorithm run
+     * @param result the result of the search
+     * @param latency the time taken for the line, in nanoseconds
+     */
+    private static void appendResult(StringBuilder json, WaterJugSpace space,
+            WaterJugState start, WaterJugGoal goal, SearchAlgorithm lineAlgorithm,
+            SearchResult result, long latency) {
+        SearchStatistics stats = result.getStatistics();
+        json.append(",\"capacities\":").append(Arrays.toString(space.getCapacities()).replace(" ", ""));
+        json.append(",\"start\":");
+        appendVolumes(json, start);
+        json.append(",\"goal\":");
+        appendString(json, goal.toString());
+        json.append(",\"algorithm\":\"").append(lineAlgorithm.name()).append('"');
+        json.append(",\"solved\":").append(result.isSolved());
+        json.append(",\"length\":").append(result.getSolutionLength());
+        if (result.isSolved()) {
+            json.append(",\"path\":[");
+            String separator = "";
+            for (State state : result.getPath()) {
+                json.append(separator);
+                appendVolumes(json, (WaterJugState) state);
+                separator = ",";
+            }
+            json.append(']');
+        }
+        json.append(",\"generated\":").append(stats.getGenerated());
+        json.append(",\"expanded\":").append(stats.getExpanded());
+        json.append(",\"duplicates\":").append(stats.getDuplicates());
+        json.append(",\"pruned\":").append(stats.getPruned());
+        json.append(",\"peakFrontier\":").append(stats.getPeakFrontier());
+        json.append(",\"openRediscoveries\":").append(stats.getOpenRediscoveries());
+        json.append(",\"closedRediscoveries\":").append(stats.getClosedRediscoveries());
+        json.append(",\"searchNanos\":").append(stats.getWallTimeNanos());
+        json.append(",\"latencyNanos\":").append(latency);
+    }
+
+    /**
+     * Writes the volumes of a state as a JSON array.
+     * @param json the object being written
+     * @param state the state
+     */
+    private static void appendVolumes(StringBuilder json, WaterJugState state) {
+        json.append('[');
+        for (int jug = 0; jug < state.getSpace().getJugCount(); jug++) {
+            if (jug > 0)
+                json.append(',');
+            json.append(state.getVolume(jug));
+        }
+        json.append(']');
+    }
+
+    /**
+     * Writes a JSON string, escaping quotes, backslashes and control
+     * characters.
+     * @param json the object being written
+     * @param s the string
+     */
+    private static void appendString(StringBuilder json, String s) {
+        json.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\')
+                json.append('\\').append(c);
+            else if (c < ' ')
+                json.append(String.format("\\u%04x", (int) c));
+            else
+                json.append(c);
+        }
+        json.append('"');
+    }
+
+    /**
+     * Parses a comma separated list of volumes, for example "3,5,8".
+     * @param field the list
+     * @return the volumes
+     * @throws NumberFormatException if a volume is not a number
+     */
+    private static int[] parseVolumes(String field) {
+        String[] parts = field.split(",");
+        int[] volumes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++)
+            volumes[i] = Integer.parseInt(parts[i]);
+        return volumes;
+    }
+
+    /**
+     * Parses an algorithm by constant name, or by display name with the
+     * spaces left out.
+     * @param name the name
+     * @return the algorithm
+     * @throws IllegalArgumentException if no algorithm has the name
+     */
+    private static SearchAlgorithm parseAlgorithm(String name) {
+        for (SearchAlgorithm candidate : SearchAlgorithm.values())
+            if (candidate.name().equals(name)
+                    || candidate.getDisplayName().replace(" ", "").equals(name))
+                return candidate;
+        throw new IllegalArgumentException("unknown algorithm: " + name);
+    }
+
+    /**
+     * Records the latency of a problem that was solved or proven unsolvable.
+     * @param latency the latency in nanoseconds
+     */
+    private void record(long latency) {
+        if (count == latencies.length)
+            latencies = Arrays.copyOf(latencies, 2 * count);
+        latencies[count++] = latency;
+    }
+
+    /**
+     * Gets a percentile of sorted latencies by the nearest-rank method.
+     * @param sorted the latencies in increasing order
+     * @param p the percentile, from 1 to 100
+     * @return the latency in milliseconds, or 0 if there are none
+     */
+    private static double percentile(long[] sorted, int p) {
+        if (sorted.length == 0)
+            return 0.0;
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1e6;
+    }
+
+    /**
+     * How the solver is run.
+     */
+    private static final String USAGE =
+            "usage: java waterjug.WaterJugSolver [-a algorithm] [file]";
+
+    /**
+     * The algorithm for lines that do not name one.
+     */
+    private final SearchAlgorithm algorithm;
+
+    /**
+     * Where the results are written.
+     */
+    private final PrintStream out;
+
+    /**
+     * Latency of each problem searched, in nanoseconds.
+     */
+    private long[] latencies = new long[64];
+
+    /**
+     * # of problems searched.
+     */
+    private int count;
+
+    /**
+     * # of problems solved.
+     */
+    private int solved;
+
+    /**
+     * # of lines that could not be parsed or solved.
+     */
+    private int failed;
+
+    /**
+     * Time spent in solveAll, in nanoseconds.
+     */
+    private long elapsedNanos;
+}
@@ -0,0 +1,298 @@
+package waterjug;
+
+import java.util.Arrays;
+
+/**
+ * This class describes the state space of a water jug problem: how many jugs
+ * there are and how much each one holds.
+ *
+ * It also knows how to pack the volumes of all jugs into one <b>long</b> key.
+ * Each jug gets just enough bits for its capacity, so a state can be stored,
+ * compared and hashed as a single primitive value. Spaces are immutable and
+ * are compared by their capacities. Small spaces also keep a transition table
+ * (see <b>WaterJugTransitions</b>) holding one interned instance of each state.
+ * @author jmacvey
+ */
+public final class WaterJugSpace {
+
+    /**
+     * The space of the classic problem: jug X holds 3 gallons, jug Y holds 4.
+     */
+    public static final WaterJugSpace CLASSIC = new WaterJugSpace(3, 4);
+
+    /**
+     * Creates a new water jug space.
+     * @param capacities the capacity of each jug, in gallons (at least one
+     * jug, each holding at least 1 gallon)
+     * @throws IllegalArgumentException if a capacity is not positive or the
+     * volumes of all jugs do not fit in 63 bits
+     */
+    public WaterJugSpace(int... capacities) {
+        if (capacities.length == 0)
+            throw new IllegalArgumentException("a water jug space needs a jug");
+        this.capacities = capacities.clone();
+        shifts = new int[capacities.length];
+        masks = new long[capacities.length];
+        int shift = 0;
+        long stateCount = 1;
+        for (int i = 0; i < capacities.length; i++)
+        {
+            if (capacities[i] < 1)
+                throw new IllegalArgumentException("jug " + getJugName(i)
+                        + " has capacity " + capacities[i]);
+            int bits = 32 - Integer.numberOfLeadingZeros(capacities[i]);
+            shifts[i] = shift;
+            masks[i] = (1L << bits) - 1;
+            shift += bits;
+            stateCount = (stateCount > Long.MAX_VALUE / (capacities[i] + 1))
+                    ? Long.MAX_VALUE : stateCount * (capacities[i] + 1);
+        }
+        if (shift > 63)
+            throw new IllegalArgumentException("volumes need " + shift
+                    + " bits; at most 63 fit in a key");
+        this.stateCount = stateCount;
+        this.keyBits = shift;
+    }
+
+    /**
+     * Getter (accessor) method for the number of jugs.
+     * @return the number of jugs
+     */
+    public int getJugCount() {
+        return capacities.length;
+    }
+
+    /**
+     * Getter (accessor) method for the capacity of a jug.
+     * @param jug the index of the jug
+     * @return the most the jug holds
+     */
+    public int getCapacity(int jug) {
+        return capacities[jug];
+    }
+
+    /**
+     * Getter (accessor) method for the capacities of all jugs.
+     * @return a copy of the capacities
+     */
+    public int[] getCapacities() {
+        return capacities.clone();
+    }
+
+    /**
+     * Gets the number of states in this space, the product of (capacity + 1)
+     * over all jugs.
+     * @return the state count, or Long.MAX_VALUE if it overflows
+     */
+    public long getStateCount() {
+        return stateCount;
+    }
+
+    /**
+     * Gets the display name of a jug: X, Y and Z for the first three jugs,
+     * then the letters A to W, then J followed by the index.
+     * @param jug the index of the jug
+     * @return the jug's name
+     */
+    public static String getJugName(int jug) {
+        if (jug < 3)
+            return String.valueOf("XYZ".charAt(jug));
+        else if (jug < 26)
+            return String.valueOf((char) ('A' + jug - 3));
+        else
+            return "J" + jug;
+    }
+
+    /**
+     * Gets the index of a jug from its display name.
+     * @param name the name of the jug
+     * @return the index, or -1 if the name is not a jug name
+     */
+    public static int getJugIndex(String name) {
+        for (int jug = 0; jug < 26; jug++)
+            if (getJugName(jug).equals(name))
+                return jug;
+        if (name.startsWith("J"))
+        {
+            try
+            {
+                int jug = Integer.parseInt(name.substring(1));
+                return jug >= 26 ? jug : -1;
+            } catch (NumberFormatException ex)
+            {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the number of key bits used by the first jugs.  The first jugs
+     * always occupy the low bits of a key, so masking a key with
+     * (1L &lt;&lt; getKeyBits(jugs)) - 1 keeps just their volumes.
+     * @param jugs the number of jugs, from 0 to getJugCount()
+     * @return the number of bits
+     */
+    public int getKeyBits(int jugs) {
+        return jugs == capacities.length ? keyBits : shifts[jugs];
+    }
+
+    /**
+     * Packs jug volumes into a key.
+     * @param volumes the volume of each jug
+     * @return the key
+     * @throws IllegalArgumentException if the number of volumes is wrong or a
+     * volume is out of range
+     */
+    public long pack(int... volumes) {
+        if (volumes.length != capacities.length)
+            throw new IllegalArgumentException("expected " + capacities.length
+                    + " volumes, got " + volumes.length);
+        long key = 0;
+        for (int i = 0; i < volumes.length; i++)
+        {
+            if (volumes[i] < 0 || volumes[i] > capacities[i])
+                throw new IllegalArgumentException("jug " + getJugName(i)
+                        + " cannot hold " + volumes[i]);
+            key |= (long) volumes[i] << shifts[i];
+        }
+        return key;
+    }
+
+    /**
+     * Extracts the volume of one jug from a key.
+     * @param key the key
+     * @param jug the index of the jug
+     * @return the jug's volume
+     */
+    public int volume(long key, int jug) {
+        return (int) ((key >>> shifts[jug]) & masks[jug]);
+    }
+
+    /**
+     * Replaces the volume of one jug in a key.
+     * @param key the key
+     * @param jug the index of the jug
+     * @param volume the jug's new volume
+     * @return the new key
+     */
+    public long withVolume(long key, int jug, int volume) {
+        return (key & ~(masks[jug] << shifts[jug])) | ((long) volume << shifts[jug]);
+    }
+
+    /**
+     * Gets the state with a given position in this space, counting states in
+     * mixed radix with jug 0 as the fastest digit.
+     * @param ordinal the position, from 0 to getStateCount() - 1
+     * @return the state
+     */
+    public WaterJugState stateAt(long ordinal) {
+        long key = 0;
+        for (int i = 0; i < capacities.length; i++)
+        {
+            key |= (ordinal % (capacities[i] + 1)) << shifts[i];
+            ordinal /= capacities[i] + 1;
+        }
+        return state(key);
+    }
+
+    /**
+     * Gets the state with a key: the canonical instance from the transition
+     * table if this space has one, and a new state otherwise.
+     * @param key the key of a state of this space
+     * @return the state
+     */
+    WaterJugState state(long key) {
+        WaterJugTransitions table = getTransitions();
+        return table != null ? table.state(key) : new WaterJugState(this, key);
+    }
+
+    /**
+     * Gets the transition table of this space, building it on first use.
+     * @return the table, or null if this space is too large for one
+     */
+    WaterJugTransitions getTransitions() {
+        WaterJugTransitions table = transitions;
+        if (table == null && !tooLarge)
+        {
+            synchronized (this)
+            {
+                if (transitions == null && !tooLarge)
+                {
+                    transitions = WaterJugTransitions.build(this);
+                    tooLarge = transitions == null;
+                }
+                table = transitions;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Two spaces are equal if their jugs have the same capacities.
+     * @param other the object to test against this space
+     * @return whether the spaces are equal
+     */
+    @Override
+    public boolean equals(Object other) {
+        return this == other || (other instanceof WaterJugSpace
+                && Arrays.equals(capacities, ((WaterJugSpace) other).capacities));
+    }
+
+    /**
+     * Hash code consistent with <b>equals</b>.
+     * @return the hash code of the capacities
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(capacities);
+    }
+
+    /**
+     * Creates a string listing the capacities, for example "[3, 4]".
+     * @return the string representation of this space
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(capacities);
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Data fields
+    //--------------------------------------------------------------------------
+
+    /**
+     * Capacity of each jug.
+     */
+    private final int[] capacities;
+
+    /**
+     * Position of each jug's volume in the key.
+     */
+    private final int[] shifts;
+
+    /**
+     * Mask of each jug's volume once shifted down.
+     */
+    private final long[] masks;
+
+    /**
+     * Number of states in the space.
+     */
+    private final long stateCount;
+
+    /**
+     * Number of key bits used by all jugs.
+     */
+    private final int keyBits;
+
+    /**
+     * The transition table, built on first use.
+     */
+    private volatile WaterJugTransitions transitions;
+
+    /**
+     * Whether this space was found too large for a transition table.
+     */
+    private volatile boolean tooLarge;
+}
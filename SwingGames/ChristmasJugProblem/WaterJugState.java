@@ -8,35 +8,86 @@ import graph.SimpleVertex;
  * jug states, tests states for equality, and produces string representations of
  * them. Note that this class implements the <b>State</b> interface and
  * therefore imports <b>framework.State</b>.
+ *
+ * A state belongs to a <b>WaterJugSpace</b>, which says how many jugs there are
+ * and how much each holds. States are immutable: the volumes of all jugs are
+ * packed into a single long key when the state is created, and equality and
+ * hashing only look at that key. The ASCII picture of the jugs is only built
+ * when <b>toString()</b> is called.
+ *
+ * Moves on small spaces return interned states shared by every search, so the
+ * distance and predecessor inherited from <b>SimpleVertex</b> should not be
+ * relied on to describe a search path.
  * @author jmacvey
  */
 public class WaterJugState extends SimpleVertex implements State
 {
 
     /**
-     * Creates a new water jug state.
+     * Creates a new state of the classic water jug problem.
      *
      * @param xVolume the volume in the X jug (integer value: 0-3)
      * @param yVolume the volume in the Y jug (integer value: 0-4)
      */
     public WaterJugState(int xVolume, int yVolume)
     {
-        // set the xVolume and yVolume
-        this.xVolume = xVolume;
-        this.yVolume = yVolume;
+        this(WaterJugSpace.CLASSIC, xVolume, yVolume);
+    }
+
+    /**
+     * Creates a new water jug state in any space.
+     *
+     * @param space the space the state belongs to
+     * @param volumes the volume in each jug
+     * @throws IllegalArgumentException if the volumes do not fit the space
+     */
+    public WaterJugState(WaterJugSpace space, int... volumes)
+    {
+        this(space, space.pack(volumes));
+    }
+
+    /**
+     * Creates a new water jug state from a packed key.
+     *
+     * @param space the space the state belongs to
+     * @param key the volumes packed by the space
+     */
+    WaterJugState(WaterJugSpace space, long key)
+    {
+        this.space = space;
+        this.key = key;
     }
 
     /**
      * Tests for equality between this state and the argument state. Two states
-     * are equal if the X jugs have the same amount of water and the Y jugs have
-     * the same amount of water.
+     * are equal if they belong to the same space and every jug has the same
+     * amount of water.
      *
      * @param other the state to test against this state
      * @return whether the states are equal
      */
+    @Override
     public boolean equals(Object other)
     {
-        return this.toString().equals(other.toString());
+        if (this == other)
+            return true;
+        if (!(other instanceof WaterJugState))
+            return false;
+        WaterJugState that = (WaterJugState) other;
+        return key == that.key
+                && (space == that.space || space.equals(that.space));
+    }
+
+    /**
+     * Hash code consistent with <b>equals</b>.  Since the key is already a
+     * unique packing of all volumes it is used directly.
+     *
+     * @return the hash code for this state
+     */
+    @Override
+    public int hashCode()
+    {
+        return (int) (key ^ (key >>> 32));
     }
 
     /**
@@ -56,113 +107,120 @@ public class WaterJugState extends SimpleVertex implements State
      */
     public int getXVolume()
     {
-        return xVolume;
+        return getVolume(0);
     }
-    
+
      /**
      * Getter (accessor) method for volume contained in Y-jug.
      * @return volume contained in Y-jug (integer value 0-4)
      */
     public int getYVolume()
     {
-        return yVolume;
+        return getVolume(1);
+    }
+
+    /**
+     * Getter (accessor) method for the volume contained in any jug.
+     * @param jug the index of the jug (0 is X, 1 is Y)
+     * @return volume contained in the jug
+     */
+    public int getVolume(int jug)
+    {
+        return space.volume(key, jug);
     }
-    
+
     /**
-     * Setter (mutator) method to set volume of jug X
-     * @param xVolume new volume
-     * @return this object's xVolume will hold value of parameter
+     * Getter (accessor) method for the space this state belongs to.
+     * @return the space
      */
-    public void setXVolume(int xVolume)
+    public WaterJugSpace getSpace()
     {
-        this.xVolume = xVolume;
+        return space;
     }
-    
-      /**
-     * Setter (mutator) method to set volume of jug Y
-     * @param yVolume new volume for jug Y
+
+    /**
+     * Getter (accessor) method for the packed key of this state.
+     * @return the volumes of all jugs packed by the space
      */
-    public void setYVolume(int yVolume)
+    public long getKey()
     {
-        this.yVolume = yVolume;
+        return key;
     }
-    
+
     /**
-     * Heuristic getter.  Due to size of state space, we just return 0.
+     * Heuristic getter.  A state alone does not know the problem's goal, so we
+     * just return 0; searches on a <b>WaterJugProblem</b> use the problem's
+     * <b>getHeuristic()</b> instead, which reads a pattern database.
      * @param goal the final state of the problem.
      * @return returns 0 for all cases.
      */
     public int getHeuristic(State goal) {
         return 0;
     }
-    
-    
+
+
     //--------------------------------------------------------------------------
     // Private Methods and Instances
     //--------------------------------------------------------------------------
-    
+
     /**
      * Private utility method to help public method toString().
-     * Calls appendLn.  
+     * Draws one line per gallon of the largest jug, from the top down, then
+     * the bottoms and names of the jugs.
      * @param stateString empty StringBuilder used to build the string.
      * @return string contained in stateString after processing.
      */
     private String stringHelper(StringBuilder stateString)
     {
-        // append the first line (special case)
-        appendFirstLn(stateString);
-        // append all other lines depending on the volume of X and Y jugs
-        for (int i = 3; i > 0; i--)
+        int height = 0;
+        for (int jug = 0; jug < space.getJugCount(); jug++)
+            height = Math.max(height, space.getCapacity(jug));
+        // append all lines depending on the volume of each jug
+        for (int i = height; i > 0; i--)
             appendLn(i, stateString);
-        // append final line
-        stateString.append("+---+  +---+\n" 
-                + "  X      Y  \n");
+        // append final lines
+        for (int jug = 0; jug < space.getJugCount(); jug++)
+            stateString.append(jug == 0 ? "+---+" : "  +---+");
+        stateString.append('\n');
+        for (int jug = 0; jug < space.getJugCount(); jug++)
+        {
+            String name = "  " + WaterJugSpace.getJugName(jug) + "     ";
+            stateString.append(jug == 0 ? "" : "  ").append(name, 0, 5);
+        }
+        stateString.append('\n');
         return stateString.toString();
     }
-    
-     /**
-     * Private utility method to append the first line of the JugState display to a
-     * StringBuilder object.
-     * @param stateString stringBuilder containing partial or complete string
-     * representation of the water jug state. 
-     * .
-     */
-    private void appendFirstLn(StringBuilder stateString)
-    {
-        if (yVolume == 4)
-            stateString.append("       |***|\n");
-        else
-            stateString.append("       |   |\n");
-    }
-    
+
     /**
      * Private utility method to append a line of the JugState display to a
-     * StringBuilder object.
+     * StringBuilder object.  Jugs shorter than the line are left blank.
      * @param currentLn the line to be appended.
      * @param stateString stringBuilder containing partial or complete string
-     * representation of the water jug state. 
+     * representation of the water jug state.
      * .
      */
     private void appendLn(int currentLn, StringBuilder stateString)
     {
-        if (xVolume >= currentLn)
+        for (int jug = 0; jug < space.getJugCount(); jug++)
         {
-            if (yVolume >= currentLn)
-                stateString.append("|***|  |***|\n");
-            else stateString.append("|***|  |   |\n");
+            if (jug != 0)
+                stateString.append("  ");
+            if (space.getCapacity(jug) < currentLn)
+                stateString.append("     ");
+            else if (getVolume(jug) >= currentLn)
+                stateString.append("|***|");
+            else
+                stateString.append("|   |");
         }
-        else if (yVolume >= currentLn)
-            stateString.append("|   |  |***|\n");
-        else
-            stateString.append("|   |  |   |\n");
+        stateString.append('\n');
     }
 
         /**
-         * Volume of the X-jug (0-3)
+         * The space this state belongs to.
          */
-        private int xVolume;
+        private final WaterJugSpace space;
         /**
-         * Volume of the Y-jug (0-4).
+         * The volumes of all jugs, packed by the space.
          */
-        private int yVolume;
+        private final long key;
     }
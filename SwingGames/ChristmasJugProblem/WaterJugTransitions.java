@@ -0,0 +1,145 @@
+package waterjug;
+
+import framework.Move;
+import java.util.List;
+
+/**
+ * This class is the transition table of a small water jug space: every state
+ * of the space, created once, and the result of every move on every state.
+ *
+ * States are interned: the table holds one canonical <b>WaterJugState</b> per
+ * key, and moves looked up in the table return those instances, so applying
+ * a move allocates nothing. Both arrays are indexed by the packed key, the
+ * result of move i on the state with key k being at k * moveCount + i in the
+ * order of <b>WaterJugMove.createMoves()</b>. The table is immutable once
+ * built and is shared by every thread; a space builds it on first use, and
+ * only if it has at most MAX_ENTRIES transitions.
+ * @author jmacvey
+ */
+final class WaterJugTransitions {
+
+    /**
+     * The most transitions a table may hold.
+     */
+    static final int MAX_ENTRIES = 1 << 22;
+
+    /**
+     * Builds the transition table of a space, if it is small enough.
+     * @param space the space
+     * @return the table, or null if the space has too many transitions
+     */
+    static WaterJugTransitions build(WaterJugSpace space) {
+        int jugCount = space.getJugCount();
+        long keys = 1L << space.getKeyBits(jugCount);
+        if (keys * moveCount(jugCount) > MAX_ENTRIES)
+            return null;
+        return new WaterJugTransitions(space, (int) keys);
+    }
+
+    /**
+     * Gets the number of moves of a space with a given number of jugs.
+     * @param jugCount the number of jugs
+     * @return a fill and an empty per jug and a transfer per ordered pair
+     */
+    static int moveCount(int jugCount) {
+        return 2 * jugCount + jugCount * (jugCount - 1);
+    }
+
+    /**
+     * Gets the position of a move in the order of
+     * <b>WaterJugMove.createMoves()</b>.
+     * @param kind the kind of the move
+     * @param from the jug filled, emptied or poured from
+     * @param to the jug poured into
+     * @param jugCount the number of jugs
+     * @return the index of the move
+     */
+    static int moveIndex(WaterJugMove.Kind kind, int from, int to, int jugCount) {
+        switch (kind)
+        {
+            case FILL:
+                return from;
+            case EMPTY:
+                return jugCount + from;
+            default:
+                return 2 * jugCount + from * (jugCount - 1) + (to < from ? to : to - 1);
+        }
+    }
+
+    /**
+     * Gets the canonical state with a key.
+     * @param key the key of a state of the space
+     * @return the interned state
+     */
+    WaterJugState state(long key) {
+        return states[(int) key];
+    }
+
+    /**
+     * Looks up the result of a move.
+     * @param key the key of the state moved from
+     * @param move the index of the move
+     * @return the interned state moved to, or null if the move cannot be made
+     */
+    WaterJugState next(long key, int move) {
+        int to = next[(int) key * moveCount + move];
+        return to == NONE ? null : states[to];
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Data fields and Utility methods
+    //--------------------------------------------------------------------------
+
+    /**
+     * Creates every state of the space and applies every move to it.
+     * @param space the space
+     * @param keys the number of keys
+     */
+    private WaterJugTransitions(WaterJugSpace space, int keys) {
+        List<Move> moves = WaterJugMove.createMoves(space.getJugCount());
+        moveCount = moves.size();
+        states = new WaterJugState[keys];
+        next = new int[keys * moveCount];
+        for (int key = 0; key < keys; key++)
+            if (isState(space, key))
+                states[key] = new WaterJugState(space, key);
+        for (int key = 0; key < keys; key++)
+            for (int move = 0; move < moveCount; move++)
+                next[key * moveCount + move] = states[key] == null ? NONE
+                        : (int) ((WaterJugMove) moves.get(move)).apply(space, key);
+    }
+
+    /**
+     * Tests whether a key holds a state, that is, no jug holds more than its
+     * capacity.
+     * @param space the space
+     * @param key the key
+     * @return whether the key is a state of the space
+     */
+    private static boolean isState(WaterJugSpace space, long key) {
+        for (int jug = 0; jug < space.getJugCount(); jug++)
+            if (space.volume(key, jug) > space.getCapacity(jug))
+                return false;
+        return true;
+    }
+
+    /**
+     * Table entry of a move that cannot be made.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * Number of moves per state.
+     */
+    private final int moveCount;
+
+    /**
+     * The canonical state of every key, null where a key is not a state.
+     */
+    private final WaterJugState[] states;
+
+    /**
+     * The key reached by every move from every state, or NONE.
+     */
+    private final int[] next;
+}
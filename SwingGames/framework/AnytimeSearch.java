@@ -0,0 +1,248 @@
+package framework;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Anytime weighted A* (AWA*).
+ *
+ * The open list is ordered by f' = g + w h with a weight w of at least 1, so a
+ * first solution is found quickly, much as by greedy search. The search does
+ * not stop there: it keeps expanding, with the cost of the best solution so
+ * far (the incumbent) as an upper bound. Nodes whose f = g + h reaches the
+ * incumbent's cost cannot lead to a better solution and are pruned, and every
+ * better goal reached becomes the new incumbent. Closed states are reopened
+ * when a shorter path to them is found.
+ *
+ * At any moment the smallest f on the open list is a lower bound on the
+ * optimal cost, for an admissible heuristic, so the incumbent is within
+ * (incumbent cost / lower bound) of optimal. The search stops when the open
+ * list is empty, in which case the incumbent is optimal, or when a deadline
+ * or an expansion budget runs out, in which case the incumbent and its bound
+ * are returned as they are.
+ *
+ * @author jmacvey
+ */
+final class AnytimeSearch
+{
+
+    /**
+     * Creates an anytime search for a problem.
+     *
+     * @param problem the problem to search.
+     * @param weight the weight of the heuristic, at least 1.
+     * @param timeLimit the nanoseconds the search may run for, from the
+     * moment the start state has been estimated.
+     * @param maxExpansions the most states to expand.
+     * @param context the bookkeeping of the search.
+     */
+    AnytimeSearch(Problem problem, final double weight, long timeLimit,
+            int maxExpansions, SearchContext context)
+    {
+        this.problem = problem;
+        this.timeLimit = timeLimit;
+        this.maxExpansions = maxExpansions;
+        this.context = context;
+        this.moveCount = problem.getMoves().size();
+        this.open = new IndexedBinaryHeap<>(new Comparator<SearchNode>()
+        {
+            @Override
+            public int compare(SearchNode n1, SearchNode n2)
+            {
+                int c = Double.compare(n1.getG() + weight * n1.getH(),
+                        n2.getG() + weight * n2.getH());
+                // among equals, deeper nodes first reach a goal sooner
+                return c != 0 ? c : Integer.compare(n2.getG(), n1.getG());
+            }
+        });
+    }
+
+    /**
+     * Runs the search until the open list is empty or the deadline or the
+     * expansion budget runs out.
+     *
+     * @param start the start state.
+     * @return the states from the start (excluded) to the best goal found
+     * (included), or null if none was found.
+     */
+    List<State> search(State start)
+    {
+        SearchNode root = new SearchNode(start, null, 0,
+                problem.getHeuristic(start));
+        long started = System.nanoTime();
+        open.add(root);
+        context.queued();
+        openHash.put(start, root);
+        int expansions = 0;
+        while (!open.isEmpty())
+        {
+            if (expansions == maxExpansions
+                    || ((expansions & CLOCK_MASK) == 0
+                    && System.nanoTime() - started >= timeLimit))
+            {
+                context.stoppedEarly();
+                break;
+            }
+            SearchNode node = open.remove();
+            State u = node.getState();
+            openHash.remove(u);
+            context.dequeued();
+            if (node.getF() >= incumbentCost)
+            {
+                context.pruned(); // cannot lead to a better solution
+                continue;
+            }
+            if (problem.success(u))
+            {
+                incumbent = node;
+                incumbentCost = node.getG();
+                continue;
+            }
+            closedHash.put(u, node);
+            expansions++;
+            context.expanded(node.getG(), node.getF());
+            int g = node.getG() + 1;
+            for (int i = 0; i < moveCount; i++)
+            {
+                State child = problem.successor(u, i);
+                if (child == null)
+                {
+                    continue;
+                }
+                context.generated();
+                SearchNode x = openHash.get(child);
+                if (x != null)
+                {
+                    context.duplicate();
+                    if (g < x.getG())
+                    {
+                        context.openRediscovery(x.getG(), g);
+                        x.reparent(node, g);
+                        open.decreaseKey(x);
+                        context.requeued();
+                    }
+                } else if ((x = closedHash.get(child)) != null)
+                {
+                    context.duplicate();
+                    context.closedRediscovery(x.getG(), g);
+                    if (g < x.getG() && g + x.getH() < incumbentCost)
+                    {
+                        x.reparent(node, g);
+                        closedHash.remove(child);
+                        open.add(x);
+                        context.queued();
+                        openHash.put(child, x);
+                    }
+                } else
+                {
+                    SearchNode n = new SearchNode(child, node, g,
+                            problem.getHeuristic(child));
+                    if (n.getF() < incumbentCost)
+                    {
+                        open.add(n);
+                        context.queued();
+                        openHash.put(child, n);
+                    } else
+                    {
+                        context.pruned();
+                    }
+                }
+            }
+        }
+        context.setLowerBound(lowerBound());
+        return incumbent == null ? null : path(incumbent);
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Helper Methods and Instance Fields
+    //--------------------------------------------------------------------------
+    /**
+     * Computes the proven lower bound on the optimal solution cost: the
+     * smallest f on the open list, or the incumbent's cost if it is smaller.
+     *
+     * @return the lower bound, or -1 if the search stopped with neither a
+     * solution nor open states.
+     */
+    private int lowerBound()
+    {
+        int bound = incumbentCost;
+        for (SearchNode node : openHash.values())
+        {
+            bound = Math.min(node.getF(), bound);
+        }
+        return bound == Integer.MAX_VALUE ? -1 : bound;
+    }
+
+    /**
+     * Builds the path to a goal node.
+     *
+     * @param goal the goal node.
+     * @return the states from the start (excluded) to the goal (included).
+     */
+    private static List<State> path(SearchNode goal)
+    {
+        LinkedList<State> path = new LinkedList<>();
+        for (SearchNode n = goal; n.getParent() != null; n = n.getParent())
+        {
+            path.addFirst(n.getState());
+        }
+        return path;
+    }
+
+    /**
+     * The clock is read once every CLOCK_MASK + 1 expansions.
+     */
+    private static final int CLOCK_MASK = 63;
+
+    /**
+     * The problem being searched.
+     */
+    private final Problem problem;
+
+    /**
+     * The nanoseconds the search may run for.
+     */
+    private final long timeLimit;
+
+    /**
+     * The most states to expand.
+     */
+    private final int maxExpansions;
+
+    /**
+     * The bookkeeping of the search.
+     */
+    private final SearchContext context;
+
+    /**
+     * The number of moves of the problem.
+     */
+    private final int moveCount;
+
+    /**
+     * The open list, ordered by g + w h.
+     */
+    private final IndexedBinaryHeap<SearchNode> open;
+
+    /**
+     * Open states and their nodes.
+     */
+    private final HashMap<State, SearchNode> openHash = new HashMap<>();
+
+    /**
+     * Closed states and their nodes.
+     */
+    private final HashMap<State, SearchNode> closedHash = new HashMap<>();
+
+    /**
+     * The goal node of the best solution so far, or null.
+     */
+    private SearchNode incumbent;
+
+    /**
+     * The cost of the best solution so far.
+     */
+    private int incumbentCost = Integer.MAX_VALUE;
+}
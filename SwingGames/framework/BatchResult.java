@@ -0,0 +1,89 @@
+package framework;
+
+/**
+ * The outcome of solving one instance of a batch (see <b>BatchSolver</b>):
+ * the instance, its position in the batch, and either its search result or
+ * the exception that stopped its search.
+ *
+ * @author jmacvey
+ */
+public final class BatchResult
+{
+
+    /**
+     * Creates a batch result.
+     *
+     * @param index the position of the instance in the batch.
+     * @param instance the instance.
+     * @param result the search result, or null if the search failed.
+     * @param failure the exception that stopped the search, or null.
+     */
+    BatchResult(int index, SearchInstance instance, SearchResult result,
+            RuntimeException failure)
+    {
+        this.index = index;
+        this.instance = instance;
+        this.result = result;
+        this.failure = failure;
+    }
+
+    /**
+     * Gets the position of the instance in the batch, counting from 0.
+     *
+     * @return the index.
+     */
+    public int getIndex()
+    {
+        return index;
+    }
+
+    /**
+     * Gets the instance that was solved.
+     *
+     * @return the instance.
+     */
+    public SearchInstance getInstance()
+    {
+        return instance;
+    }
+
+    /**
+     * Gets the result of the search, with its own counters.
+     *
+     * @return the result, or null if the search failed.
+     */
+    public SearchResult getResult()
+    {
+        return result;
+    }
+
+    /**
+     * Gets the exception that stopped the search.
+     *
+     * @return the exception, or null if the search ran to the end.
+     */
+    public RuntimeException getFailure()
+    {
+        return failure;
+    }
+
+    /**
+     * The position of the instance in the batch.
+     */
+    private final int index;
+
+    /**
+     * The instance.
+     */
+    private final SearchInstance instance;
+
+    /**
+     * The search result, or null.
+     */
+    private final SearchResult result;
+
+    /**
+     * The exception that stopped the search, or null.
+     */
+    private final RuntimeException failure;
+}
@@ -0,0 +1,181 @@
+package framework;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Solves many instances of a problem in parallel.
+ *
+ * Each instance is solved with <b>Problem.solve</b> as its own task on an
+ * executor, so every instance gets its own search context and counters. The
+ * executor is up to the caller: the common fork-join pool by default, a
+ * fork-join pool of any size, or, on Java 21 and later, a virtual thread per
+ * task executor. Results are handed back in the order the searches finish,
+ * not the order of the instances.
+ *
+ * Instances with the same goal share one view of the problem, made by
+ * <b>Problem.forGoal</b> with the number of instances that share it, so a
+ * heuristic prepared for the goal is prepared once, and only if the problem
+ * finds it worth it for that many searches.
+ *
+ * The problem's moves, successors, heuristic and <b>success(State)</b> test
+ * must be safe to call from several threads.
+ *
+ * @author jmacvey
+ */
+public final class BatchSolver
+{
+
+    /**
+     * Creates a batch solver running on the common fork-join pool.
+     *
+     * @param problem the problem whose instances are solved.
+     */
+    public BatchSolver(Problem problem)
+    {
+        this(problem, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a batch solver running on an executor.
+     *
+     * @param problem the problem whose instances are solved.
+     * @param executor the executor to run the searches on.
+     */
+    public BatchSolver(Problem problem, Executor executor)
+    {
+        this.problem = problem;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts solving a batch of instances. All searches are submitted at
+     * once; the returned iterator blocks until the next one finishes. A search
+     * that throws does not stop the others: its result carries the exception.
+     *
+     * @param instances the instances to solve.
+     * @param algorithm the algorithm to solve them with.
+     * @return the results, in the order the searches finish.
+     */
+    public Iterator<BatchResult> solveAll(Collection<SearchInstance> instances,
+            final SearchAlgorithm algorithm)
+    {
+        final CompletionService<BatchResult> completion
+                = new ExecutorCompletionService<>(executor);
+        final Map<State, Integer> uses = new HashMap<>();
+        for (SearchInstance instance : instances)
+        {
+            Integer count = uses.get(instance.getGoal());
+            uses.put(instance.getGoal(), (count == null) ? 1 : count + 1);
+        }
+        final Map<State, Problem> views = new HashMap<>();
+        int index = 0;
+        for (final SearchInstance instance : instances)
+        {
+            final int position = index++;
+            completion.submit(new Callable<BatchResult>()
+            {
+                @Override
+                public BatchResult call()
+                {
+                    try
+                    {
+                        Problem target = (instance.getGoal() == null) ? problem
+                                : view(views, uses, instance.getGoal());
+                        return new BatchResult(position, instance,
+                                target.solve(instance.getStart(), algorithm), null);
+                    } catch (RuntimeException ex)
+                    {
+                        return new BatchResult(position, instance, null, ex);
+                    }
+                }
+            });
+        }
+        final int count = index;
+        return new Iterator<BatchResult>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return taken < count;
+            }
+
+            @Override
+            public BatchResult next()
+            {
+                if (taken == count)
+                {
+                    throw new NoSuchElementException();
+                }
+                try
+                {
+                    BatchResult result = completion.take().get();
+                    taken++;
+                    return result;
+                } catch (InterruptedException ex)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted waiting for a search", ex);
+                } catch (ExecutionException ex)
+                {
+                    // tasks catch their own exceptions, so only errors get here
+                    throw new IllegalStateException("search failed", ex.getCause());
+                }
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            /**
+             * # of results handed back so far.
+             */
+            private int taken;
+        };
+    }
+
+    /**
+     * Gets the view of the problem for a goal, making it the first time any
+     * instance asks, so the instances with that goal share it.
+     *
+     * @param views the views made so far, by goal.
+     * @param uses the number of instances with each goal.
+     * @param goal the goal state.
+     * @return the problem of reaching the goal.
+     */
+    private Problem view(Map<State, Problem> views, Map<State, Integer> uses,
+            State goal)
+    {
+        synchronized (views)
+        {
+            Problem view = views.get(goal);
+            if (view == null)
+            {
+                view = problem.forGoal(goal, uses.get(goal));
+                views.put(goal, view);
+            }
+            return view;
+        }
+    }
+
+    /**
+     * The problem whose instances are solved.
+     */
+    private final Problem problem;
+
+    /**
+     * The executor the searches run on.
+     */
+    private final Executor executor;
+}
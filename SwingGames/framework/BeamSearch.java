@@ -0,0 +1,184 @@
+package framework;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Breadth-first beam search.
+ *
+ * The search goes down one depth layer at a time, like breadth-first search,
+ * but keeps only the best K states of each layer, ranked by their heuristic
+ * (see <b>Problem.getHeuristic</b>); the rest are pruned. States kept in an
+ * earlier layer are not generated again. The search stops as soon as a goal
+ * is generated, or when a layer is empty. At most K states per layer are
+ * kept, so memory is O(K depth) however large the state space is, but the
+ * solution may be longer than optimal, or missed altogether.
+ *
+ * Any shorter solution would have to pass through a pruned state, so the
+ * smallest g + h of the pruned states is a lower bound on the optimal cost
+ * for an admissible heuristic; when no state was pruned the solution is a
+ * breadth-first one and so is optimal.
+ *
+ * @author jmacvey
+ */
+final class BeamSearch
+{
+
+    /**
+     * Creates a beam search for a problem.
+     *
+     * @param problem the problem to search.
+     * @param width the number of states kept per layer, K.
+     * @param context the bookkeeping of the search.
+     */
+    BeamSearch(Problem problem, int width, SearchContext context)
+    {
+        this.problem = problem;
+        this.width = width;
+        this.context = context;
+        this.moveCount = problem.getMoves().size();
+    }
+
+    /**
+     * Runs the search.
+     *
+     * @param start the start state.
+     * @return the states from the start (excluded) to the goal (included), or
+     * null if no goal was reached.
+     */
+    List<State> search(State start)
+    {
+        if (problem.success(start))
+        {
+            context.setLowerBound(0);
+            return new ArrayList<>();
+        }
+        HashSet<State> kept = new HashSet<>();
+        kept.add(start);
+        List<SearchNode> layer = new ArrayList<>();
+        layer.add(new SearchNode(start, null, 0, problem.getHeuristic(start)));
+        context.queued();
+        while (!layer.isEmpty())
+        {
+            // the worst candidate is at the head, ready to be pruned
+            PriorityQueue<SearchNode> beam = new PriorityQueue<>(width + 1, WORST_FIRST);
+            HashSet<State> candidates = new HashSet<>();
+            for (SearchNode node : layer)
+            {
+                context.dequeued();
+                context.expanded(node.getG(), node.getF());
+                State u = node.getState();
+                int g = node.getG() + 1;
+                for (int i = 0; i < moveCount; i++)
+                {
+                    State child = problem.successor(u, i);
+                    if (child == null)
+                    {
+                        continue;
+                    }
+                    context.generated();
+                    if (kept.contains(child) || !candidates.add(child))
+                    {
+                        context.duplicate();
+                        continue;
+                    }
+                    SearchNode n = new SearchNode(child, node, g,
+                            problem.getHeuristic(child));
+                    if (problem.success(child))
+                    {
+                        context.setLowerBound(Math.min(g, minPrunedF));
+                        return path(n);
+                    }
+                    beam.add(n);
+                    context.queued();
+                    if (beam.size() > width)
+                    {
+                        prune(beam.remove());
+                    }
+                }
+            }
+            layer = new ArrayList<>(beam);
+            for (SearchNode node : layer)
+            {
+                kept.add(node.getState());
+            }
+        }
+        if (minPrunedF != Integer.MAX_VALUE)
+        {
+            context.setLowerBound(minPrunedF);
+        }
+        return null;
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Helper Methods and Instance Fields
+    //--------------------------------------------------------------------------
+    /**
+     * Drops a node from the beam.
+     *
+     * @param node the node.
+     */
+    private void prune(SearchNode node)
+    {
+        context.dequeued();
+        context.pruned();
+        minPrunedF = Math.min(node.getF(), minPrunedF);
+    }
+
+    /**
+     * Builds the path to a goal node.
+     *
+     * @param goal the goal node.
+     * @return the states from the start (excluded) to the goal (included).
+     */
+    private static List<State> path(SearchNode goal)
+    {
+        LinkedList<State> path = new LinkedList<>();
+        for (SearchNode n = goal; n.getParent() != null; n = n.getParent())
+        {
+            path.addFirst(n.getState());
+        }
+        return path;
+    }
+
+    /**
+     * Orders nodes by decreasing heuristic.
+     */
+    private static final Comparator<SearchNode> WORST_FIRST = new Comparator<SearchNode>()
+    {
+        @Override
+        public int compare(SearchNode n1, SearchNode n2)
+        {
+            return Integer.compare(n2.getH(), n1.getH());
+        }
+    };
+
+    /**
+     * The problem being searched.
+     */
+    private final Problem problem;
+
+    /**
+     * The number of states kept per layer.
+     */
+    private final int width;
+
+    /**
+     * The bookkeeping of the search.
+     */
+    private final SearchContext context;
+
+    /**
+     * The number of moves of the problem.
+     */
+    private final int moveCount;
+
+    /**
+     * The smallest g + h of the pruned nodes.
+     */
+    private int minPrunedF = Integer.MAX_VALUE;
+}
@@ -0,0 +1,386 @@
+package framework;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Bidirectional breadth-first search.
+ *
+ * One breadth-first search runs forwards from the start state and another
+ * runs backwards from the goal states, using <b>ReversibleMove.undoMove</b> to
+ * generate predecessors. The smaller frontier is expanded one whole layer at a
+ * time. As soon as a layer produces a state already reached from the other
+ * side, the best meeting state of that layer gives a shortest path between the
+ * start and the goal states, after expanding about 2 b^(d/2) nodes instead of
+ * b^d.
+ *
+ * Forward nodes point to their parent towards the start; backward nodes point
+ * to their parent towards a goal.
+ *
+ * @author jmacvey
+ */
+final class BidirectionalSearch
+{
+
+    /**
+     * Creates a bidirectional search for a problem.  Every move of the
+     * problem must implement <b>ReversibleMove</b>.
+     *
+     * @param problem the problem to search.
+     */
+    BidirectionalSearch(Problem problem)
+    {
+        this.problem = problem;
+        this.moves = problem.getMoves();
+        this.monitor = problem.getSearchMonitor();
+        for (Move move : moves)
+        {
+            if (!(move instanceof ReversibleMove))
+            {
+                throw new UnsupportedOperationException(
+                        "bidirectional search needs reversible moves: "
+                        + move.getMoveName());
+            }
+        }
+    }
+
+    /**
+     * Runs the search.
+     *
+     * @param start the start state.
+     * @param goals the goal states to search backwards from.
+     * @return the states on a shortest path from the start (excluded) to a
+     * goal (included), or null if the two searches never meet.
+     */
+    List<State> search(State start, List<State> goals)
+    {
+        if (problem.success(start))
+        {
+            return new ArrayList<>();
+        }
+        List<SearchNode> forwardFrontier = new ArrayList<>();
+        List<SearchNode> backwardFrontier = new ArrayList<>();
+        SearchNode root = new SearchNode(start, null, 0, 0);
+        forward.put(start, root);
+        forwardFrontier.add(root);
+        queueOps++;
+        pushes++;
+        for (State goal : goals)
+        {
+            if (!backward.containsKey(goal))
+            {
+                SearchNode node = new SearchNode(goal, null, 0, 0);
+                backward.put(goal, node);
+                backwardFrontier.add(node);
+                queueOps++;
+                pushes++;
+            }
+        }
+        maxQueueSize = forwardFrontier.size() + backwardFrontier.size();
+        if (backward.containsKey(start))
+        {
+            return path(start);
+        }
+
+        while (!forwardFrontier.isEmpty() && !backwardFrontier.isEmpty())
+        {
+            if (forwardFrontier.size() <= backwardFrontier.size())
+            {
+                forwardFrontier = expandForward(forwardFrontier);
+            } else
+            {
+                backwardFrontier = expandBackward(backwardFrontier);
+            }
+            maxQueueSize = Math.max(forwardFrontier.size()
+                    + backwardFrontier.size(), maxQueueSize);
+            if (meeting != null)
+            {
+                return path(meeting);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of frontier operations performed.
+     *
+     * @return the number of queue operations.
+     */
+    int getQueueOps()
+    {
+        return queueOps;
+    }
+
+    /**
+     * Gets the number of states expanded.
+     *
+     * @return the number of expansions.
+     */
+    int getExpansions()
+    {
+        return expansions;
+    }
+
+    /**
+     * Gets the number of states put on the queue.
+     *
+     * @return the number of pushes.
+     */
+    int getPushes()
+    {
+        return pushes;
+    }
+
+    /**
+     * Gets the number of states taken off the queue.
+     *
+     * @return the number of pops.
+     */
+    int getPops()
+    {
+        return pops;
+    }
+
+    /**
+     * Gets the number of states generated by the moves.
+     *
+     * @return the number of states generated.
+     */
+    int getGenerated()
+    {
+        return generated;
+    }
+
+    /**
+     * Gets the number of generated states that had been generated before.
+     *
+     * @return the number of duplicates.
+     */
+    int getDuplicates()
+    {
+        return duplicates;
+    }
+
+    /**
+     * Gets the largest combined size of both frontiers.
+     *
+     * @return the maximum queue size.
+     */
+    int getMaxQueueSize()
+    {
+        return maxQueueSize;
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Helper Methods and Instance Fields
+    //--------------------------------------------------------------------------
+    /**
+     * Expands one layer of the forward search.
+     *
+     * @param frontier the current forward layer.
+     * @return the next forward layer.
+     */
+    private List<SearchNode> expandForward(List<SearchNode> frontier)
+    {
+        List<SearchNode> next = new ArrayList<>();
+        for (SearchNode node : frontier)
+        {
+            queueOps++;
+            pops++;
+            expansions++;
+            ExpansionEvent.emit(expansions, node.getG(), node.getG(),
+                    frontier.size());
+            if (monitor != null)
+            {
+                monitor.expanded(expansions, frontier.size());
+            }
+            for (int i = 0; i < moves.size(); i++)
+            {
+                State child = problem.successor(node.getState(), i);
+                if (child == null)
+                {
+                    continue;
+                }
+                generated++;
+                if (forward.containsKey(child))
+                {
+                    duplicates++;
+                    continue;
+                }
+                SearchNode childNode = new SearchNode(child, node,
+                        node.getG() + 1, 0);
+                forward.put(child, childNode);
+                next.add(childNode);
+                queueOps++;
+                pushes++;
+                SearchNode other = backward.get(child);
+                if (other != null)
+                {
+                    offerMeeting(child, childNode.getG() + other.getG());
+                } else if (problem.success(child))
+                {
+                    // a goal the backward search was not seeded with
+                    backward.put(child, new SearchNode(child, null, 0, 0));
+                    offerMeeting(child, childNode.getG());
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Expands one layer of the backward search.
+     *
+     * @param frontier the current backward layer.
+     * @return the next backward layer.
+     */
+    private List<SearchNode> expandBackward(List<SearchNode> frontier)
+    {
+        List<SearchNode> next = new ArrayList<>();
+        for (SearchNode node : frontier)
+        {
+            queueOps++;
+            pops++;
+            expansions++;
+            ExpansionEvent.emit(expansions, node.getG(), node.getG(),
+                    frontier.size());
+            if (monitor != null)
+            {
+                monitor.expanded(expansions, frontier.size());
+            }
+            for (Move move : moves)
+            {
+                for (State pred : ((ReversibleMove) move).undoMove(node.getState()))
+                {
+                    generated++;
+                    if (backward.containsKey(pred))
+                    {
+                        duplicates++;
+                        continue;
+                    }
+                    SearchNode predNode = new SearchNode(pred, node,
+                            node.getG() + 1, 0);
+                    backward.put(pred, predNode);
+                    next.add(predNode);
+                    queueOps++;
+                    pushes++;
+                    SearchNode other = forward.get(pred);
+                    if (other != null)
+                    {
+                        offerMeeting(pred, predNode.getG() + other.getG());
+                    }
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Records a meeting state if its path is shorter than the best so far.
+     *
+     * @param state the state reached from both sides.
+     * @param length the length of the path through it.
+     */
+    private void offerMeeting(State state, int length)
+    {
+        if (meeting == null || length < meetingLength)
+        {
+            meeting = state;
+            meetingLength = length;
+        }
+    }
+
+    /**
+     * Joins the forward path to a meeting state with the backward path from
+     * it to a goal.
+     *
+     * @param meet the meeting state.
+     * @return the states from the start (excluded) to the goal (included).
+     */
+    private List<State> path(State meet)
+    {
+        ArrayList<State> path = new ArrayList<>();
+        for (SearchNode node = forward.get(meet); node.getParent() != null;
+                node = node.getParent())
+        {
+            path.add(0, node.getState());
+        }
+        for (SearchNode node = backward.get(meet).getParent(); node != null;
+                node = node.getParent())
+        {
+            path.add(node.getState());
+        }
+        return path;
+    }
+
+    /**
+     * The problem being searched.
+     */
+    private final Problem problem;
+
+    /**
+     * The problem's moves.
+     */
+    private final List<Move> moves;
+
+    /**
+     * The problem's search monitor, or null.
+     */
+    private final SearchMonitor monitor;
+
+    /**
+     * States reached from the start, with their parents towards the start.
+     */
+    private final HashMap<State, SearchNode> forward = new HashMap<>();
+
+    /**
+     * States reached from the goals, with their parents towards a goal.
+     */
+    private final HashMap<State, SearchNode> backward = new HashMap<>();
+
+    /**
+     * Best meeting state found in the current layer.
+     */
+    private State meeting;
+
+    /**
+     * Length of the path through the best meeting state.
+     */
+    private int meetingLength;
+
+    /**
+     * # of frontier operations.
+     */
+    private int queueOps;
+
+    /**
+     * # of maximum items on both frontiers.
+     */
+    private int maxQueueSize;
+
+    /**
+     * # of states expanded.
+     */
+    private int expansions;
+
+    /**
+     * # of states put on the queue.
+     */
+    private int pushes;
+
+    /**
+     * # of states taken off the queue.
+     */
+    private int pops;
+
+    /**
+     * # of states generated.
+     */
+    private int generated;
+
+    /**
+     * # of duplicate states generated.
+     */
+    private int duplicates;
+}
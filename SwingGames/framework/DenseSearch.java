@@ -0,0 +1,722 @@
+package framework;
+
+import graph.DequeAdder;
+import graph.Vertex;
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Graph searches over a densely indexed state space.
+ *
+ * When a problem provides a <b>StateIndexer</b>, every state has an ordinal
+ * and the search bookkeeping is kept in arrays indexed by ordinal: a mark
+ * telling whether a state has been seen (and, for A*, closed), and primitive
+ * arrays of path costs, heuristic values and predecessor ordinals. The A*
+ * open list is a binary heap of ordinals that also records each ordinal's
+ * slot, so a state is promoted in place when a shorter path to it is found.
+ * No hash table is used and no search node is allocated; the only objects
+ * created per expansion are the states the moves return, generated one at a
+ * time by <b>Problem.successor</b>.
+ *
+ * Each state is generated at most once (or, for A*, again only along a
+ * shorter path), so unlike the tree searches no path occurrence checks are
+ * needed.
+ *
+ * The arrays cover the whole space, so they are not allocated for each
+ * search: each thread keeps one set (softly reachable, so the collector may
+ * take it back) and reuses it for its next search. Instead of being cleared,
+ * the marks are compared with a generation number that every search
+ * increases, so a search costs in proportion to the states it touches and
+ * not to the size of the space.
+ *
+ * @author jmacvey
+ */
+final class DenseSearch
+{
+
+    /**
+     * Creates a dense search for a problem.
+     *
+     * @param problem the problem to search.
+     * @param indexer the problem's state indexer.
+     */
+    DenseSearch(Problem problem, StateIndexer indexer)
+    {
+        this.problem = problem;
+        this.indexer = indexer;
+        this.moveCount = problem.getMoves().size();
+        this.trace = problem.getTraceWriter();
+        this.monitor = problem.getSearchMonitor();
+        scratch = Scratch.acquire(indexer.getStateCount());
+        seenMark = scratch.nextGeneration();
+        closedMark = seenMark + 1;
+        mark = scratch.mark;
+        pred = scratch.pred;
+    }
+
+    /**
+     * Breadth- or depth-first search, depending on how the adder adds
+     * vertices to the deque. A state is added to the deque only the first
+     * time it is generated, and the search stops as soon as a goal is
+     * generated.
+     *
+     * @param start the start state.
+     * @param adder the deque adding object.
+     * @return the states from the start (excluded) to the goal (included), or
+     * null if no goal is reachable.
+     */
+    List<State> search(State start, DequeAdder adder)
+    {
+        try
+        {
+            return breadthOrDepthFirst(start, adder);
+        } finally
+        {
+            scratch.release();
+        }
+    }
+
+    /**
+     * A* search with closed-state reopening, so the solution is optimal for
+     * any admissible heuristic.
+     *
+     * @param start the start state.
+     * @return the states from the start (excluded) to the goal (included), or
+     * null if no goal is reachable.
+     */
+    List<State> aStar(State start)
+    {
+        try
+        {
+            return aStarFrom(start);
+        } finally
+        {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Runs a breadth- or depth-first search (see <b>search</b>).
+     *
+     * @param start the start state.
+     * @param adder the deque adding object.
+     * @return the solution path, or null.
+     */
+    private List<State> breadthOrDepthFirst(State start, DequeAdder adder)
+    {
+        Deque<Vertex> deque = new ArrayDeque<>();
+        int s = indexer.indexOf(start);
+        mark[s] = seenMark;
+        pred[s] = NONE;
+        adder.add((Vertex) start, deque);
+        queueOps++;
+        pushes++;
+        int queueSize = 1;
+        maxQueueSize = 1;
+        while (!deque.isEmpty())
+        {
+            State u = (State) deque.remove();
+            queueOps++;
+            pops++;
+            queueSize--;
+            if (problem.success(u))
+            {
+                return path(u);
+            }
+            expansions++;
+            ExpansionEvent.emit(expansions, -1, -1, queueSize);
+            if (monitor != null)
+            {
+                monitor.expanded(expansions, queueSize);
+            }
+            int ui = indexer.indexOf(u);
+            if (trace != null)
+            {
+                trace.append(SearchTraceWriter.EXPANDED, ui, pred[ui], -1, -1);
+            }
+            for (int i = 0; i < moveCount; i++)
+            {
+                State child = problem.successor(u, i);
+                if (child == null)
+                {
+                    continue;
+                }
+                generated++;
+                int c = indexer.indexOf(child);
+                if (trace != null)
+                {
+                    trace.append(SearchTraceWriter.GENERATED, c, ui, -1, -1);
+                }
+                if (mark[c] < seenMark)
+                {
+                    mark[c] = seenMark;
+                    pred[c] = ui;
+                    if (problem.success(child))
+                    {
+                        return path(child);
+                    }
+                    adder.add((Vertex) child, deque);
+                    queueOps++;
+                    pushes++;
+                    queueSize++;
+                    maxQueueSize = Math.max(queueSize, maxQueueSize);
+                } else
+                {
+                    duplicates++;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs an A* search (see <b>aStar</b>).
+     *
+     * @param start the start state.
+     * @return the solution path, or null.
+     */
+    private List<State> aStarFrom(State start)
+    {
+        scratch.allocateCosts();
+        g = scratch.g;
+        h = scratch.h;
+        slot = scratch.slot;
+        heap = new int[INITIAL_HEAP_CAPACITY];
+        int s = indexer.indexOf(start);
+        mark[s] = seenMark;
+        pred[s] = NONE;
+        h[s] = problem.getHeuristic(start);
+        push(s);
+        while (size > 0)
+        {
+            int ui = pop();
+            State u = indexer.stateAt(ui);
+            if (problem.success(u))
+            {
+                return path(u);
+            }
+            mark[ui] = closedMark;
+            expansions++;
+            ExpansionEvent.emit(expansions, g[ui], g[ui] + h[ui], size);
+            if (monitor != null)
+            {
+                monitor.expanded(expansions, size);
+            }
+            if (trace != null)
+            {
+                trace.append(SearchTraceWriter.EXPANDED, ui, pred[ui], g[ui], h[ui]);
+            }
+            int childG = g[ui] + 1;
+            for (int i = 0; i < moveCount; i++)
+            {
+                State child = problem.successor(u, i);
+                if (child == null)
+                {
+                    continue;
+                }
+                generated++;
+                int c = indexer.indexOf(child);
+                if (mark[c] < seenMark)
+                {
+                    mark[c] = seenMark;
+                    g[c] = childG;
+                    h[c] = problem.getHeuristic(child);
+                    pred[c] = ui;
+                    push(c);
+                } else if (mark[c] == closedMark)
+                {
+                    duplicates++;
+                    closedRediscoveries++;
+                    RediscoveryEvent.emit(true, g[c], childG);
+                    if (childG < g[c])
+                    {
+                        mark[c] = seenMark;
+                        g[c] = childG;
+                        pred[c] = ui;
+                        push(c);
+                    }
+                } else if (childG < g[c])
+                {
+                    duplicates++;
+                    openRediscoveries++;
+                    RediscoveryEvent.emit(false, g[c], childG);
+                    g[c] = childG;
+                    pred[c] = ui;
+                    siftUp(slot[c]);
+                    queueOps++;
+                } else
+                {
+                    duplicates++;
+                }
+                // every state seen has its heuristic value by now
+                if (trace != null)
+                {
+                    trace.append(SearchTraceWriter.GENERATED, c, ui, childG, h[c]);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of queue operations of the search.
+     *
+     * @return the number of queue operations.
+     */
+    int getQueueOps()
+    {
+        return queueOps;
+    }
+
+    /**
+     * Gets the largest number of states on the queue at once.
+     *
+     * @return the maximum queue size.
+     */
+    int getMaxQueueSize()
+    {
+        return maxQueueSize;
+    }
+
+    /**
+     * Gets the number of states put on the queue.
+     *
+     * @return the number of pushes.
+     */
+    int getPushes()
+    {
+        return pushes;
+    }
+
+    /**
+     * Gets the number of states taken off the queue.
+     *
+     * @return the number of pops.
+     */
+    int getPops()
+    {
+        return pops;
+    }
+
+    /**
+     * Gets the number of states generated by the moves.
+     *
+     * @return the number of states generated.
+     */
+    int getGenerated()
+    {
+        return generated;
+    }
+
+    /**
+     * Gets the number of generated states that had been generated before.
+     *
+     * @return the number of duplicates.
+     */
+    int getDuplicates()
+    {
+        return duplicates;
+    }
+
+    /**
+     * Gets the number of states expanded.
+     *
+     * @return the number of expansions.
+     */
+    int getExpansions()
+    {
+        return expansions;
+    }
+
+    /**
+     * Gets the number of times a shorter path to an open state was found.
+     *
+     * @return the number of open rediscoveries.
+     */
+    int getOpenRediscoveries()
+    {
+        return openRediscoveries;
+    }
+
+    /**
+     * Gets the number of times a closed state was generated again.
+     *
+     * @return the number of closed rediscoveries.
+     */
+    int getClosedRediscoveries()
+    {
+        return closedRediscoveries;
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Helper Methods and Instance Fields
+    //--------------------------------------------------------------------------
+    /**
+     * Builds the solution path by following predecessor ordinals back from
+     * the goal.
+     *
+     * @param goal the goal state.
+     * @return the states from the start (excluded) to the goal (included).
+     */
+    private List<State> path(State goal)
+    {
+        LinkedList<State> path = new LinkedList<>();
+        int i = indexer.indexOf(goal);
+        if (pred[i] == NONE)
+        {
+            return path;
+        }
+        path.addFirst(goal);
+        for (i = pred[i]; pred[i] != NONE; i = pred[i])
+        {
+            path.addFirst(indexer.stateAt(i));
+        }
+        return path;
+    }
+
+    /**
+     * Orders two ordinals on the heap by f = g + h.
+     *
+     * @param a the first ordinal.
+     * @param b the second ordinal.
+     * @return true if a comes before b.
+     */
+    private boolean before(int a, int b)
+    {
+        return g[a] + h[a] < g[b] + h[b];
+    }
+
+    /**
+     * Adds an ordinal to the heap.
+     *
+     * @param i the ordinal.
+     */
+    private void push(int i)
+    {
+        if (++size == heap.length)
+        {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        heap[size] = i;
+        slot[i] = size;
+        siftUp(size);
+        queueOps++;
+        pushes++;
+        maxQueueSize = Math.max(size, maxQueueSize);
+    }
+
+    /**
+     * Removes the ordinal with the smallest f from the heap.
+     *
+     * @return the ordinal.
+     */
+    private int pop()
+    {
+        int top = heap[1];
+        int last = heap[size--];
+        if (size > 0)
+        {
+            heap[1] = last;
+            slot[last] = 1;
+            siftDown(1);
+        }
+        queueOps++;
+        pops++;
+        return top;
+    }
+
+    /**
+     * Moves the ordinal at a heap slot up to its place.
+     *
+     * @param k the slot.
+     */
+    private void siftUp(int k)
+    {
+        int i = heap[k];
+        while (k > 1 && before(i, heap[k / 2]))
+        {
+            heap[k] = heap[k / 2];
+            slot[heap[k]] = k;
+            k /= 2;
+        }
+        heap[k] = i;
+        slot[i] = k;
+    }
+
+    /**
+     * Moves the ordinal at a heap slot down to its place.
+     *
+     * @param k the slot.
+     */
+    private void siftDown(int k)
+    {
+        int i = heap[k];
+        while (2 * k <= size)
+        {
+            int child = 2 * k;
+            if (child < size && before(heap[child + 1], heap[child]))
+            {
+                child++;
+            }
+            if (!before(heap[child], i))
+            {
+                break;
+            }
+            heap[k] = heap[child];
+            slot[heap[k]] = k;
+            k = child;
+        }
+        heap[k] = i;
+        slot[i] = k;
+    }
+
+    /**
+     * Predecessor of the start state.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * Initial length of the heap array.
+     */
+    private static final int INITIAL_HEAP_CAPACITY = 64;
+
+    /**
+     * The problem being searched.
+     */
+    private final Problem problem;
+
+    /**
+     * The problem's state indexer.
+     */
+    private final StateIndexer indexer;
+
+    /**
+     * The number of moves of the problem.
+     */
+    private final int moveCount;
+
+    /**
+     * The problem's search trace, or null.
+     */
+    private final SearchTraceWriter trace;
+
+    /**
+     * The problem's search monitor, or null.
+     */
+    private final SearchMonitor monitor;
+
+    /**
+     * The arrays of this search, borrowed from its thread.
+     */
+    private final Scratch scratch;
+
+    /**
+     * Mark of the states generated by this search; smaller marks were left by
+     * earlier searches.
+     */
+    private final int seenMark;
+
+    /**
+     * Mark of the states expanded by A* and not reopened since.
+     */
+    private final int closedMark;
+
+    /**
+     * Mark of each state: seenMark, closedMark, or less if not seen yet.
+     */
+    private final int[] mark;
+
+    /**
+     * Predecessor ordinal of each generated state.
+     */
+    private final int[] pred;
+
+    /**
+     * Path cost of each generated state.
+     */
+    private int[] g;
+
+    /**
+     * Heuristic value of each generated state, computed once.
+     */
+    private int[] h;
+
+    /**
+     * Heap slot of each open state.
+     */
+    private int[] slot;
+
+    /**
+     * The open list: a binary heap of ordinals stored from index 1.
+     */
+    private int[] heap;
+
+    /**
+     * # of ordinals on the heap.
+     */
+    private int size;
+
+    /**
+     * # of queue operations.
+     */
+    private int queueOps;
+
+    /**
+     * # of maximum items on the queue.
+     */
+    private int maxQueueSize;
+
+    /**
+     * # of open rediscoveries.
+     */
+    private int openRediscoveries;
+
+    /**
+     * # of closed rediscoveries.
+     */
+    private int closedRediscoveries;
+
+    /**
+     * # of states expanded.
+     */
+    private int expansions;
+
+    /**
+     * # of states put on the queue.
+     */
+    private int pushes;
+
+    /**
+     * # of states taken off the queue.
+     */
+    private int pops;
+
+    /**
+     * # of states generated.
+     */
+    private int generated;
+
+    /**
+     * # of duplicate states generated.
+     */
+    private int duplicates;
+
+    /**
+     * The arrays a thread reuses for its dense searches.
+     */
+    private static final ThreadLocal<SoftReference<Scratch>> SCRATCH
+            = new ThreadLocal<>();
+
+    /**
+     * Arrays indexed by state ordinal, kept by a thread between searches.
+     * Only one search uses them at a time; a search started while they are
+     * in use (say, from a heuristic that itself searches) gets arrays of its
+     * own.
+     */
+    private static final class Scratch
+    {
+
+        /**
+         * Borrows the arrays of the calling thread, or new ones if they are
+         * too small, in use or gone. Arrays that are not in use are replaced
+         * by the new ones.
+         *
+         * @param n the number of states the arrays must cover.
+         * @return the arrays, marked in use.
+         */
+        static Scratch acquire(int n)
+        {
+            SoftReference<Scratch> ref = SCRATCH.get();
+            Scratch scratch = (ref == null) ? null : ref.get();
+            if (scratch == null || scratch.inUse || scratch.mark.length < n)
+            {
+                Scratch fresh = new Scratch(n);
+                if (scratch == null || !scratch.inUse)
+                {
+                    SCRATCH.set(new SoftReference<>(fresh));
+                }
+                scratch = fresh;
+            }
+            scratch.inUse = true;
+            return scratch;
+        }
+
+        /**
+         * Creates arrays for a number of states.
+         *
+         * @param n the number of states.
+         */
+        private Scratch(int n)
+        {
+            mark = new int[n];
+            pred = new int[n];
+        }
+
+        /**
+         * Starts a search: gets a seen mark larger than any mark in the
+         * array, leaving the next number free for the closed mark.
+         *
+         * @return the seen mark.
+         */
+        int nextGeneration()
+        {
+            if (generation > Integer.MAX_VALUE - 2)
+            {
+                Arrays.fill(mark, 0);
+                generation = 0;
+            }
+            generation += 2;
+            return generation;
+        }
+
+        /**
+         * Allocates the arrays A* needs, the first time it runs.
+         */
+        void allocateCosts()
+        {
+            if (g == null)
+            {
+                g = new int[mark.length];
+                h = new int[mark.length];
+                slot = new int[mark.length];
+            }
+        }
+
+        /**
+         * Gives the arrays back to the thread.
+         */
+        void release()
+        {
+            inUse = false;
+        }
+
+        /**
+         * Mark of each state, compared with the generation of a search.
+         */
+        final int[] mark;
+
+        /**
+         * Predecessor ordinal of each state.
+         */
+        final int[] pred;
+
+        /**
+         * Path cost, heuristic value and heap slot of each state, for A*.
+         */
+        int[] g, h, slot;
+
+        /**
+         * Seen mark of the last search.
+         */
+        private int generation;
+
+        /**
+         * Whether a search is using the arrays.
+         */
+        private boolean inUse;
+    }
+}
@@ -0,0 +1,85 @@
+package framework;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for a sample of the node expansions of a
+ * search: one in every SAMPLE_INTERVAL expansions of each search.
+ *
+ * The event is disabled by default; it is turned on with the
+ * <b>framework.Expansion</b> setting of a recording. While it is disabled,
+ * <b>emit</b> costs a counter test and, on sampled expansions, one check of
+ * the event's state.
+ *
+ * @author jmacvey
+ */
+@Name("framework.Expansion")
+@Label("Node Expansion")
+@Category("Search")
+@Description("A sampled node expansion of a search")
+@StackTrace(false)
+@Enabled(false)
+final class ExpansionEvent extends jdk.jfr.Event
+{
+
+    /**
+     * One expansion in this many is sampled.
+     */
+    static final int SAMPLE_INTERVAL = 64;
+
+    /**
+     * Records an expansion if it is sampled and the event is enabled.
+     *
+     * @param expansions the number of expansions of the search so far, this
+     * one included.
+     * @param depth the path cost of the expanded node, or -1 if the search
+     * does not track it.
+     * @param f the f value of the node, or -1.
+     * @param frontier the number of states queued.
+     */
+    static void emit(int expansions, int depth, int f, int frontier)
+    {
+        if (expansions % SAMPLE_INTERVAL != 0)
+        {
+            return;
+        }
+        ExpansionEvent event = new ExpansionEvent();
+        if (event.shouldCommit())
+        {
+            event.expansions = expansions;
+            event.depth = depth;
+            event.f = f;
+            event.frontier = frontier;
+            event.commit();
+        }
+    }
+
+    /**
+     * The number of expansions so far.
+     */
+    @Label("Expansions")
+    int expansions;
+
+    /**
+     * The path cost of the node.
+     */
+    @Label("Depth")
+    int depth;
+
+    /**
+     * The f value of the node.
+     */
+    @Label("F Value")
+    int f;
+
+    /**
+     * The number of states queued.
+     */
+    @Label("Frontier Size")
+    int frontier;
+}
@@ -20,6 +20,8 @@ import java.awt.event.ActionListener;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import javax.swing.ButtonGroup;
 import javax.swing.JButton;
 import javax.swing.JLabel;
@@ -28,6 +30,7 @@ import javax.swing.JComponent;
 import javax.swing.JOptionPane;
 import javax.swing.JRadioButton;
 import javax.swing.JTextArea;
+import javax.swing.SwingWorker;
 import javax.swing.Timer;
 import javax.swing.UIManager;
 import javax.swing.border.TitledBorder;
@@ -94,9 +97,9 @@ public class GUI extends JComponent
 
         // RadioButtons / Reset Button
         radioLabel = new JLabel();
-        radioLabel.setLayout(new GridLayout(5, 1, 0, 0));
+        radioLabel.setLayout(new GridLayout(7, 1, 0, 0));
         radioLabel.setBorder(new TitledBorder("Search Types"));
-        radioLabel.setPreferredSize(new Dimension(180, 120));
+        radioLabel.setPreferredSize(new Dimension(180, 168));
         // reset button
         gbc.fill = 0;
         gbc.gridx = 1;
@@ -107,7 +110,9 @@ public class GUI extends JComponent
         //radioLabel.add(breadthFirstButton);
         radioLabel.add(AStarButton);
         radioLabel.add(enhancedAStarButton);
+        radioLabel.add(solutionTableButton);
         radioLabel.add(solveButton);
+        radioLabel.add(cancelButton);
         radioLabel.add(showNxtMvBtn);
         radioLabel.add(showAllMoves);
         add(radioLabel, gbc);
@@ -408,7 +413,10 @@ public class GUI extends JComponent
     }
 
     /**
-     * Initializes and stylizes the reset button.
+     * Initializes the radio buttons, and the solve and cancel buttons.  The
+     * search runs on a background worker so the window stays responsive; a
+     * timer shows its progress in the stats panel until the worker delivers
+     * the result back on the Event Dispatch Thread.
      */
     private void initializeRadioButtons()
     {
@@ -416,6 +424,7 @@ public class GUI extends JComponent
         breadthFirstButton = new JRadioButton("Breadth-First");
         AStarButton = new JRadioButton("Regular A*");
         enhancedAStarButton = new JRadioButton("Enhanced A*");
+        solutionTableButton = new JRadioButton("Solution Table");
         AStarButton.setSelected(true);
 
         solveButton = new JButton("SOLVE");
@@ -425,52 +434,165 @@ public class GUI extends JComponent
             @Override
             public void actionPerformed(ActionEvent e)
             {
-                // turn off all the buttons besides reset
+                // turn off all the buttons, reset included, while searching
                 toggleButtons(false);
+                resetButton.setEnabled(false);
+                SearchAlgorithm algorithm = SearchAlgorithm.A_STAR;
                 if (breadthFirstButton.isSelected())
                 {
-                    DequeAdder tailAdder = new DequeAdder()
-                    {
-                        @Override
-                        public void add(Vertex vertex, Deque<Vertex> deque)
-                        {
-                            deque.addLast(vertex);
-                        }
-                    };
-                    problem.search((Vertex) problem.getCurrentState(),
-                            tailAdder);
+                    algorithm = SearchAlgorithm.BREADTH_FIRST;
                 } else if (depthFirstButton.isSelected())
                 {
-                    DequeAdder headAdder = new DequeAdder()
-                    {
-                        @Override
-                        public void add(Vertex vertex, Deque<Vertex> deque)
-                        {
-                            deque.addFirst(vertex);
-                        }
-                    };
-                    problem.search((Vertex) problem.getCurrentState(),
-                            headAdder);
-                } else if (AStarButton.isSelected())
+                    algorithm = SearchAlgorithm.DEPTH_FIRST;
+                } else if (enhancedAStarButton.isSelected())
                 {
-                    problem.searchAStar((Vertex) problem.getCurrentState());
-                }
-                else if (enhancedAStarButton.isSelected())
+                    algorithm = SearchAlgorithm.ENHANCED_A_STAR;
+                } else if (solutionTableButton.isSelected())
                 {
-                    problem.enhancedAStarSearch((Vertex) problem.getCurrentState());
+                    algorithm = SearchAlgorithm.SOLUTION_TABLE;
                 }
-                setStats();
-                showNxtMvBtn.setEnabled(true);
-                showAllMoves.setEnabled(true);
+                startSearch(algorithm, (Vertex) problem.getCurrentState());
             }
         }
         );
         btnList.add(solveButton);
+
+        cancelButton = new JButton("CANCEL");
+        cancelButton.setEnabled(false);
+        cancelButton.addActionListener(new ActionListener()
+        {
+
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                // the worker finishes, and cleans up, at the next check
+                cancelButton.setEnabled(false);
+                if (monitor != null)
+                {
+                    monitor.cancel();
+                }
+            }
+        }
+        );
         radioButtons = new ButtonGroup();
         radioButtons.add(depthFirstButton);
         radioButtons.add(breadthFirstButton);
         radioButtons.add(AStarButton);
         radioButtons.add(enhancedAStarButton);
+        radioButtons.add(solutionTableButton);
+    }
+
+    /**
+     * Runs a search on a background worker.  Only the worker touches the
+     * problem until the search is done; the progress timer reads the monitor,
+     * and <b>done</b> shows the result back on the Event Dispatch Thread.
+     *
+     * @param algorithm the search to run.
+     * @param start the state to search from.
+     */
+    private void startSearch(final SearchAlgorithm algorithm, final Vertex start)
+    {
+        monitor = new SearchMonitor();
+        problem.setSearchMonitor(monitor);
+        cancelButton.setEnabled(true);
+        showProgress();
+        progressTimer.start();
+        new SwingWorker<Vertex, Void>()
+        {
+            @Override
+            protected Vertex doInBackground()
+            {
+                return runSearch(algorithm, start);
+            }
+
+            @Override
+            protected void done()
+            {
+                progressTimer.stop();
+                problem.setSearchMonitor(null);
+                cancelButton.setEnabled(false);
+                resetButton.setEnabled(true);
+                try
+                {
+                    get();
+                    setStats();
+                    showNxtMvBtn.setEnabled(true);
+                    showAllMoves.setEnabled(true);
+                } catch (ExecutionException ex)
+                {
+                    toggleButtons(true);
+                    if (ex.getCause() instanceof CancellationException)
+                    {
+                        solutionText.setText("Search cancelled after "
+                                + monitor.getExpansions() + " expansions.");
+                    } else
+                    {
+                        setStats();
+                        JOptionPane.showMessageDialog(introString,
+                                "The search failed: " + ex.getCause(),
+                                "Message", JOptionPane.ERROR_MESSAGE);
+                    }
+                } catch (InterruptedException ex)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                monitor = null;
+            }
+        }.execute();
+    }
+
+    /**
+     * Runs one of the searches offered by the radio buttons.  Called on the
+     * background worker.
+     *
+     * @param algorithm the search to run.
+     * @param start the state to search from.
+     * @return the solution vertex if it is found; null otherwise.
+     */
+    private Vertex runSearch(SearchAlgorithm algorithm, Vertex start)
+    {
+        switch (algorithm)
+        {
+            case BREADTH_FIRST:
+                DequeAdder tailAdder = new DequeAdder()
+                {
+                    @Override
+                    public void add(Vertex vertex, Deque<Vertex> deque)
+                    {
+                        deque.addLast(vertex);
+                    }
+                };
+                return problem.search(start, tailAdder);
+            case DEPTH_FIRST:
+                DequeAdder headAdder = new DequeAdder()
+                {
+                    @Override
+                    public void add(Vertex vertex, Deque<Vertex> deque)
+                    {
+                        deque.addFirst(vertex);
+                    }
+                };
+                return problem.search(start, headAdder);
+            case ENHANCED_A_STAR:
+                return problem.enhancedAStarSearch(start);
+            case SOLUTION_TABLE:
+                return problem.solutionTableSearch(start);
+            default:
+                return problem.searchAStar(start);
+        }
+    }
+
+    /**
+     * Shows the progress of the running search in the stats panel.
+     */
+    private void showProgress()
+    {
+        solutionText.setText("Searching..."
+                + "\nExpanded: " + Long.toString(monitor.getExpansions())
+                + "\nFrontier: " + Integer.toString(monitor.getFrontierSize())
+                + String.format("\nElapsed: %.1f s",
+                        monitor.getElapsedNanos() / 1e9)
+        );
     }
 
     /**
@@ -493,8 +615,8 @@ public class GUI extends JComponent
                 + Integer.toString(problem.getSolutionLength())
                 + "\n# Queue Ops: " + Integer.toString(problem.getQueueOps())
                 + "\nMaxQueueSize: " + Integer.toString(problem.getMaxQueueSize())
-                //+ "\nOpen Discoveries: " + Integer.toString(problem.getOR())
-                //+ "\nClosed Discoveries: " + Integer.toString(problem.getCR())
+                + "\nOpen Discoveries: " + Integer.toString(problem.getOR())
+                + "\nClosed Discoveries: " + Integer.toString(problem.getCR())
         );
 
         // resize
@@ -613,6 +735,11 @@ public class GUI extends JComponent
      * Radio button for enhanced A* search
      */
     private JRadioButton enhancedAStarButton;
+
+    /**
+     * Radio button for walking the solution table
+     */
+    private JRadioButton solutionTableButton;
     
     /**
      * Button group to hold the radio buttons
@@ -633,6 +760,16 @@ public class GUI extends JComponent
      * Solve button to enable search algorithm.
      */
     private JButton solveButton;
+
+    /**
+     * Cancel button to stop a running search.
+     */
+    private JButton cancelButton;
+
+    /**
+     * Monitor of the running search, or null when no search is running.
+     */
+    private SearchMonitor monitor;
     /**
      * default button width.
      */
@@ -705,4 +842,21 @@ public class GUI extends JComponent
         }
     }
     );
+
+    /**
+     * Timer that refreshes the progress of a running search.
+     */
+    private final Timer progressTimer = new Timer(200, new ActionListener()
+    {
+
+        @Override
+        public void actionPerformed(ActionEvent ae)
+        {
+            if (monitor != null)
+            {
+                showProgress();
+            }
+        }
+    }
+    );
 }
@@ -0,0 +1,65 @@
+package framework;
+
+/**
+ * A view of a problem with a single goal state.
+ *
+ * The view has the moves, successors and state indexer of the problem it was
+ * made from, but its only success is the goal state and its heuristic is the
+ * states' own heuristic to that goal. It is made by <b>Problem.forGoal</b>.
+ *
+ * @author jmacvey
+ */
+final class GoalProblem extends Problem
+{
+
+    /**
+     * Creates a view of a problem.
+     *
+     * @param problem the problem.
+     * @param goal the goal state.
+     */
+    GoalProblem(Problem problem, State goal)
+    {
+        this.problem = problem;
+        this.goal = goal;
+        setMoves(problem.getMoves());
+        setFinalState(goal);
+        setIntroduction(problem.getIntroduction());
+        setMultiProblem(false);
+        setHasCanvas(false);
+    }
+
+    @Override
+    public boolean success()
+    {
+        return goal.equals(getCurrentState());
+    }
+
+    @Override
+    public boolean success(State state)
+    {
+        return goal.equals(state);
+    }
+
+    @Override
+    public State successor(State state, int move)
+    {
+        return problem.successor(state, move);
+    }
+
+    @Override
+    public StateIndexer getStateIndexer()
+    {
+        return problem.getStateIndexer();
+    }
+
+    /**
+     * The problem this is a view of.
+     */
+    private final Problem problem;
+
+    /**
+     * The goal state.
+     */
+    private final State goal;
+}
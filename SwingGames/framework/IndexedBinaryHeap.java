@@ -0,0 +1,255 @@
+package framework;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+
+/**
+ * An addressable minimum binary heap.
+ *
+ * The layout follows the BinaryHeap class: elements are stored in an
+ * ArrayList starting at index 1, so that the parent of index i is i/2 and its
+ * children are 2i and 2i + 1 (index 0 is a placeholder). In addition, every
+ * element remembers its own slot in the array, which is updated whenever the
+ * element moves. This lets the heap promote or remove an arbitrary element in
+ * O(log n) instead of scanning for it first.
+ *
+ * An element may be on at most one indexed heap at a time.
+ *
+ * @param <E> the element type, which must store its own heap slot.
+ * @author jmacvey
+ */
+public class IndexedBinaryHeap<E extends IndexedBinaryHeap.Entry>
+{
+
+    /**
+     * An element that can be stored on an indexed binary heap.
+     */
+    public interface Entry
+    {
+
+        /**
+         * Gets the slot this element occupies on its heap.
+         *
+         * @return the slot, or 0 if the element is not on a heap.
+         */
+        int getHeapIndex();
+
+        /**
+         * Sets the slot this element occupies on its heap.  Only the heap
+         * should call this.
+         *
+         * @param heapIndex the new slot, or 0 when removed from the heap.
+         */
+        void setHeapIndex(int heapIndex);
+    }
+
+    /**
+     * Creates an empty heap.
+     *
+     * @param comp the comparator used to order the elements.
+     */
+    public IndexedBinaryHeap(Comparator<? super E> comp)
+    {
+        this.comp = comp;
+        heap.add(null); // placeholder so the root is at index 1
+    }
+
+    /**
+     * Adds a new element to this heap.
+     *
+     * @param element the element to add; it must not already be on a heap.
+     * @return true, as in the Collection interface.
+     */
+    public boolean add(E element)
+    {
+        heap.add(element);
+        siftUp(heap.size() - 1);
+        return true;
+    }
+
+    /**
+     * Removes the minimum element from the root of this heap.
+     *
+     * @return the removed element, or null if the heap is empty.
+     */
+    public E remove()
+    {
+        if (isEmpty())
+        {
+            return null;
+        }
+        return removeAt(1);
+    }
+
+    /**
+     * Removes an arbitrary element from this heap in O(log n).
+     *
+     * @param element the element to remove.
+     * @return true if the element was on this heap.
+     */
+    public boolean remove(E element)
+    {
+        if (!contains(element))
+        {
+            return false;
+        }
+        removeAt(element.getHeapIndex());
+        return true;
+    }
+
+    /**
+     * Restores the heap property after the key of an element on this heap
+     * has decreased.
+     *
+     * @param element the element whose key has decreased.
+     */
+    public void decreaseKey(E element)
+    {
+        siftUp(element.getHeapIndex());
+    }
+
+    /**
+     * Looks at the minimum element without removing it.
+     *
+     * @return the minimum element, or null if the heap is empty.
+     */
+    public E peek()
+    {
+        return isEmpty() ? null : heap.get(1);
+    }
+
+    /**
+     * Tests whether an element is on this heap.
+     *
+     * @param element the element to test.
+     * @return true if the element occupies a slot on this heap.
+     */
+    public boolean contains(E element)
+    {
+        int index = element.getHeapIndex();
+        return index > 0 && index < heap.size() && heap.get(index) == element;
+    }
+
+    /**
+     * Gets the number of elements on this heap.
+     *
+     * @return the number of elements.
+     */
+    public int size()
+    {
+        return heap.size() - 1;
+    }
+
+    /**
+     * Tests whether this heap is empty.
+     *
+     * @return true if there are no elements on the heap.
+     */
+    public boolean isEmpty()
+    {
+        return heap.size() == 1;
+    }
+
+    /**
+     * Removes all elements from this heap.
+     */
+    public void clear()
+    {
+        for (int i = 1; i < heap.size(); i++)
+        {
+            heap.get(i).setHeapIndex(0);
+        }
+        heap.subList(1, heap.size()).clear();
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Helper Methods and Instance Fields
+    //--------------------------------------------------------------------------
+    /**
+     * Removes the element at a slot, moving the last element into the hole and
+     * sifting it up or down as needed.
+     *
+     * @param index the slot to remove.
+     * @return the removed element.
+     */
+    private E removeAt(int index)
+    {
+        E removedItem = heap.get(index);
+        int last = heap.size() - 1;
+        E lastItem = heap.remove(last);
+        removedItem.setHeapIndex(0);
+        if (index != last)
+        {
+            place(lastItem, index);
+            siftDown(index);
+            siftUp(lastItem.getHeapIndex());
+        }
+        return removedItem;
+    }
+
+    /**
+     * Moves the element at a slot up the heap until its parent is no larger.
+     *
+     * @param index the slot of the element.
+     */
+    private void siftUp(int index)
+    {
+        E element = heap.get(index);
+        while (index > 1 && comp.compare(heap.get(index / 2), element) > 0)
+        {
+            place(heap.get(index / 2), index);
+            index /= 2;
+        }
+        place(element, index);
+    }
+
+    /**
+     * Moves the element at a slot down the heap until both of its children
+     * are no smaller.
+     *
+     * @param index the slot of the element.
+     */
+    private void siftDown(int index)
+    {
+        E element = heap.get(index);
+        int heapSize = heap.size();
+        while (index * 2 < heapSize)
+        {
+            int child = index * 2;
+            if (child + 1 < heapSize
+                    && comp.compare(heap.get(child + 1), heap.get(child)) < 0)
+            {
+                child++;
+            }
+            if (comp.compare(element, heap.get(child)) <= 0)
+            {
+                break;
+            }
+            place(heap.get(child), index);
+            index = child;
+        }
+        place(element, index);
+    }
+
+    /**
+     * Stores an element in a slot and records the slot on the element.
+     *
+     * @param element the element.
+     * @param index the slot.
+     */
+    private void place(E element, int index)
+    {
+        heap.set(index, element);
+        element.setHeapIndex(index);
+    }
+
+    /**
+     * The heap array; index 0 is unused.
+     */
+    private final ArrayList<E> heap = new ArrayList<>();
+
+    /**
+     * A Comparator object used to compare heap elements.
+     */
+    private final Comparator<? super E> comp;
+}
@@ -0,0 +1,368 @@
+package framework;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Iterative-Deepening A* (IDA*).
+ *
+ * Runs a series of depth-first probes, each cutting off nodes whose f = g + h
+ * exceeds a threshold. The first threshold is the heuristic of the start
+ * state, and each following threshold is the smallest f value cut off by the
+ * previous probe, so the first solution found is optimal for an admissible
+ * heuristic.
+ *
+ * Only the current path is kept: its states, a hash set of the same states
+ * for constant-time cycle checks, and the index of the next move to try at
+ * each depth. Memory is therefore linear in
+ * the solution depth. The probe is iterative rather than recursive, so deep
+ * paths cannot overflow the call stack.
+ *
+ * An uninformed search ignores the heuristic, so f is just the depth and the
+ * threshold grows by one each probe: plain iterative-deepening depth-first
+ * search.
+ *
+ * @author jmacvey
+ */
+final class IterativeDeepeningSearch
+{
+
+    /**
+     * Creates an iterative deepening search for a problem.
+     *
+     * @param problem the problem to search.
+     * @param informed true for IDA*, false for iterative-deepening DFS.
+     */
+    IterativeDeepeningSearch(Problem problem, boolean informed)
+    {
+        this.problem = problem;
+        this.informed = informed;
+        this.moveCount = problem.getMoves().size();
+        this.monitor = problem.getSearchMonitor();
+    }
+
+    /**
+     * Runs probes with increasing thresholds until a solution is found or the
+     * state space is exhausted.
+     *
+     * @param start the start state.
+     * @return the states from the start (excluded) to the goal (included), or
+     * null if there is no solution.
+     */
+    List<State> search(State start)
+    {
+        int bound = heuristic(start);
+        while (true)
+        {
+            thresholds.add(bound);
+            nextBound = Integer.MAX_VALUE;
+            if (probe(start, bound))
+            {
+                return new ArrayList<>(path.subList(1, depth + 1));
+            }
+            if (nextBound == Integer.MAX_VALUE)
+            {
+                return null; // nothing was cut off: no solution
+            }
+            bound = nextBound;
+        }
+    }
+
+    /**
+     * Gets the number of probes run.
+     *
+     * @return the iteration count.
+     */
+    int getIterations()
+    {
+        return thresholds.size();
+    }
+
+    /**
+     * Gets the f threshold of every probe, in order.
+     *
+     * @return the thresholds.
+     */
+    List<Integer> getThresholds()
+    {
+        return thresholds;
+    }
+
+    /**
+     * Gets the number of nodes expanded over all probes.
+     *
+     * @return the total expansions.
+     */
+    int getExpansions()
+    {
+        return expansions;
+    }
+
+    /**
+     * Gets the number of pushes and pops on the path.
+     *
+     * @return the number of path operations.
+     */
+    int getQueueOps()
+    {
+        return queueOps;
+    }
+
+    /**
+     * Gets the number of states pushed on the path.
+     *
+     * @return the number of pushes.
+     */
+    int getPushes()
+    {
+        return pushes;
+    }
+
+    /**
+     * Gets the number of states popped off the path.
+     *
+     * @return the number of pops.
+     */
+    int getPops()
+    {
+        return pops;
+    }
+
+    /**
+     * Gets the number of states generated by the moves.
+     *
+     * @return the number of states generated.
+     */
+    int getGenerated()
+    {
+        return generated;
+    }
+
+    /**
+     * Gets the number of generated states that had been generated before.
+     *
+     * @return the number of duplicates.
+     */
+    int getDuplicates()
+    {
+        return duplicates;
+    }
+
+    /**
+     * Gets the greatest depth of the path.
+     *
+     * @return the maximum path length.
+     */
+    int getMaxQueueSize()
+    {
+        return maxQueueSize;
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Helper Methods and Instance Fields
+    //--------------------------------------------------------------------------
+    /**
+     * Runs one depth-first probe.
+     *
+     * @param start the start state.
+     * @param bound the f threshold.
+     * @return true if a goal was found; the path then ends at the goal.
+     */
+    private boolean probe(State start, int bound)
+    {
+        path.clear();
+        onPath.clear();
+        depth = -1;
+        int pushed = push(start, bound);
+        if (pushed != EXPAND)
+        {
+            return pushed == GOAL;
+        }
+        while (depth >= 0)
+        {
+            if (cursor[depth] == moveCount)
+            {
+                pop();
+                continue;
+            }
+            State child = problem.successor(path.get(depth), cursor[depth]++);
+            if (child == null)
+            {
+                continue;
+            }
+            generated++;
+            if (onPath.contains(child))
+            {
+                duplicates++;
+            } else if (push(child, bound) == GOAL)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pushes a state on the path unless its f value exceeds the threshold.
+     *
+     * @param state the state.
+     * @param bound the f threshold.
+     * @return CUT if the state was cut off, GOAL if it was pushed and is a
+     * goal, and EXPAND if it was pushed and should be expanded.
+     */
+    private int push(State state, int bound)
+    {
+        int f = depth + 1 + heuristic(state);
+        if (f > bound)
+        {
+            nextBound = Math.min(f, nextBound);
+            return CUT;
+        }
+        depth++;
+        if (depth == cursor.length)
+        {
+            cursor = Arrays.copyOf(cursor, cursor.length * 2);
+        }
+        cursor[depth] = 0;
+        path.add(state);
+        onPath.add(state);
+        queueOps++;
+        pushes++;
+        maxQueueSize = Math.max(depth, maxQueueSize);
+        if (problem.success(state))
+        {
+            return GOAL;
+        }
+        expansions++;
+        ExpansionEvent.emit(expansions, depth, f, depth);
+        if (monitor != null)
+        {
+            monitor.expanded(expansions, depth);
+        }
+        return EXPAND;
+    }
+
+    /**
+     * Pops the deepest state off the path.
+     */
+    private void pop()
+    {
+        onPath.remove(path.remove(depth));
+        depth--;
+        queueOps++;
+        pops++;
+    }
+
+    /**
+     * Gets the heuristic value of a state.
+     *
+     * @param state the state.
+     * @return its estimated distance to the goal.
+     */
+    private int heuristic(State state)
+    {
+        return informed ? problem.getHeuristic(state) : 0;
+    }
+
+    /**
+     * Result of push: the state was over the threshold.
+     */
+    private static final int CUT = 0;
+
+    /**
+     * Result of push: the state was pushed and is a goal.
+     */
+    private static final int GOAL = 1;
+
+    /**
+     * Result of push: the state was pushed and will be expanded.
+     */
+    private static final int EXPAND = 2;
+
+    /**
+     * The problem being searched.
+     */
+    private final Problem problem;
+
+    /**
+     * Whether the heuristic bounds the probes (IDA*) or only the depth does.
+     */
+    private final boolean informed;
+
+    /**
+     * The number of moves of the problem.
+     */
+    private final int moveCount;
+
+    /**
+     * The problem's search monitor, or null.
+     */
+    private final SearchMonitor monitor;
+
+    /**
+     * States on the current path, from the start.
+     */
+    private final ArrayList<State> path = new ArrayList<>();
+
+    /**
+     * The same states, for constant-time cycle checks.
+     */
+    private final HashSet<State> onPath = new HashSet<>();
+
+    /**
+     * Index of the next move to try at each depth.
+     */
+    private int[] cursor = new int[16];
+
+    /**
+     * Depth of the last state on the path (-1 when empty).
+     */
+    private int depth;
+
+    /**
+     * Smallest f value cut off by the current probe.
+     */
+    private int nextBound;
+
+    /**
+     * Threshold of every probe run.
+     */
+    private final List<Integer> thresholds = new ArrayList<>();
+
+    /**
+     * # of nodes expanded.
+     */
+    private int expansions;
+
+    /**
+     * # of path pushes and pops.
+     */
+    private int queueOps;
+
+    /**
+     * Greatest depth reached.
+     */
+    private int maxQueueSize;
+
+    /**
+     * # of states pushed on the path.
+     */
+    private int pushes;
+
+    /**
+     * # of states popped off the path.
+     */
+    private int pops;
+
+    /**
+     * # of states generated.
+     */
+    private int generated;
+
+    /**
+     * # of duplicate states generated.
+     */
+    private int duplicates;
+}
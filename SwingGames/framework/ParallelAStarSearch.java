@@ -0,0 +1,529 @@
+package framework;
+
+import java.util.HashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hash-distributed parallel A* (HDA*).
+ *
+ * Every state is owned by exactly one worker thread, chosen by hashing the
+ * state. Each worker keeps its own open list and closed table for the states
+ * it owns, so no search structure is shared. When a worker generates a child
+ * owned by another worker it sends the child to that worker's mailbox, a
+ * lock-free queue.
+ *
+ * The best goal found so far (the incumbent) is shared, and any node whose f
+ * value is not below the incumbent's cost is pruned. The search is over when
+ * no node remains anywhere: a shared counter is incremented before a node is
+ * queued or mailed and decremented only after a node has been expanded or
+ * discarded, so it can only reach zero once every node is gone. With an
+ * admissible heuristic the incumbent is then an optimal solution.
+ *
+ * The problem's moves and states must be safe to use from several threads,
+ * and its goal test is done with <b>Problem.success(State)</b>.
+ *
+ * @author jmacvey
+ */
+final class ParallelAStarSearch
+{
+
+    /**
+     * Creates a parallel search for a problem.
+     *
+     * @param problem the problem to search.
+     * @param threadCount the number of worker threads (at least 1).
+     */
+    ParallelAStarSearch(Problem problem, int threadCount)
+    {
+        if (threadCount < 1)
+        {
+            throw new IllegalArgumentException("threadCount must be positive: "
+                    + threadCount);
+        }
+        this.problem = problem;
+        this.moveCount = problem.getMoves().size();
+        this.monitor = problem.getSearchMonitor();
+        workers = new Worker[threadCount];
+        for (int i = 0; i < threadCount; i++)
+        {
+            workers[i] = new Worker();
+        }
+    }
+
+    /**
+     * Runs the search from a start state and waits for all workers to finish.
+     *
+     * @param start the start state.
+     * @return the node of an optimal goal, or null if no goal is reachable.
+     */
+    SearchNode search(State start)
+    {
+        SearchNode root = new SearchNode(start, null, 0, problem.getHeuristic(start));
+        if (problem.success(start))
+        {
+            return root;
+        }
+        work.set(1);
+        workers[owner(start)].mailbox.offer(root);
+
+        Thread[] threads = new Thread[workers.length];
+        for (int i = 0; i < workers.length; i++)
+        {
+            threads[i] = new Thread(workers[i], "hda-worker-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+        {
+            try
+            {
+                thread.join();
+            } catch (InterruptedException ex)
+            {
+                failure.compareAndSet(null, ex);
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failure.get() instanceof CancellationException)
+        {
+            throw (CancellationException) failure.get();
+        }
+        if (failure.get() != null)
+        {
+            throw new IllegalStateException("parallel A* worker failed",
+                    failure.get());
+        }
+        return incumbent.get();
+    }
+
+    /**
+     * Gets the number of nodes each worker thread expanded.
+     *
+     * @return one expansion count per worker.
+     */
+    int[] getExpansions()
+    {
+        int[] expansions = new int[workers.length];
+        for (int i = 0; i < workers.length; i++)
+        {
+            expansions[i] = workers[i].expansions;
+        }
+        return expansions;
+    }
+
+    /**
+     * Gets the total number of open list operations of all workers.
+     *
+     * @return the number of queue operations.
+     */
+    int getQueueOps()
+    {
+        int total = 0;
+        for (Worker worker : workers)
+        {
+            total += worker.queueOps;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the total number of nodes put on the open lists of all workers.
+     *
+     * @return the number of pushes.
+     */
+    int getPushes()
+    {
+        int total = 0;
+        for (Worker worker : workers)
+        {
+            total += worker.pushes;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the total number of nodes taken off the open lists of all workers.
+     *
+     * @return the number of pops.
+     */
+    int getPops()
+    {
+        int total = 0;
+        for (Worker worker : workers)
+        {
+            total += worker.pops;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the total number of states generated by the moves of all workers.
+     *
+     * @return the number of states generated.
+     */
+    int getGenerated()
+    {
+        int total = 0;
+        for (Worker worker : workers)
+        {
+            total += worker.generated;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the total number of generated states already known to their owners of all workers.
+     *
+     * @return the number of duplicates.
+     */
+    int getDuplicates()
+    {
+        int total = 0;
+        for (Worker worker : workers)
+        {
+            total += worker.duplicates;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the sum of the largest open list sizes of all workers, an upper
+     * bound on the largest combined frontier.
+     *
+     * @return the summed maximum queue size.
+     */
+    int getMaxQueueSize()
+    {
+        int total = 0;
+        for (Worker worker : workers)
+        {
+            total += worker.maxQueueSize;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the total number of open rediscoveries of all workers.
+     *
+     * @return the number of open rediscoveries.
+     */
+    int getOpenRediscoveries()
+    {
+        int total = 0;
+        for (Worker worker : workers)
+        {
+            total += worker.openRediscoveries;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the total number of closed rediscoveries of all workers.
+     *
+     * @return the number of closed rediscoveries.
+     */
+    int getClosedRediscoveries()
+    {
+        int total = 0;
+        for (Worker worker : workers)
+        {
+            total += worker.closedRediscoveries;
+        }
+        return total;
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Helper Methods and Instance Fields
+    //--------------------------------------------------------------------------
+    /**
+     * A search thread owning the states that hash to it.
+     */
+    private final class Worker implements Runnable
+    {
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                while (failure.get() == null)
+                {
+                    SearchNode message;
+                    while ((message = mailbox.poll()) != null)
+                    {
+                        receive(message);
+                    }
+                    SearchNode node = open.remove();
+                    if (node == null)
+                    {
+                        if (work.get() == 0)
+                        {
+                            break;
+                        }
+                        Thread.yield();
+                        continue;
+                    }
+                    queueOps++;
+                    pops++;
+                    process(node);
+                }
+            } catch (RuntimeException | Error ex)
+            {
+                failure.compareAndSet(null, ex);
+            }
+        }
+
+        /**
+         * Takes a node owned by this worker onto the open list, unless an
+         * equal or better path to its state is already known.
+         *
+         * @param node the node; it is counted in the outstanding work.
+         */
+        private void receive(SearchNode node)
+        {
+            if (node.getF() >= incumbentCost())
+            {
+                work.decrementAndGet();
+                return;
+            }
+            State state = node.getState();
+            SearchNode known = table.get(state);
+            if (known == null)
+            {
+                table.put(state, node);
+                push(node);
+                return;
+            }
+            duplicates++;
+            if (node.getG() < known.getG())
+            {
+                int oldG = known.getG();
+                known.reparent(node.getParent(), node.getG());
+                if (open.contains(known))
+                {
+                    openRediscoveries++;
+                    RediscoveryEvent.emit(false, oldG, node.getG());
+                    open.decreaseKey(known);
+                    queueOps++;
+                    work.decrementAndGet(); // the message is dropped
+                } else
+                {
+                    closedRediscoveries++;
+                    RediscoveryEvent.emit(true, oldG, node.getG());
+                    push(known); // the message's work moves to the reopened node
+                }
+            } else
+            {
+                work.decrementAndGet();
+            }
+        }
+
+        /**
+         * Expands a node taken off the open list.
+         *
+         * @param node the node; it is counted in the outstanding work.
+         */
+        private void process(SearchNode node)
+        {
+            if (node.getF() < incumbentCost())
+            {
+                expansions++;
+                ExpansionEvent.emit(expansions, node.getG(), node.getF(),
+                        open.size());
+                if (monitor != null)
+                {
+                    monitor.expanded(expansions, open.size());
+                }
+                State state = node.getState();
+                SearchNode parent = node.getParent();
+                int g = node.getG() + 1;
+                for (int i = 0; i < moveCount; i++)
+                {
+                    State child = problem.successor(state, i);
+                    if (child == null)
+                    {
+                        continue;
+                    }
+                    generated++;
+                    if (parent != null && child.equals(parent.getState()))
+                    {
+                        duplicates++;
+                        continue;
+                    }
+                    SearchNode childNode = new SearchNode(child, node, g,
+                            problem.getHeuristic(child));
+                    if (problem.success(child))
+                    {
+                        offerIncumbent(childNode);
+                    } else if (childNode.getF() < incumbentCost())
+                    {
+                        work.incrementAndGet();
+                        Worker owner = workers[owner(child)];
+                        if (owner == this)
+                        {
+                            receive(childNode);
+                        } else
+                        {
+                            owner.mailbox.offer(childNode);
+                        }
+                    }
+                }
+            }
+            // children are counted before the parent is released
+            work.decrementAndGet();
+        }
+
+        /**
+         * Puts a node on this worker's open list.
+         *
+         * @param node the node.
+         */
+        private void push(SearchNode node)
+        {
+            open.add(node);
+            queueOps++;
+            pushes++;
+            maxQueueSize = Math.max(open.size(), maxQueueSize);
+        }
+
+        /**
+         * Nodes sent to this worker by other workers.
+         */
+        private final ConcurrentLinkedQueue<SearchNode> mailbox
+                = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Open list of this worker.
+         */
+        private final IndexedBinaryHeap<SearchNode> open
+                = new IndexedBinaryHeap<>(SearchNode.F_ORDER);
+
+        /**
+         * Best known node for every state this worker owns, open or closed.
+         */
+        private final HashMap<State, SearchNode> table = new HashMap<>();
+
+        /**
+         * # of nodes this worker expanded.
+         */
+        private int expansions;
+
+        /**
+         * # of open list operations.
+         */
+        private int queueOps;
+
+        /**
+         * # of maximum items on this worker's open list.
+         */
+        private int maxQueueSize;
+
+        /**
+         * # of open rediscoveries.
+         */
+        private int openRediscoveries;
+
+        /**
+         * # of closed rediscoveries.
+         */
+        private int closedRediscoveries;
+
+        /**
+         * # of states put on the queue.
+         */
+        private int pushes;
+
+        /**
+         * # of states taken off the queue.
+         */
+        private int pops;
+
+        /**
+         * # of states generated.
+         */
+        private int generated;
+
+        /**
+         * # of duplicate states generated.
+         */
+        private int duplicates;
+    }
+
+    /**
+     * Picks the worker that owns a state.
+     *
+     * @param state the state.
+     * @return the index of the owning worker.
+     */
+    private int owner(State state)
+    {
+        int h = state.hashCode() * 0x9E3779B9; // spread poorly mixed hashes
+        return ((h ^ (h >>> 16)) & Integer.MAX_VALUE) % workers.length;
+    }
+
+    /**
+     * Gets the cost of the best goal found so far.
+     *
+     * @return the incumbent's path cost, or Integer.MAX_VALUE if none.
+     */
+    private int incumbentCost()
+    {
+        SearchNode best = incumbent.get();
+        return best == null ? Integer.MAX_VALUE : best.getG();
+    }
+
+    /**
+     * Replaces the incumbent if a goal node is cheaper.
+     *
+     * @param goalNode a goal node.
+     */
+    private void offerIncumbent(SearchNode goalNode)
+    {
+        SearchNode best;
+        do
+        {
+            best = incumbent.get();
+            if (best != null && best.getG() <= goalNode.getG())
+            {
+                return;
+            }
+        } while (!incumbent.compareAndSet(best, goalNode));
+    }
+
+    /**
+     * The problem being searched.
+     */
+    private final Problem problem;
+
+    /**
+     * The number of moves of the problem.
+     */
+    private final int moveCount;
+
+    /**
+     * The problem's search monitor, or null.
+     */
+    private final SearchMonitor monitor;
+
+    /**
+     * The worker threads' state.
+     */
+    private final Worker[] workers;
+
+    /**
+     * # of nodes queued, mailed or being expanded anywhere.
+     */
+    private final AtomicLong work = new AtomicLong();
+
+    /**
+     * The best goal node found so far.
+     */
+    private final AtomicReference<SearchNode> incumbent = new AtomicReference<>();
+
+    /**
+     * The first exception thrown by a worker, if any.
+     */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+}
@@ -1,13 +1,18 @@
 package framework;
 
 import graph.DequeAdder; // BFS/DFS class to help add to queues
+import graph.SimpleVertex; // vertices of the BFS/DFS search trees
 import graph.Vertex; // abstract object representation on state space tree
-import java.util.Comparator; // for priority queue comparisons
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;  // obsolete class, but suited purposes
+import java.util.Iterator;
 import java.util.LinkedList; // because linked lists are easy
 import java.util.List; 
-import java.util.PriorityQueue; // necessary for A* algorithms.
 import java.util.Stack; // to hold the found solution path
+import java.util.concurrent.TimeUnit;
 
 /**
  * This abstract class represents a problem in a problem solving domain.
@@ -33,28 +38,29 @@ public abstract class Problem
      */
     public boolean occursOnPath(Vertex v, Vertex ancestor)
     {
-        // recursive algorithm:
-        // base case 1
-        if (ancestor == null)
+        // walk up the predecessor chain iteratively so that deep paths
+        // cannot overflow the call stack
+        for (Vertex a = ancestor; a != null; a = a.getPredecessor())
         {
-            return false;
-        } // base case 2
-        else if (v.equals(ancestor))
-        {
-            return true;
-        } // recursive call
-        else
-        {
-            return occursOnPath(v, ancestor.getPredecessor());
+            if (v.equals(a))
+            {
+                return true;
+            }
         }
+        return false;
     }
 
     /**
      * Expands a vertex v in a state space search tree by creating a list (its
      * children) of all vertices adjacent to it in the state space. The list may
-     * not include any vertex on the predecessor path leading to v. Each child
-     * on the list has its predecessor set to v and its distance from the root
-     * (its depth in the search tree) set to one more than v's distance.
+     * not include any vertex on the predecessor path leading to v.
+     *
+     * The children are the states returned by <b>successor</b>, which may be
+     * instances shared with other searches (see <b>StateIndexer</b>), so
+     * their predecessors and distances are left alone: setting them would
+     * rewrite the search tree of every other search holding the same state.
+     * A caller building a search tree must keep it in its own vertices, as
+     * the searches of this class do.
      *
      * @param v the vertex being expanded
      * @param checkOccursOnPath flag to ensure this expand checks if the vertex
@@ -62,31 +68,99 @@ public abstract class Problem
      * so is needed to differentiate between search algorithms.
      * @return a list of the children
      * @author jmacvey
+     * @deprecated the children no longer record v as their predecessor; use
+     * <b>successor</b> and keep the search tree apart from the states.
      */
+    @Deprecated
     public List<Vertex> expand(Vertex v, boolean checkOccursOnPath)
     {
         // create a list for the children
         LinkedList<Vertex> children = new LinkedList<>();
         // for each move, try to create a vertex.  If that vertex
         // exists and isn't already added to a path, go ahead and add it
-        for (Move move : moves)
+        for (int i = 0; i < moves.size(); i++)
         {
-            Vertex child = (Vertex) move.doMove((State) v);
+            Vertex child = (Vertex) successor((State) v, i);
             if (checkOccursOnPath
                     ? (child != null && !occursOnPath(child, v))
                     : (child != null))
             {
-                child.setDistance(v.getDistance() + 1);
-                child.setPredecessor(v);
                 children.add(child);
             } // end if
         } // end for
         return children;
     }
 
+    /**
+     * Generates one child of a state: the result of applying one of this
+     * problem's moves. This is the cursor form of <b>expand</b>; the search
+     * algorithms loop over the move indexes themselves, so children are made
+     * one at a time as they are needed, no list is built, and a loop can stop
+     * as soon as it meets a goal. Extending classes may override this to
+     * generate children faster than through the moves.
+     *
+     * @param state the state being expanded.
+     * @param move the index of the move on the list of moves, from 0 to
+     * getMoves().size() - 1.
+     * @return the child, or null if the move cannot be applied to the state.
+     */
+    public State successor(State state, int move)
+    {
+        return moves.get(move).doMove(state);
+    }
+
+    /**
+     * Solves the problem from a start state with one of the search
+     * algorithms. All bookkeeping of the search is local to the call and the
+     * problem itself is not changed, so any number of threads may solve the
+     * same problem at once, provided its moves and <b>success(State)</b> test
+     * are thread-safe. If this problem has a solution cache (see
+     * <b>setSolutionCache</b>) a result found there is returned without
+     * searching.
+     *
+     * @param start the start state.
+     * @param algorithm the algorithm to run.
+     * @return the solution and statistics of the search.
+     */
+    public SearchResult solve(State start, SearchAlgorithm algorithm)
+    {
+        SolutionCache cache = solutionCache;
+        if (cache == null)
+        {
+            return run(start, algorithm);
+        }
+        State goal = finalState;
+        SearchResult result = cache.get(start, goal, algorithm);
+        if (result == null)
+        {
+            result = run(start, algorithm);
+            cache.put(start, goal, algorithm, result);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the result of the last search run by one of the search methods
+     * returning a vertex (not by <b>solve</b>).
+     *
+     * @return the last result, or null if no search has been run.
+     */
+    public SearchResult getLastResult()
+    {
+        return lastResult;
+    }
+
     /**
      * BFS/DFS implementation
      * Searches for a possible solution to the problem given an initial state.
+     * If the problem has a state indexer (see <b>getStateIndexer()</b>) each
+     * state is queued at most once, tracked in a bit set instead of by path
+     * occurrence checks.
+     *
+     * Like the other search methods returning a vertex, this publishes its
+     * result to the solution stack and counters of this problem and leaves
+     * the goal as the current state, so only one of them may run at a time;
+     * use <b>solve</b> for concurrent searches.
      *
      * @param state the starting point for the solution.
      * @param adder the dequeue adding object to facilitate
@@ -96,39 +170,27 @@ public abstract class Problem
      */
     public Vertex search(Vertex state, DequeAdder adder)
     {
-        state.setDistance(0);
-        state.setPredecessor(null);
-        deq.add(state);
-        while (!deq.isEmpty())
+        SolutionCache cache = solutionCache;
+        State goal = finalState;
+        SearchResult result = (cache == null) ? null
+                : cache.get((State) state, goal, adder.getClass());
+        if (result == null)
         {
-            State u = (State) deq.remove();
-            queueOps++;
-            queueSize--;
-            this.setCurrentState(u);
-            if (this.success())
-            { // return the solution vertex if possible.
-                Vertex ve = (Vertex) u;
-                pushSolutions(ve);
-                solutionLength = solutionStack.size();
-                return (Vertex) u;
-            } else
+            SearchContext context = new SearchContext(null, searchMonitor);
+            result = context.toResult((State) state,
+                    breadthOrDepthFirst((State) state, adder, context));
+            if (cache != null)
             {
-                LinkedList<Vertex> children
-                        = (LinkedList<Vertex>) this.expand((Vertex) u, true);
-                for (Vertex vertex : children)
-                {
-                    adder.add(vertex, deq);
-                    queueOps++;
-                    queueSize++;
-                    maxQueueSize = Math.max(queueSize, maxQueueSize);
-                }
+                cache.put((State) state, goal, adder.getClass(), result);
             }
-        } // end while
-        return null;     // returns null if no solution is found
+        }
+        return publish(result);
     }
 
     /**
      * A* Search Implementation.
+     * This is a tree search with path occurrence checks, even if the problem
+     * has a state indexer; <b>enhancedAStarSearch</b> is the graph search.
      *
      * @param state the starting point for the solution.
      * @return the solution vertex if it is found; null otherwise.
@@ -136,178 +198,923 @@ public abstract class Problem
      */
     public Vertex searchAStar(Vertex state)
     {
-        initializePQ();
-        state.setDistance(0);
-        state.setPredecessor(null);
-        pq.add(state);
+        return publish(solve((State) state, SearchAlgorithm.A_STAR));
+    }
+
+    /**
+     * Enhanced A* search Implementation.
+     * Utilizes hash tables to implement optimizations in priority queue operations
+     * as well as eliminating the need for path occurrence checking (O(n) to O(1)) 
+     * efficiency boost.
+     * If the problem has a state indexer the hash tables and search nodes are
+     * replaced by bit sets and primitive arrays indexed by state ordinal.
+     * @param state the start state in the search.
+     * @return the solution vertex, if found. Null otherwise.
+     * @author jmacvey
+     */
+    public Vertex enhancedAStarSearch(Vertex state)
+    {
+        return publish(solve((State) state, SearchAlgorithm.ENHANCED_A_STAR));
+    }
+
+    /**
+     * Hash-distributed parallel A* (HDA*) search implementation.
+     * Successor states are hashed to owner threads, each with its own open
+     * list and closed table, and are exchanged through lock-free mailboxes.
+     * The solution is optimal for an admissible heuristic. The problem's moves
+     * and its <b>success(State)</b> test must be safe to call from several
+     * threads.
+     * @param state the start state in the search.
+     * @param threadCount the number of worker threads.
+     * @return the solution vertex, if found. Null otherwise.
+     * @author jmacvey
+     */
+    public Vertex parallelAStarSearch(Vertex state, int threadCount)
+    {
+        SearchContext context = new SearchContext(
+                SearchAlgorithm.PARALLEL_A_STAR, searchMonitor);
+        return publish(context.toResult((State) state,
+                parallelAStar((State) state, threadCount, context)));
+    }
+
+    /**
+     * Bidirectional breadth-first search implementation.
+     * Searches forwards from the start state and backwards from the goal
+     * states (see <b>getGoalStates()</b>) at the same time, and stops when the
+     * two frontiers meet. Every move of this problem must implement
+     * <b>ReversibleMove</b>.
+     * @param state the start state in the search.
+     * @return the solution vertex, if found. Null otherwise.
+     * @author jmacvey
+     */
+    public Vertex bidirectionalSearch(Vertex state)
+    {
+        return publish(solve((State) state, SearchAlgorithm.BIDIRECTIONAL));
+    }
+
+    /**
+     * Iterative-Deepening A* (IDA*) search implementation.
+     * Repeats depth-first searches bounded by f = g + h, raising the bound to
+     * the smallest f that was cut off each time. Only the current path is kept,
+     * so memory is linear in the solution depth. The iteration count, the
+     * bound of each iteration and the total expansions are available from
+     * <b>getIterations()</b>, <b>getThresholds()</b> and <b>getExpansions()</b>.
+     * @param state the start state in the search.
+     * @return the solution vertex, if found. Null otherwise.
+     * @author jmacvey
+     */
+    public Vertex iterativeDeepeningAStarSearch(Vertex state)
+    {
+        return publish(solve((State) state,
+                SearchAlgorithm.ITERATIVE_DEEPENING_A_STAR));
+    }
+
+    /**
+     * Iterative-deepening depth-first search implementation.
+     * Repeats depth-first searches with a depth limit of 0, 1, 2, ... until a
+     * solution is found, so the solution is a shortest one. The current path
+     * is kept in a hash set, so cycle checks take constant time, and the
+     * search uses no recursion. The counters are the same as for
+     * <b>iterativeDeepeningAStarSearch</b>.
+     * @param state the start state in the search.
+     * @return the solution vertex, if found. Null otherwise.
+     * @author jmacvey
+     */
+    public Vertex iterativeDeepeningSearch(Vertex state)
+    {
+        return publish(solve((State) state,
+                SearchAlgorithm.ITERATIVE_DEEPENING));
+    }
+
+    /**
+     * Anytime weighted A* (AWA*) search implementation.
+     * Orders the open list by g + weight * h to find a first solution
+     * quickly, then keeps searching for better ones, pruning what cannot
+     * beat the best so far, until the open list is empty or the time limit
+     * or the expansion budget runs out. The result holds the best solution
+     * found, a proven lower bound on the optimal cost (see
+     * <b>SearchResult.getSuboptimalityBound()</b>) and whether the search
+     * was stopped early. Results of this method are not cached.
+     * The time limit counts the search alone: the heuristic is prepared (see
+     * <b>prepareHeuristic</b>) before the clock starts.
+     * @param start the start state in the search.
+     * @param weight the weight of the heuristic, at least 1.
+     * @param timeLimit how long the search may run.
+     * @param unit the unit of the time limit.
+     * @param maxExpansions the most states to expand.
+     * @return the best solution found and its statistics.
+     * @author jmacvey
+     */
+    public SearchResult solveAnytime(State start, double weight,
+            long timeLimit, TimeUnit unit, int maxExpansions)
+    {
+        if (!(weight >= 1))
+        {
+            throw new IllegalArgumentException("weight must be at least 1: "
+                    + weight);
+        }
+        prepareHeuristic();
+        SearchContext context = new SearchContext(
+                SearchAlgorithm.ANYTIME_WEIGHTED_A_STAR, searchMonitor);
+        AnytimeSearch awa = new AnytimeSearch(this, weight,
+                unit.toNanos(timeLimit), maxExpansions, context);
+        return context.toResult(start, awa.search(start));
+    }
+
+    /**
+     * Beam search implementation.
+     * Searches breadth-first one depth layer at a time, keeping only the
+     * width best states of each layer by their heuristic, so memory stays
+     * O(width * depth) however large the state space is. The solution may be
+     * longer than optimal or missed; the result tells how many nodes were
+     * pruned and whether the solution is proven optimal anyway (see
+     * <b>SearchResult.isProvenOptimal()</b>). Results of this method are not
+     * cached.
+     * @param start the start state in the search.
+     * @param width the number of states kept per layer.
+     * @return the solution found and its statistics.
+     * @author jmacvey
+     */
+    public SearchResult solveBeam(State start, int width)
+    {
+        if (width < 1)
+        {
+            throw new IllegalArgumentException("width must be positive: "
+                    + width);
+        }
+        SearchContext context = new SearchContext(SearchAlgorithm.BEAM,
+                searchMonitor);
+        return context.toResult(start,
+                new BeamSearch(this, width, context).search(start));
+    }
+
+    /**
+     * Solution table implementation.
+     * Walks the solution table of this problem (see
+     * <b>getSolutionOracle()</b>) from the start state, building the table
+     * first if this is its first use. The solution is a shortest one, and
+     * solving again from any other state costs only the walk.
+     * @param state the start state in the search.
+     * @return the solution vertex, if found. Null otherwise.
+     * @author jmacvey
+     */
+    public Vertex solutionTableSearch(Vertex state)
+    {
+        return publish(solve((State) state, SearchAlgorithm.SOLUTION_TABLE));
+    }
+
+    /**
+     * Gets the solution table of this problem: the distance to the goal and
+     * the next move of every state. The table is built on first use by one
+     * search backwards from the goal states, and is built again after the
+     * final state or the moves are changed. Every move of this problem must
+     * implement <b>ReversibleMove</b>.
+     *
+     * @return the solution table.
+     */
+    public SolutionOracle getSolutionOracle()
+    {
+        SolutionOracle oracle = solutionOracle;
+        if (oracle == null)
+        {
+            synchronized (this)
+            {
+                oracle = solutionOracle;
+                if (oracle == null)
+                {
+                    solutionOracle = oracle = new SolutionOracle(this);
+                }
+            }
+        }
+        return oracle;
+    }
+
+    /**
+     * Gets the solution cache of this problem.
+     *
+     * @return the solution cache, or null if results are not cached.
+     */
+    public SolutionCache getSolutionCache()
+    {
+        return solutionCache;
+    }
+
+    /**
+     * Sets the solution cache of this problem. Searches run by <b>solve</b>,
+     * <b>search</b> and the other search methods look their start state,
+     * final state and algorithm up in the cache first, and store what they
+     * find there. The default is no cache.
+     *
+     * @param solutionCache the solution cache, or null to stop caching.
+     */
+    public void setSolutionCache(SolutionCache solutionCache)
+    {
+        this.solutionCache = solutionCache;
+    }
+
+    /**
+     * Gets the search trace of this problem.
+     *
+     * @return the trace, or null if searches are not traced.
+     */
+    public SearchTraceWriter getTraceWriter()
+    {
+        return traceWriter;
+    }
+
+    /**
+     * Sets the search trace of this problem. While it is set, the breadth-
+     * and depth-first and A* searches append a record for every state they
+     * expand or generate; the other searches are not traced. The default is
+     * no trace. The caller closes the trace.
+     *
+     * @param traceWriter the trace, or null to stop tracing.
+     */
+    public void setTraceWriter(SearchTraceWriter traceWriter)
+    {
+        this.traceWriter = traceWriter;
+    }
+
+    /**
+     * Gets the search monitor of this problem.
+     *
+     * @return the monitor, or null if searches are not monitored.
+     */
+    public SearchMonitor getSearchMonitor()
+    {
+        return searchMonitor;
+    }
+
+    /**
+     * Sets the search monitor of this problem. While it is set, every search
+     * (and the building of the solution table) reports its progress to the
+     * monitor, and ends with a <b>CancellationException</b> soon after the
+     * monitor is cancelled. The default is no monitor.
+     *
+     * @param searchMonitor the monitor, or null to stop monitoring.
+     */
+    public void setSearchMonitor(SearchMonitor searchMonitor)
+    {
+        this.searchMonitor = searchMonitor;
+    }
+
+    /**
+     * Gets the state indexer of this problem, if its states can be numbered
+     * densely. The default is null; extending classes with a bounded state
+     * space may return an indexer so that the searches keep their
+     * bookkeeping in bit sets and arrays rather than hash tables.
+     *
+     * @return the state indexer, or null.
+     */
+    public StateIndexer getStateIndexer()
+    {
+        return null;
+    }
+
+    /**
+     * Gets the heuristic estimate of the distance from a state to the goal.
+     * All informed searches get their heuristic values here. The default asks
+     * the state for its heuristic to the final state; extending classes may
+     * override this with a heuristic that knows the whole goal, for example a
+     * precomputed table. The estimate must never exceed the true distance for
+     * the A* searches to find optimal solutions.
+     *
+     * @param state the state to estimate.
+     * @return the estimated number of moves to a goal.
+     */
+    public int getHeuristic(State state)
+    {
+        return state.getHeuristic(finalState);
+    }
+
+    /**
+     * Prepares whatever <b>getHeuristic</b> builds on first use, such as a
+     * precomputed table, so that no search pays for it on its clock. Searches
+     * with a time limit call this before starting the clock. The default does
+     * nothing; extending classes whose heuristic is built lazily should
+     * override it.
+     */
+    public void prepareHeuristic()
+    {
+    }
+
+    /**
+     * Gets the goal states that searches working backwards start from.
+     * The default is the final state of the problem. Extending classes whose
+     * <b>success</b> test accepts several states should override this to
+     * return all of them.
+     *
+     * @return the goal states.
+     */
+    public List<State> getGoalStates()
+    {
+        List<State> goals = new LinkedList<>();
+        if (finalState != null)
+        {
+            goals.add(finalState);
+        }
+        return goals;
+    }
+
+    /**
+     * Gets a view of this problem whose only goal is a given state. The view
+     * shares this problem's moves, successors and state indexer but keeps no
+     * state of its own between searches, so several views can be solved at
+     * once, and its heuristic is the states' own heuristic to the goal.
+     * Extending classes whose <b>getHeuristic</b> is not the states' own
+     * should override this, or the view is searched uninformed.
+     *
+     * @param goal the goal state.
+     * @return the problem of reaching the goal.
+     */
+    public Problem forGoal(State goal)
+    {
+        return new GoalProblem(this, goal);
+    }
+
+    /**
+     * Gets a view of this problem whose only goal is a given state, knowing
+     * how many instances will be solved with it. Extending classes whose
+     * heuristic is costly to prepare for a new goal can use the count to
+     * prepare it only when enough searches share it. The default ignores the
+     * count.
+     *
+     * @param goal the goal state.
+     * @param instances the number of instances that will be solved.
+     * @return the problem of reaching the goal.
+     */
+    public Problem forGoal(State goal, int instances)
+    {
+        return forGoal(goal);
+    }
+
+    /**
+     * Gets the instances of this problem: each initial state paired with the
+     * final state at the same position of the final states list, or with no
+     * goal state (this problem's own success test) if there is none.
+     *
+     * @return the instances, in the order of the initial states list.
+     */
+    public List<SearchInstance> getInstances()
+    {
+        List<SearchInstance> instances = new ArrayList<>();
+        Iterator<State> goals = finalStatesList.iterator();
+        for (State start : initialStatesList)
+        {
+            instances.add(new SearchInstance(start,
+                    goals.hasNext() ? goals.next() : null));
+        }
+        return instances;
+    }
+
+    /**
+     * Runs a search without looking in the solution cache.
+     *
+     * @param start the start state.
+     * @param algorithm the algorithm to run.
+     * @return the solution and statistics of the search.
+     */
+    private SearchResult run(State start, SearchAlgorithm algorithm)
+    {
+        SearchContext context = new SearchContext(algorithm, searchMonitor);
+        List<State> path;
+        switch (algorithm)
+        {
+            case BREADTH_FIRST:
+                path = breadthOrDepthFirst(start, TAIL_ADDER, context);
+                break;
+            case DEPTH_FIRST:
+                path = breadthOrDepthFirst(start, HEAD_ADDER, context);
+                break;
+            case A_STAR:
+                path = aStar(start, context);
+                break;
+            case ENHANCED_A_STAR:
+                path = enhancedAStar(start, context);
+                break;
+            case PARALLEL_A_STAR:
+                path = parallelAStar(start,
+                        Runtime.getRuntime().availableProcessors(), context);
+                break;
+            case BIDIRECTIONAL:
+                path = bidirectional(start, context);
+                break;
+            case ITERATIVE_DEEPENING_A_STAR:
+                path = iterativeDeepening(start, true, context);
+                break;
+            case ITERATIVE_DEEPENING:
+                path = iterativeDeepening(start, false, context);
+                break;
+            case BEAM:
+                path = new BeamSearch(this, DEFAULT_BEAM_WIDTH, context)
+                        .search(start);
+                break;
+            case ANYTIME_WEIGHTED_A_STAR:
+                path = new AnytimeSearch(this, DEFAULT_WEIGHT, Long.MAX_VALUE,
+                        Integer.MAX_VALUE, context).search(start);
+                break;
+            default:
+                path = getSolutionOracle().getPath(start);
+                break;
+        }
+        return context.toResult(start, path);
+    }
+
+    /**
+     * Runs a breadth- or depth-first search. Without a state indexer this is
+     * a tree search: the states on the path to a vertex are not generated
+     * again below it, but other states may be. A goal ends the search as soon
+     * as it is generated.
+     *
+     * @param start the start state.
+     * @param adder the deque adding object.
+     * @param context the bookkeeping of the search.
+     * @return the solution path, or null.
+     */
+    private List<State> breadthOrDepthFirst(State start, DequeAdder adder,
+            SearchContext context)
+    {
+        StateIndexer indexer = getStateIndexer();
+        if (indexer != null)
+        {
+            DenseSearch dense = new DenseSearch(this, indexer);
+            List<State> path = dense.search(start, adder);
+            addStatistics(dense, context);
+            return path;
+        }
+        SearchTraceWriter trace = traceWriter;
+        Deque<Vertex> deq = new ArrayDeque<>();
+        deq.add(new PathVertex(start, null));
+        context.queued();
+        while (!deq.isEmpty())
+        {
+            PathVertex v = (PathVertex) deq.remove();
+            State u = v.getState();
+            context.dequeued();
+            if (success(u))
+            { // return the solution path if possible.
+                return path(v);
+            }
+            context.expanded(v.getDistance(), v.getDistance());
+            if (trace != null)
+            {
+                PathVertex parent = (PathVertex) v.getPredecessor();
+                trace.append(SearchTraceWriter.EXPANDED, traceKey(u),
+                        traceKey(parent == null ? null : parent.getState()),
+                        v.getDistance(), -1);
+            }
+            for (int i = 0; i < moves.size(); i++)
+            {
+                State child = successor(u, i);
+                if (child == null)
+                {
+                    continue;
+                }
+                context.generated();
+                if (trace != null)
+                {
+                    trace.append(SearchTraceWriter.GENERATED, traceKey(child),
+                            traceKey(u), v.getDistance() + 1, -1);
+                }
+                if (occursOnPath(child, v))
+                {
+                    context.duplicate();
+                    continue;
+                }
+                PathVertex vertex = new PathVertex(child, v);
+                // a goal child ends the search without being queued;
+                // at equal depth it is as short as any found later
+                if (success(child))
+                {
+                    return path(vertex);
+                }
+                adder.add(vertex, deq);
+                context.queued();
+            }
+        } // end while
+        return null;     // returns null if no solution is found
+    }
 
-        queueSize++;
-        maxQueueSize = 1;
-        queueOps++;
+    /**
+     * Runs an A* tree search: states on the path to a node are not generated
+     * again below it, but other states may be.
+     *
+     * @param start the start state.
+     * @param context the bookkeeping of the search.
+     * @return the solution path, or null.
+     */
+    private List<State> aStar(State start, SearchContext context)
+    {
+        SearchTraceWriter trace = traceWriter;
+        IndexedBinaryHeap<SearchNode> pq = new IndexedBinaryHeap<>(SearchNode.F_ORDER);
+        pq.add(createNode(start, null));
+        context.queued();
         while (!pq.isEmpty())
         {
-            State u = (State) pq.remove();
-            queueSize--;
-            queueOps++;
-            this.setCurrentState(u);
-            if (this.success())
+            SearchNode node = pq.remove();
+            State u = node.getState();
+            context.dequeued();
+            if (success(u))
             {
-                Vertex ve = (Vertex) u;
-                pushSolutions(ve);
-                solutionLength = solutionStack.size();
-                return ve;
-            } else
+                return path(node);
+            }
+            context.expanded(node.getG(), node.getF());
+            traceExpansion(trace, node);
+            for (int i = 0; i < moves.size(); i++)
             {
-                for (Vertex ve : expand((Vertex) u, true))
+                State child = successor(u, i);
+                if (child == null)
+                {
+                    continue;
+                }
+                context.generated();
+                // a state on the path has its heuristic value on its node
+                SearchNode x = findOnPath(child, node);
+                boolean duplicate = (x != null);
+                if (!duplicate)
+                {
+                    x = createNode(child, node);
+                }
+                if (trace != null)
                 {
-                    pq.add(ve);
-                    queueSize++;
-                    queueOps++;
-                    maxQueueSize = Math.max(queueSize, maxQueueSize);
+                    trace.append(SearchTraceWriter.GENERATED, traceKey(child),
+                            traceKey(u), node.getG() + 1, x.getH());
                 }
+                if (duplicate)
+                {
+                    context.duplicate();
+                    continue;
+                }
+                pq.add(x);
+                context.queued();
             }
         }
         return null;
     }
 
     /**
-     * Enhanced A* search Implementation.
-     * Utilizes hash tables to implement optimizations in priority queue operations
-     * as well as eliminating the need for path occurrence checking (O(n) to O(1)) 
-     * efficiency boost.
-     * @param state the start state in the search.
-     * @return the solution vertex, if found. Null otherwise.
-     * @author jmacvey
+     * Runs an A* graph search with open and closed hash tables, reopening
+     * closed states when a shorter path to them is found.
+     *
+     * @param start the start state.
+     * @param context the bookkeeping of the search.
+     * @return the solution path, or null.
      */
-    public Vertex enhancedAStarSearch(Vertex state)
+    private List<State> enhancedAStar(State start, SearchContext context)
     {
-        initializePQ();
-        initializeHashMaps();
-        state.setDistance(0);
-        state.setPredecessor(null);
-        pq.add(state);
-        queueOps++;
-        queueSize++;
-        maxQueueSize = 1;
-        openHash.put((State) state, (State) state); // state is both value and key.
-        closedHash.clear();
+        StateIndexer indexer = getStateIndexer();
+        if (indexer != null)
+        {
+            DenseSearch dense = new DenseSearch(this, indexer);
+            List<State> path = dense.aStar(start);
+            addStatistics(dense, context);
+            return path;
+        }
+        IndexedBinaryHeap<SearchNode> pq = new IndexedBinaryHeap<>(SearchNode.F_ORDER);
+        HashMap<State, SearchNode> openHash = new HashMap<>();
+        HashMap<State, SearchNode> closedHash = new HashMap<>();
+        SearchTraceWriter trace = traceWriter;
+        SearchNode root = createNode(start, null);
+        pq.add(root);
+        context.queued();
+        openHash.put(start, root); // state is the key for its node.
         while (!pq.isEmpty())
         {
-            State u = (State) pq.remove();
-            openHash.remove((State) u);
-            queueOps++;
-            queueSize--;
+            SearchNode node = pq.remove();
+            State u = node.getState();
+            openHash.remove(u);
+            context.dequeued();
             // success story...
-            this.setCurrentState(u);
-            if (this.success())
+            if (success(u))
             {
-                pushSolutions((Vertex) u);
-                solutionLength = solutionStack.size();
-                return (Vertex) u;
-            } else
+                return path(node);
+            }
+            context.expanded(node.getG(), node.getF());
+            traceExpansion(trace, node);
+            int g = node.getG() + 1;
+            for (int i = 0; i < moves.size(); i++)
             {
-                for (Vertex ve : expand((Vertex) u, false))
+                State ve = successor(u, i);
+                if (ve == null)
                 {
-                    // case 1: vertex on the hash.
-                    if (openHash.containsKey((State)ve)) // scenario 1
-                    {
-                        // hash might code to same value,need to ensure equals
-                        Vertex x = (Vertex) openHash.get((State)ve);
-                        if (((State) x).equals((State) ve))
-                        {
-                            if (ve.getDistance() < x.getDistance())
-                            {
-                                openRediscoveries++;
-                                // x is on the PQ, so its already promoted.
-                                x.setDistance(ve.getDistance());
-                                x.setPredecessor(ve.getPredecessor());
-                                // promotion is done by removing and reinserting
-                                pq.remove(x);
-                                pq.add(x);
-                                queueOps += 2;
-                            }
-                        }
-                    } else if (closedHash.containsKey((State)ve)) // scenario 2
+                    continue;
+                }
+                context.generated();
+                SearchNode x = openHash.get(ve);
+                // case 1: vertex on the hash.
+                if (x != null) // scenario 1
+                {
+                    context.duplicate();
+                    if (g < x.getG())
                     {
-                        Vertex x = (Vertex) closedHash.get((State)ve);
-                        // might be false positive
-                        if (((State) x).equals((State) ve))
-                        {
-                            closedRediscoveries++;
-                         // case 1: distance now is less than distance before
-                            if (ve.getDistance() < x.getDistance())
-                            {
-                                x.setDistance(ve.getDistance());
-                                x.setPredecessor(ve.getPredecessor());
-                                // readd x to the queue and openHash
-                                pq.add(x);
-                                queueOps++;
-                                queueSize++;
-                                maxQueueSize = Math.max(queueSize, maxQueueSize);
-                                openHash.put((State)x, (State)x);
-                                // remove from closed
-                                closedHash.remove((State)x);
-                            }
-                        }
-                    } else // not contained on either closed or open
+                        context.openRediscovery(x.getG(), g);
+                        // x is on the PQ, so its already promoted.
+                        x.reparent(node, g);
+                        // promotion is done in place by the indexed heap
+                        pq.decreaseKey(x);
+                        context.requeued();
+                    }
+                } else if ((x = closedHash.get(ve)) != null) // scenario 2
+                {
+                    context.duplicate();
+                    context.closedRediscovery(x.getG(), g);
+                    // case 1: distance now is less than distance before
+                    if (g < x.getG())
                     {
-                        pq.add(ve);
-                        queueOps++;
-                        queueSize++;
-                        maxQueueSize = Math.max(queueSize, maxQueueSize);
-                        openHash.put((State)ve, (State)ve);
+                        x.reparent(node, g);
+                        // readd x to the queue and openHash
+                        pq.add(x);
+                        context.queued();
+                        openHash.put(x.getState(), x);
+                        // remove from closed
+                        closedHash.remove(x.getState());
                     }
-                } // end for
-                closedHash.put((State) u, (State) u);
-            }
+                } else // not contained on either closed or open
+                {
+                    x = createNode(ve, node);
+                    pq.add(x);
+                    context.queued();
+                    openHash.put(ve, x);
+                }
+                // x is now the node of ve, whichever case it fell under
+                if (trace != null)
+                {
+                    trace.append(SearchTraceWriter.GENERATED, traceKey(ve),
+                            traceKey(u), g, x.getH());
+                }
+            } // end for
+            closedHash.put(u, node);
         }
         return null;
     }
 
     /**
-     * initializes the priority queue.
+     * Runs a hash-distributed parallel A* search.
+     *
+     * @param start the start state.
+     * @param threadCount the number of worker threads.
+     * @param context the bookkeeping of the search.
+     * @return the solution path, or null.
+     */
+    private List<State> parallelAStar(State start, int threadCount,
+            SearchContext context)
+    {
+        ParallelAStarSearch hda = new ParallelAStarSearch(this, threadCount);
+        SearchNode goal = hda.search(start);
+        context.addQueueStatistics(hda.getQueueOps(), hda.getMaxQueueSize());
+        context.addNodeStatistics(hda.getGenerated(), hda.getDuplicates(),
+                hda.getPushes(), hda.getPops());
+        context.addRediscoveries(hda.getOpenRediscoveries(),
+                hda.getClosedRediscoveries());
+        context.setThreadExpansions(hda.getExpansions());
+        return goal == null ? null : path(goal);
+    }
+
+    /**
+     * Runs a bidirectional breadth-first search.
+     *
+     * @param start the start state.
+     * @param context the bookkeeping of the search.
+     * @return the solution path, or null.
+     */
+    private List<State> bidirectional(State start, SearchContext context)
+    {
+        BidirectionalSearch bfs = new BidirectionalSearch(this);
+        List<State> path = bfs.search(start, getGoalStates());
+        context.addQueueStatistics(bfs.getQueueOps(), bfs.getMaxQueueSize());
+        context.addNodeStatistics(bfs.getGenerated(), bfs.getDuplicates(),
+                bfs.getPushes(), bfs.getPops());
+        context.addExpansions(bfs.getExpansions());
+        return path;
+    }
+
+    /**
+     * Runs an iterative deepening search.
+     *
+     * @param start the start state.
+     * @param informed true for IDA*, false for depth-limited probes.
+     * @param context the bookkeeping of the search.
+     * @return the solution path, or null.
+     */
+    private List<State> iterativeDeepening(State start, boolean informed,
+            SearchContext context)
+    {
+        IterativeDeepeningSearch ida = new IterativeDeepeningSearch(this, informed);
+        List<State> path = ida.search(start);
+        context.addQueueStatistics(ida.getQueueOps(), ida.getMaxQueueSize());
+        context.addNodeStatistics(ida.getGenerated(), ida.getDuplicates(),
+                ida.getPushes(), ida.getPops());
+        context.addExpansions(ida.getExpansions());
+        context.setThresholds(ida.getThresholds());
+        return path;
+    }
+
+    /**
+     * Adds the statistics of a dense search to a search's bookkeeping.
+     *
+     * @param dense the dense search that was run.
+     * @param context the bookkeeping of the search.
+     */
+    private void addStatistics(DenseSearch dense, SearchContext context)
+    {
+        context.addQueueStatistics(dense.getQueueOps(), dense.getMaxQueueSize());
+        context.addNodeStatistics(dense.getGenerated(), dense.getDuplicates(),
+                dense.getPushes(), dense.getPops());
+        context.addRediscoveries(dense.getOpenRediscoveries(),
+                dense.getClosedRediscoveries());
+        context.addExpansions(dense.getExpansions());
+    }
+
+    /**
+     * Appends the expansion of a search node to a trace.
+     *
+     * @param trace the trace, or null if searches are not traced.
+     * @param node the expanded node.
      */
-    private void initializePQ()
+    private void traceExpansion(SearchTraceWriter trace, SearchNode node)
     {
-        pq = new PriorityQueue<>(PEQ_DEFAULT_CAPACITY, new Comparator<Vertex>()
+        if (trace != null)
         {
-            @Override
-            public int compare(Vertex v1, Vertex v2)
+            SearchNode parent = node.getParent();
+            trace.append(SearchTraceWriter.EXPANDED, traceKey(node.getState()),
+                    traceKey(parent == null ? null : parent.getState()),
+                    node.getG(), node.getH());
+        }
+    }
+
+    /**
+     * Gets the trace key of a state.
+     *
+     * @param state the state, or null.
+     * @return its key, or -1 for null.
+     */
+    private long traceKey(State state)
+    {
+        return SearchTraceWriter.key(getStateIndexer(), state);
+    }
+
+    /**
+     * Publishes the result of a search to the solution stack and counters of
+     * this problem, for the search methods that return a vertex.
+     *
+     * @param result the result of the search.
+     * @return the goal vertex, or null if no solution was found.
+     */
+    private Vertex publish(SearchResult result)
+    {
+        lastResult = result;
+        queueOps += result.getQueueOps();
+        maxQueueSize = Math.max(result.getMaxQueueSize(), maxQueueSize);
+        openRediscoveries += result.getOpenRediscoveries();
+        closedRediscoveries += result.getClosedRediscoveries();
+        threadExpansions = result.getThreadExpansions();
+        iterations = result.getIterations();
+        thresholds = result.getThresholds();
+        expansions = result.getExpansions();
+        if (!result.isSolved())
+        {
+            return null;
+        }
+        List<State> path = result.getPath();
+        for (int i = path.size() - 1; i >= 0; i--)
+        {
+            solutionStack.push((Vertex) path.get(i));
+        }
+        solutionLength = solutionStack.size();
+        setCurrentState(result.getGoal());
+        return (Vertex) result.getGoal();
+    }
+
+    /**
+     * Creates a search node for a newly generated state. The heuristic is
+     * computed here, once per node.
+     *
+     * @param state the generated state.
+     * @param parent the node the state was generated from (null for the root).
+     * @return the new node.
+     */
+    private SearchNode createNode(State state, SearchNode parent)
+    {
+        int g = (parent == null) ? 0 : parent.getG() + 1;
+        return new SearchNode(state, parent, g, getHeuristic(state));
+    }
+
+    /**
+     * Checks whether a state occurs on the path of the tree search leading to
+     * a vertex, the vertex included.
+     *
+     * @param state the state to check.
+     * @param vertex the last vertex of the path.
+     * @return true if the state is on the path.
+     */
+    private boolean occursOnPath(State state, PathVertex vertex)
+    {
+        for (PathVertex a = vertex; a != null; a = (PathVertex) a.getPredecessor())
+        {
+            if (state.equals(a.getState()))
             {
-                int h1 = ((State) v1).getHeuristic(finalState);
-                int d1 = v1.getDistance();
-                int h2 = ((State) v2).getHeuristic(finalState);
-                int d2 = v2.getDistance();
-                return (h1 + d1) - (h2 + d2);
+                return true;
             }
-        });
+        }
+        return false;
     }
 
     /**
-     * initializes the hashMaps for enhanced A* search.
+     * A vertex of the breadth- and depth-first search trees. The tree is built
+     * from these rather than from the states themselves, since a problem may
+     * hand out the same state object to many searches (see
+     * <b>StateIndexer</b>).
      */
-    private void initializeHashMaps()
+    private static final class PathVertex extends SimpleVertex
     {
-        openHash = new HashMap<>();
-        closedHash = new HashMap<>();
+
+        /**
+         * Creates a vertex for a state.
+         *
+         * @param state the state.
+         * @param predecessor the vertex of the state it was generated from,
+         * or null for the root.
+         */
+        PathVertex(State state, PathVertex predecessor)
+        {
+            this.state = state;
+            setPredecessor(predecessor);
+            setDistance(predecessor == null ? 0 : predecessor.getDistance() + 1);
+        }
+
+        /**
+         * Gets the state of this vertex.
+         *
+         * @return the state.
+         */
+        State getState()
+        {
+            return state;
+        }
+
+        /**
+         * The state of this vertex.
+         */
+        private final State state;
     }
 
     /**
-     * Creates a solution stack for the solution back to the root of the state
-     * space tree.
+     * Finds the node of a state on the path of search nodes leading to a
+     * node, the node included.
      *
-     * @param solution the solution state.
+     * @param state the state to find.
+     * @param node the last node of the path.
+     * @return the node of the state, or null if it is not on the path.
      */
-    private void pushSolutions(Vertex solution)
+    private SearchNode findOnPath(State state, SearchNode node)
     {
-        solutionStack.push(solution);
-        // 2nd test ensures the first state is not pushed on the stack
-        // first test guards against 2nd test nullException access.
-        if (solution.getPredecessor() != null
-                && solution.getPredecessor().getPredecessor() != null)
+        for (SearchNode a = node; a != null; a = a.getParent())
         {
-            pushSolutions(solution.getPredecessor()); // recursive call
+            if (state.equals(a.getState()))
+            {
+                return a;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Builds the solution path of the tree search leading to a vertex.
+     *
+     * @param solution the solution's vertex on the search tree.
+     * @return the states from the root (excluded) to the solution (included).
+     */
+    private List<State> path(PathVertex solution)
+    {
+        ArrayList<State> path = new ArrayList<>(solution.getDistance());
+        // the root is not on the path
+        for (PathVertex v = solution; v.getPredecessor() != null;
+                v = (PathVertex) v.getPredecessor())
+        {
+            path.add(v.getState());
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Builds the solution path from a goal node back to the root of the
+     * search tree, following the node parents.
+     *
+     * @param solution the goal node.
+     * @return the states from the root (excluded) to the goal (included).
+     */
+    private List<State> path(SearchNode solution)
+    {
+        ArrayList<State> path = new ArrayList<>(solution.getG());
+        // the root is not on the path
+        for (SearchNode node = solution; node.getParent() != null;
+                node = node.getParent())
+        {
+            path.add(node.getState());
         }
+        Collections.reverse(path);
+        return path;
     }
 
     /**
@@ -318,6 +1125,35 @@ public abstract class Problem
      */
     public abstract boolean success();
 
+    /**
+     * Determines whether a given state is a success without changing the
+     * current state of the problem. The search algorithms use this so that
+     * several threads may test states at once.
+     *
+     * The default implementation briefly swaps the state in as the current
+     * state under this problem's lock and calls <b>success()</b>. Extending
+     * classes whose success test only looks at the state should override this
+     * method to avoid the lock.
+     *
+     * @param state the state to test
+     * @return whether the state is a success
+     */
+    public boolean success(State state)
+    {
+        synchronized (this)
+        {
+            State saved = currentState;
+            currentState = state;
+            try
+            {
+                return success();
+            } finally
+            {
+                currentState = saved;
+            }
+        }
+    }
+
     /**
      * Gets the current state of the problem.
      *
@@ -397,6 +1233,45 @@ public abstract class Problem
         return closedRediscoveries;
     }
 
+    /**
+     * Gets the number of nodes expanded by each thread of the last parallel
+     * A* search.
+     * @return one expansion count per worker thread.
+     */
+    public int[] getThreadExpansions()
+    {
+        return threadExpansions.clone();
+    }
+
+    /**
+     * Gets the number of iterations run by the last iterative deepening
+     * search.
+     * @return the iteration count.
+     */
+    public int getIterations()
+    {
+        return iterations;
+    }
+
+    /**
+     * Gets the bound used by each iteration of the last iterative deepening
+     * search, in order.
+     * @return the per-iteration thresholds.
+     */
+    public List<Integer> getThresholds()
+    {
+        return new LinkedList<>(thresholds);
+    }
+
+    /**
+     * Gets the total number of nodes expanded by the last search.
+     * @return the number of expansions.
+     */
+    public int getExpansions()
+    {
+        return expansions;
+    }
+
     /**
      * Resets the counters for the search algorithms.
      */
@@ -405,11 +1280,14 @@ public abstract class Problem
         openRediscoveries = 0;
         closedRediscoveries = 0;
         solutionLength = 0;
-        queueSize = 0;
         maxQueueSize = 0;
         queueOps = 0;
+        threadExpansions = new int[0];
+        iterations = 0;
+        thresholds = new LinkedList<>();
+        expansions = 0;
         solutionStack.clear();
-        deq.clear();
+        lastResult = null;
     }
 
     /**
@@ -467,6 +1345,12 @@ public abstract class Problem
     public void setMoves(List<Move> moves)
     {
         this.moves = moves;
+        solutionOracle = null;
+        SolutionCache cache = solutionCache;
+        if (cache != null)
+        {
+            cache.clear();
+        }
     }
 
     /**
@@ -477,6 +1361,7 @@ public abstract class Problem
     public void setFinalState(State finalState)
     {
         this.finalState = finalState;
+        solutionOracle = null;
     }
 
     /**
@@ -635,29 +1520,78 @@ public abstract class Problem
     }
 
     /**
-     * The current state of this problem
+     * Weight of the heuristic for anytime weighted A* run by <b>solve</b>.
      */
-    private State currentState;
+    private static final double DEFAULT_WEIGHT = 2.0;
 
     /**
-     * The explanatory string for this problem.
+     * Number of states per layer kept by beam search run by <b>solve</b>.
      */
-    private String introduction;
+    private static final int DEFAULT_BEAM_WIDTH = 64;
 
     /**
-     * The list of moves for this problem.
+     * Deque adder for breadth-first search.
      */
-    private List<Move> moves;
+    private static final DequeAdder TAIL_ADDER = new DequeAdder()
+    {
+        @Override
+        public void add(Vertex vertex, Deque<Vertex> deque)
+        {
+            deque.addLast(vertex);
+        }
+    };
+
+    /**
+     * Deque adder for depth-first search.
+     */
+    private static final DequeAdder HEAD_ADDER = new DequeAdder()
+    {
+        @Override
+        public void add(Vertex vertex, Deque<Vertex> deque)
+        {
+            deque.addFirst(vertex);
+        }
+    };
+
+    /**
+     * The result of the last search published to this problem.
+     */
+    private volatile SearchResult lastResult;
+
+    /**
+     * The solution table, built on first use; null until then.
+     */
+    private volatile SolutionOracle solutionOracle;
+
+    /**
+     * The solution cache, or null.
+     */
+    private volatile SolutionCache solutionCache;
+
+    /**
+     * The search trace, or null.
+     */
+    private volatile SearchTraceWriter traceWriter;
+
+    /**
+     * The search monitor, or null.
+     */
+    private volatile SearchMonitor searchMonitor;
 
     /**
-     * a Dequeue interface for automated search algorithm.
+     * The current state of this problem
      */
-    private final LinkedList<Vertex> deq = new LinkedList<>();
+    private State currentState;
+
+    /**
+     * The explanatory string for this problem.
+     */
+    private String introduction;
 
     /**
-     * a Priority queue interface for automated search algorithms A*.
+     * The list of moves for this problem.
      */
-    private PriorityQueue<Vertex> pq;
+    private List<Move> moves;
 
     /**
      * a stack for user inquiry into solution state.
@@ -669,11 +1603,6 @@ public abstract class Problem
      */
     private int queueOps = 0;
 
-    /**
-     * # of items currently in the queue
-     */
-    private int queueSize = 0;
-
     /**
      * # of maximum items on the queue.
      */
@@ -690,9 +1619,24 @@ public abstract class Problem
     private int closedRediscoveries;
 
     /**
-     * Default capacity for number of items in priority quque
+     * # of nodes expanded per thread by the last parallel search.
      */
-    private final int PEQ_DEFAULT_CAPACITY = 1;
+    private int[] threadExpansions = new int[0];
+
+    /**
+     * # of iterations of the last iterative deepening search.
+     */
+    private int iterations;
+
+    /**
+     * bound of each iteration of the last iterative deepening search.
+     */
+    private List<Integer> thresholds = new LinkedList<>();
+
+    /**
+     * # of nodes expanded by the last search.
+     */
+    private int expansions;
 
     /**
      * length of the solution
@@ -730,16 +1674,6 @@ public abstract class Problem
      */
     private LinkedList<Integer> moveCounts = new LinkedList<>();
 
-    /**
-     * Hashtable containing open states on the priority queue.
-     */
-    private HashMap<State, State> openHash;
-
-    /**
-     * Hashtable containing closed states on the priority queue.
-     */
-    private HashMap<State, State> closedHash;
-
     /**
      * Flag to see if this problem has multiple starting points.
      */
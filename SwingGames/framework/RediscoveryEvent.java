@@ -0,0 +1,64 @@
+package framework;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for an open or closed rediscovery: a state
+ * generated again by a search that keeps open and closed states.
+ *
+ * The event is disabled by default; it is turned on with the
+ * <b>framework.Rediscovery</b> setting of a recording.
+ *
+ * @author jmacvey
+ */
+@Name("framework.Rediscovery")
+@Label("Rediscovery")
+@Category("Search")
+@Description("A state generated again by a search")
+@StackTrace(false)
+@Enabled(false)
+final class RediscoveryEvent extends jdk.jfr.Event
+{
+
+    /**
+     * Records a rediscovery if the event is enabled.
+     *
+     * @param closed true if the state was closed, false if it was open.
+     * @param oldCost the path cost known before.
+     * @param newCost the path cost of the new path.
+     */
+    static void emit(boolean closed, int oldCost, int newCost)
+    {
+        RediscoveryEvent event = new RediscoveryEvent();
+        if (event.shouldCommit())
+        {
+            event.closed = closed;
+            event.oldCost = oldCost;
+            event.newCost = newCost;
+            event.commit();
+        }
+    }
+
+    /**
+     * Whether the state was closed.
+     */
+    @Label("Closed")
+    boolean closed;
+
+    /**
+     * The path cost known before.
+     */
+    @Label("Old Cost")
+    int oldCost;
+
+    /**
+     * The path cost of the new path.
+     */
+    @Label("New Cost")
+    int newCost;
+}
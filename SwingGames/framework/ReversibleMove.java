@@ -0,0 +1,25 @@
+package framework;
+
+import java.util.List;
+
+/**
+ * An optional capability of a <b>Move</b>: generating predecessor states.
+ *
+ * A move implementing this interface can be applied backwards, which lets
+ * search algorithms work from the goal towards the start (for example
+ * <b>Problem.bidirectionalSearch</b>). The predecessors of a state under a move
+ * are all states on which <b>doMove</b> would produce that state.
+ *
+ * @author jmacvey
+ */
+public interface ReversibleMove
+{
+
+    /**
+     * Generates every state from which this move leads to the given state.
+     *
+     * @param state the state reached by this move.
+     * @return the predecessor states; an empty list if there are none.
+     */
+    List<State> undoMove(State state);
+}
@@ -0,0 +1,80 @@
+package framework;
+
+/**
+ * The search algorithms a <b>Problem</b> can be solved with.
+ *
+ * @author jmacvey
+ */
+public enum SearchAlgorithm
+{
+
+    /**
+     * Breadth-first search; finds a shortest solution.
+     */
+    BREADTH_FIRST("Breadth-First"),
+    /**
+     * Depth-first search; finds some solution.
+     */
+    DEPTH_FIRST("Depth-First"),
+    /**
+     * A* tree search with path occurrence checks.
+     */
+    A_STAR("Regular A*"),
+    /**
+     * A* graph search with open and closed tables.
+     */
+    ENHANCED_A_STAR("Enhanced A*"),
+    /**
+     * Hash-distributed parallel A* on one thread per available processor.
+     */
+    PARALLEL_A_STAR("Parallel A*"),
+    /**
+     * Bidirectional breadth-first search; needs reversible moves.
+     */
+    BIDIRECTIONAL("Bidirectional"),
+    /**
+     * Iterative-deepening A*.
+     */
+    ITERATIVE_DEEPENING_A_STAR("IDA*"),
+    /**
+     * Iterative-deepening depth-first search.
+     */
+    ITERATIVE_DEEPENING("Iterative Deepening"),
+    /**
+     * Anytime weighted A* run to the end, with the default weight.
+     */
+    ANYTIME_WEIGHTED_A_STAR("Anytime Weighted A*"),
+    /**
+     * Breadth-first beam search with the default width.
+     */
+    BEAM("Beam Search"),
+    /**
+     * A walk through the problem's solution table; needs reversible moves.
+     */
+    SOLUTION_TABLE("Solution Table");
+
+    /**
+     * Creates an algorithm constant.
+     *
+     * @param displayName the name shown to users.
+     */
+    private SearchAlgorithm(String displayName)
+    {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Gets the name of the algorithm as shown to users.
+     *
+     * @return the display name.
+     */
+    public String getDisplayName()
+    {
+        return displayName;
+    }
+
+    /**
+     * The name shown to users.
+     */
+    private final String displayName;
+}
@@ -0,0 +1,366 @@
+package framework;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The bookkeeping of one search run.
+ *
+ * Every call of a search method on <b>Problem</b> gets its own context, so the
+ * counters of one search are never mixed with another's and any number of
+ * searches may run on the same problem at once. When the search is over the
+ * context is turned into an immutable <b>SearchResult</b>.
+ *
+ * @author jmacvey
+ */
+final class SearchContext
+{
+
+    /**
+     * Creates the context of a search.
+     *
+     * @param algorithm the algorithm being run, or null for a breadth- or
+     * depth-first search with a caller's deque adder.
+     * @param monitor the monitor to report expansions to, or null.
+     */
+    SearchContext(SearchAlgorithm algorithm, SearchMonitor monitor)
+    {
+        this.algorithm = algorithm;
+        this.monitor = monitor;
+        this.startNanos = System.nanoTime();
+        event.begin();
+    }
+
+    /**
+     * Gets the algorithm being run.
+     *
+     * @return the algorithm, or null.
+     */
+    SearchAlgorithm getAlgorithm()
+    {
+        return algorithm;
+    }
+
+    /**
+     * Counts a state put on the queue.
+     */
+    void queued()
+    {
+        queueOps++;
+        pushes++;
+        queueSize++;
+        maxQueueSize = Math.max(queueSize, maxQueueSize);
+    }
+
+    /**
+     * Counts a state taken off the queue.
+     */
+    void dequeued()
+    {
+        queueOps++;
+        pops++;
+        queueSize--;
+    }
+
+    /**
+     * Counts a queue operation that does not change the queue's size, such
+     * as promoting a state.
+     */
+    void requeued()
+    {
+        queueOps++;
+    }
+
+    /**
+     * Counts a state generated by a move.
+     */
+    void generated()
+    {
+        generated++;
+    }
+
+    /**
+     * Counts a generated state that was already known to the search.
+     */
+    void duplicate()
+    {
+        duplicates++;
+    }
+
+    /**
+     * Counts an expanded state, samples it for the flight recorder and
+     * reports it to the search monitor.
+     *
+     * @param depth the path cost of the expanded node.
+     * @param f the f value of the node.
+     * @throws java.util.concurrent.CancellationException if the search has
+     * been cancelled.
+     */
+    void expanded(int depth, int f)
+    {
+        expansions++;
+        ExpansionEvent.emit(expansions, depth, f, queueSize);
+        if (monitor != null)
+        {
+            monitor.expanded(expansions, queueSize);
+        }
+    }
+
+    /**
+     * Counts a shorter path found to an open state.
+     *
+     * @param oldCost the path cost known before.
+     * @param newCost the path cost of the new path.
+     */
+    void openRediscovery(int oldCost, int newCost)
+    {
+        openRediscoveries++;
+        RediscoveryEvent.emit(false, oldCost, newCost);
+    }
+
+    /**
+     * Counts a closed state generated again.
+     *
+     * @param oldCost the path cost known before.
+     * @param newCost the path cost of the new path.
+     */
+    void closedRediscovery(int oldCost, int newCost)
+    {
+        closedRediscoveries++;
+        RediscoveryEvent.emit(true, oldCost, newCost);
+    }
+
+    /**
+     * Adds the queue statistics of a search engine that keeps its own.
+     *
+     * @param ops the engine's queue operations.
+     * @param maxSize the engine's maximum queue size.
+     */
+    void addQueueStatistics(int ops, int maxSize)
+    {
+        queueOps += ops;
+        maxQueueSize = Math.max(maxSize, maxQueueSize);
+    }
+
+    /**
+     * Adds the node statistics of a search engine that keeps its own.
+     *
+     * @param generatedCount the engine's states generated.
+     * @param duplicateCount the engine's duplicate states.
+     * @param pushCount the engine's queue pushes.
+     * @param popCount the engine's queue pops.
+     */
+    void addNodeStatistics(int generatedCount, int duplicateCount,
+            int pushCount, int popCount)
+    {
+        generated += generatedCount;
+        duplicates += duplicateCount;
+        pushes += pushCount;
+        pops += popCount;
+    }
+
+    /**
+     * Adds the rediscoveries of a search engine that keeps its own.
+     *
+     * @param open the engine's open rediscoveries.
+     * @param closed the engine's closed rediscoveries.
+     */
+    void addRediscoveries(int open, int closed)
+    {
+        openRediscoveries += open;
+        closedRediscoveries += closed;
+    }
+
+    /**
+     * Adds the expansions of a search engine that keeps its own.
+     *
+     * @param count the engine's expansions.
+     */
+    void addExpansions(int count)
+    {
+        expansions += count;
+    }
+
+    /**
+     * Records the expansions of each thread of a parallel search, and adds
+     * them to the total.
+     *
+     * @param perThread one expansion count per thread.
+     */
+    void setThreadExpansions(int[] perThread)
+    {
+        threadExpansions = perThread.clone();
+        for (int count : perThread)
+        {
+            expansions += count;
+        }
+    }
+
+    /**
+     * Records the iterations of an iterative deepening search.
+     *
+     * @param bounds the bound of each iteration, in order.
+     */
+    void setThresholds(List<Integer> bounds)
+    {
+        thresholds = new ArrayList<>(bounds);
+    }
+
+    /**
+     * Counts a node pruned without being expanded.
+     */
+    void pruned()
+    {
+        prunedCount++;
+    }
+
+    /**
+     * Records a proven lower bound on the cost of an optimal solution.
+     *
+     * @param bound the lower bound.
+     */
+    void setLowerBound(int bound)
+    {
+        lowerBound = bound;
+    }
+
+    /**
+     * Records that a deadline or a budget stopped the search before it was
+     * done.
+     */
+    void stoppedEarly()
+    {
+        stoppedEarly = true;
+    }
+
+    /**
+     * Finishes the search, and adds its statistics to the totals of
+     * <b>SolverMetrics</b>.
+     *
+     * @param start the start state.
+     * @param path the states from the start (excluded) to the goal
+     * (included), or null if no solution was found.
+     * @return the result.
+     */
+    SearchResult toResult(State start, List<State> path)
+    {
+        SearchStatistics statistics = new SearchStatistics(generated,
+                expansions, duplicates, prunedCount, pushes, pops, queueOps,
+                maxQueueSize, openRediscoveries, closedRediscoveries,
+                System.nanoTime() - startNanos,
+                path == null ? -1 : path.size());
+        SearchResult result = new SearchResult(algorithm, start, path,
+                statistics, thresholds, threadExpansions, lowerBound,
+                stoppedEarly);
+        SolverMetrics.getInstance().record(result);
+        event.end();
+        if (event.shouldCommit())
+        {
+            event.algorithm = (algorithm == null) ? "Custom"
+                    : algorithm.getDisplayName();
+            event.startState = String.valueOf(start);
+            event.solved = result.isSolved();
+            event.solutionLength = result.getSolutionLength();
+            event.generated = statistics.getGenerated();
+            event.expanded = statistics.getExpanded();
+            event.peakFrontier = statistics.getPeakFrontier();
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * The algorithm being run.
+     */
+    private final SearchAlgorithm algorithm;
+
+    /**
+     * The monitor expansions are reported to, or null.
+     */
+    private final SearchMonitor monitor;
+
+    /**
+     * System.nanoTime() when the search started.
+     */
+    private final long startNanos;
+
+    /**
+     * The flight recorder event spanning the search.
+     */
+    private final SearchEvent event = new SearchEvent();
+
+    /**
+     * # of queue operations.
+     */
+    private int queueOps;
+
+    /**
+     * # of items currently in the queue.
+     */
+    private int queueSize;
+
+    /**
+     * # of maximum items on the queue.
+     */
+    private int maxQueueSize;
+
+    /**
+     * # of open rediscoveries.
+     */
+    private int openRediscoveries;
+
+    /**
+     * # of closed rediscoveries.
+     */
+    private int closedRediscoveries;
+
+    /**
+     * # of states expanded.
+     */
+    private int expansions;
+
+    /**
+     * bound of each iteration of an iterative deepening search.
+     */
+    private List<Integer> thresholds = new ArrayList<>();
+
+    /**
+     * # of states expanded by each thread of a parallel search.
+     */
+    private int[] threadExpansions = new int[0];
+
+    /**
+     * # of nodes pruned.
+     */
+    private int prunedCount;
+
+    /**
+     * # of states put on the queue.
+     */
+    private int pushes;
+
+    /**
+     * # of states taken off the queue.
+     */
+    private int pops;
+
+    /**
+     * # of states generated.
+     */
+    private int generated;
+
+    /**
+     * # of duplicate states generated.
+     */
+    private int duplicates;
+
+    /**
+     * proven lower bound on the optimal solution cost, or -1.
+     */
+    private int lowerBound = -1;
+
+    /**
+     * whether a deadline or a budget stopped the search.
+     */
+    private boolean stoppedEarly;
+}
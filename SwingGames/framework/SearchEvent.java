@@ -0,0 +1,71 @@
+package framework;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Java Flight Recorder event spanning one search, from the creation of its
+ * context to its result.
+ *
+ * The event is enabled by default with a threshold of 10 ms, so a recording
+ * holds the slow searches only; the threshold and the event itself are
+ * controlled by the <b>framework.Search</b> setting of the recording, like
+ * any JDK event.
+ *
+ * @author jmacvey
+ */
+@Name("framework.Search")
+@Label("Search")
+@Category("Search")
+@Description("A search run by a problem, from start to result")
+@StackTrace(false)
+@Threshold("10 ms")
+final class SearchEvent extends jdk.jfr.Event
+{
+
+    /**
+     * The display name of the algorithm.
+     */
+    @Label("Algorithm")
+    String algorithm;
+
+    /**
+     * The start state, as text.
+     */
+    @Label("Start State")
+    String startState;
+
+    /**
+     * Whether a solution was found.
+     */
+    @Label("Solved")
+    boolean solved;
+
+    /**
+     * The length of the solution, or -1.
+     */
+    @Label("Solution Length")
+    int solutionLength;
+
+    /**
+     * The number of states generated.
+     */
+    @Label("Generated")
+    int generated;
+
+    /**
+     * The number of states expanded.
+     */
+    @Label("Expanded")
+    int expanded;
+
+    /**
+     * The largest queue size.
+     */
+    @Label("Peak Frontier")
+    int peakFrontier;
+}
@@ -0,0 +1,89 @@
+package framework;
+
+/**
+ * One instance of a problem to solve: a start state and, optionally, a single
+ * goal state.
+ *
+ * An instance without a goal state is solved against the problem's own
+ * <b>success</b> test. Instances are immutable and are compared by value.
+ *
+ * @author jmacvey
+ */
+public final class SearchInstance
+{
+
+    /**
+     * Creates an instance.
+     *
+     * @param start the start state.
+     * @param goal the goal state, or null for the problem's own goal.
+     */
+    public SearchInstance(State start, State goal)
+    {
+        if (start == null)
+        {
+            throw new IllegalArgumentException("an instance needs a start state");
+        }
+        this.start = start;
+        this.goal = goal;
+    }
+
+    /**
+     * Gets the start state.
+     *
+     * @return the start state.
+     */
+    public State getStart()
+    {
+        return start;
+    }
+
+    /**
+     * Gets the goal state.
+     *
+     * @return the goal state, or null for the problem's own goal.
+     */
+    public State getGoal()
+    {
+        return goal;
+    }
+
+    /**
+     * Two instances are equal if their start and goal states are equal.
+     *
+     * @param other the object to test against this instance.
+     * @return whether the instances are equal.
+     */
+    @Override
+    public boolean equals(Object other)
+    {
+        if (!(other instanceof SearchInstance))
+        {
+            return false;
+        }
+        SearchInstance that = (SearchInstance) other;
+        return start.equals(that.start)
+                && (goal == null ? that.goal == null : goal.equals(that.goal));
+    }
+
+    /**
+     * Hash code consistent with <b>equals</b>.
+     *
+     * @return the hash code.
+     */
+    @Override
+    public int hashCode()
+    {
+        return 31 * start.hashCode() + (goal == null ? 0 : goal.hashCode());
+    }
+
+    /**
+     * The start state.
+     */
+    private final State start;
+
+    /**
+     * The goal state, or null.
+     */
+    private final State goal;
+}
@@ -0,0 +1,132 @@
+package framework;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Watches a search running on another thread: how far it has got, and
+ * whether it should stop.
+ *
+ * A monitor is set on a problem with <b>Problem.setSearchMonitor</b> before a
+ * search starts. Every search engine then reports its expansions to it, and
+ * every CHECK_INTERVAL expansions the monitor publishes the number of states
+ * expanded and the size of the frontier, and checks for cancellation. Once
+ * <b>cancel</b> has been called, the search ends at its next check by throwing
+ * a <b>CancellationException</b> out of the search method, leaving the problem
+ * as it was.
+ *
+ * The getters may be called from any thread, for example by a timer on the
+ * Event Dispatch Thread that shows the progress of the search.
+ *
+ * @author jmacvey
+ */
+public final class SearchMonitor
+{
+
+    /**
+     * Creates a monitor. The elapsed time is measured from now.
+     */
+    public SearchMonitor()
+    {
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Asks the search to stop at its next check.
+     */
+    public void cancel()
+    {
+        cancelled = true;
+    }
+
+    /**
+     * Tells whether the search has been asked to stop.
+     *
+     * @return true if <b>cancel</b> has been called.
+     */
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    /**
+     * Gets the number of states expanded, as of the last check. For a
+     * parallel search this is the count of the worker that checked last.
+     *
+     * @return the number of expansions.
+     */
+    public long getExpansions()
+    {
+        return expansions;
+    }
+
+    /**
+     * Gets the size of the frontier, as of the last check.
+     *
+     * @return the number of states on the queue.
+     */
+    public int getFrontierSize()
+    {
+        return frontierSize;
+    }
+
+    /**
+     * Gets the time since the monitor was created.
+     *
+     * @return the elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos()
+    {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Reports an expansion. Every CHECK_INTERVAL expansions the progress is
+     * published and the search is stopped if it has been cancelled.
+     *
+     * @param count the number of states the engine has expanded so far.
+     * @param frontier the current size of the engine's frontier.
+     * @throws CancellationException if the search has been cancelled.
+     */
+    void expanded(int count, int frontier)
+    {
+        if ((count & (CHECK_INTERVAL - 1)) != 0)
+        {
+            return;
+        }
+        expansions = count;
+        frontierSize = frontier;
+        if (cancelled)
+        {
+            throw new CancellationException("search cancelled after "
+                    + count + " expansions");
+        }
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Helper Methods and Instance Fields
+    //--------------------------------------------------------------------------
+    /**
+     * Number of expansions between checks; a power of two.
+     */
+    static final int CHECK_INTERVAL = 256;
+
+    /**
+     * When the monitor was created.
+     */
+    private final long startNanos;
+
+    /**
+     * Whether the search has been asked to stop.
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * # of states expanded at the last check.
+     */
+    private volatile long expansions;
+
+    /**
+     * frontier size at the last check.
+     */
+    private volatile int frontierSize;
+}
@@ -0,0 +1,155 @@
+package framework;
+
+import java.util.Comparator;
+
+/**
+ * A node on the priority queue of the A* search algorithms.
+ *
+ * A node wraps a state together with its path cost from the root (g), its
+ * heuristic estimate to the goal (h) and their sum (f). The heuristic is
+ * computed exactly once, when the node is generated, so that comparing two
+ * nodes on the priority queue only reads cached primitive values. When a
+ * shorter path to the node is found the node is re-parented, which updates g
+ * and f but keeps the cached h. Nodes also remember their slot on the
+ * indexed priority queue so that a re-parented node can be promoted in place.
+ *
+ * @author jmacvey
+ */
+final class SearchNode implements IndexedBinaryHeap.Entry
+{
+
+    /**
+     * Creates a new search node.
+     *
+     * @param state the state held by this node.
+     * @param parent the node this node was generated from (null for the root).
+     * @param g the path cost from the root to this node.
+     * @param h the heuristic estimate from this node to the goal.
+     */
+    SearchNode(State state, SearchNode parent, int g, int h)
+    {
+        this.state = state;
+        this.parent = parent;
+        this.g = g;
+        this.h = h;
+        this.f = g + h;
+    }
+
+    /**
+     * Gets the state held by this node.
+     *
+     * @return the state.
+     */
+    State getState()
+    {
+        return state;
+    }
+
+    /**
+     * Gets the node this node was generated from.
+     *
+     * @return the parent node, or null if this node is the root.
+     */
+    SearchNode getParent()
+    {
+        return parent;
+    }
+
+    /**
+     * Gets the path cost from the root to this node.
+     *
+     * @return g
+     */
+    int getG()
+    {
+        return g;
+    }
+
+    /**
+     * Gets the cached heuristic estimate for this node.
+     *
+     * @return h
+     */
+    int getH()
+    {
+        return h;
+    }
+
+    /**
+     * Gets the cached sum of path cost and heuristic estimate.
+     *
+     * @return f = g + h
+     */
+    int getF()
+    {
+        return f;
+    }
+
+    /**
+     * Moves this node under a new parent after a shorter path to it has been
+     * found. The heuristic does not depend on the path, so only g and f change.
+     *
+     * @param parent the new parent node.
+     * @param g the new (smaller) path cost.
+     */
+    void reparent(SearchNode parent, int g)
+    {
+        this.parent = parent;
+        this.g = g;
+        this.f = g + h;
+    }
+
+    @Override
+    public int getHeapIndex()
+    {
+        return heapIndex;
+    }
+
+    @Override
+    public void setHeapIndex(int heapIndex)
+    {
+        this.heapIndex = heapIndex;
+    }
+
+    /**
+     * Orders nodes by their cached f value only.
+     */
+    static final Comparator<SearchNode> F_ORDER = new Comparator<SearchNode>()
+    {
+        @Override
+        public int compare(SearchNode n1, SearchNode n2)
+        {
+            return Integer.compare(n1.f, n2.f);
+        }
+    };
+
+    /**
+     * The state held by this node.
+     */
+    private final State state;
+
+    /**
+     * The parent of this node in the search tree.
+     */
+    private SearchNode parent;
+
+    /**
+     * Path cost from the root.
+     */
+    private int g;
+
+    /**
+     * Heuristic estimate to the goal, computed once at generation.
+     */
+    private final int h;
+
+    /**
+     * g + h
+     */
+    private int f;
+
+    /**
+     * Slot of this node on the indexed priority queue (0 when not queued).
+     */
+    private int heapIndex;
+}
@@ -0,0 +1,310 @@
+package framework;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of one search: the solution path, if any, and the statistics
+ * of the search that found it.
+ *
+ * Results are immutable and are returned by <b>Problem.solve</b>, so they can
+ * be kept and shared between threads freely.
+ *
+ * @author jmacvey
+ */
+public final class SearchResult
+{
+
+    /**
+     * Creates a search result.
+     *
+     * @param algorithm the algorithm that was run, or null.
+     * @param start the start state.
+     * @param path the states from the start (excluded) to the goal
+     * (included), or null if no solution was found.
+     * @param statistics the statistics of the search.
+     * @param thresholds the bound of each iterative deepening iteration.
+     * @param threadExpansions the expansions of each parallel search thread.
+     * @param lowerBound a proven lower bound on the optimal solution cost, or
+     * -1.
+     * @param stoppedEarly whether a deadline or a budget stopped the search.
+     */
+    SearchResult(SearchAlgorithm algorithm, State start, List<State> path,
+            SearchStatistics statistics, List<Integer> thresholds,
+            int[] threadExpansions, int lowerBound, boolean stoppedEarly)
+    {
+        this.algorithm = algorithm;
+        this.start = start;
+        this.path = (path == null) ? null
+                : Collections.unmodifiableList(new ArrayList<>(path));
+        this.statistics = statistics;
+        this.thresholds = Collections.unmodifiableList(
+                new ArrayList<>(thresholds));
+        this.threadExpansions = threadExpansions.clone();
+        this.lowerBound = lowerBound;
+        this.stoppedEarly = stoppedEarly;
+    }
+
+    /**
+     * Gets the algorithm that was run.
+     *
+     * @return the algorithm, or null for a breadth- or depth-first search
+     * run with a caller's deque adder.
+     */
+    public SearchAlgorithm getAlgorithm()
+    {
+        return algorithm;
+    }
+
+    /**
+     * Gets the state the search started from.
+     *
+     * @return the start state.
+     */
+    public State getStart()
+    {
+        return start;
+    }
+
+    /**
+     * Tells whether a solution was found.
+     *
+     * @return true if there is a solution path.
+     */
+    public boolean isSolved()
+    {
+        return path != null;
+    }
+
+    /**
+     * Gets the goal state reached.
+     *
+     * @return the last state of the solution (the start if it is a goal
+     * itself), or null if no solution was found.
+     */
+    public State getGoal()
+    {
+        if (path == null)
+        {
+            return null;
+        }
+        return path.isEmpty() ? start : path.get(path.size() - 1);
+    }
+
+    /**
+     * Gets the solution path.
+     *
+     * @return the states from the start (excluded) to the goal (included), or
+     * null if no solution was found.
+     */
+    public List<State> getPath()
+    {
+        return path;
+    }
+
+    /**
+     * Gets the length of the solution.
+     *
+     * @return the number of moves, or -1 if no solution was found.
+     */
+    public int getSolutionLength()
+    {
+        return path == null ? -1 : path.size();
+    }
+
+    /**
+     * Gets the statistics of the search.
+     *
+     * @return the statistics.
+     */
+    public SearchStatistics getStatistics()
+    {
+        return statistics;
+    }
+
+    /**
+     * Gets the number of queue operations of the search.
+     *
+     * @return the number of queue operations.
+     */
+    public int getQueueOps()
+    {
+        return statistics.getQueueOps();
+    }
+
+    /**
+     * Gets the largest number of states queued at once.
+     *
+     * @return the maximum queue size.
+     */
+    public int getMaxQueueSize()
+    {
+        return statistics.getPeakFrontier();
+    }
+
+    /**
+     * Gets the number of shorter paths found to open states.
+     *
+     * @return the number of open rediscoveries.
+     */
+    public int getOpenRediscoveries()
+    {
+        return statistics.getOpenRediscoveries();
+    }
+
+    /**
+     * Gets the number of closed states generated again.
+     *
+     * @return the number of closed rediscoveries.
+     */
+    public int getClosedRediscoveries()
+    {
+        return statistics.getClosedRediscoveries();
+    }
+
+    /**
+     * Gets the number of states expanded.
+     *
+     * @return the number of expansions.
+     */
+    public int getExpansions()
+    {
+        return statistics.getExpanded();
+    }
+
+    /**
+     * Gets the number of iterations of an iterative deepening search.
+     *
+     * @return the number of iterations, or 0 for other searches.
+     */
+    public int getIterations()
+    {
+        return thresholds.size();
+    }
+
+    /**
+     * Gets the bound of each iteration of an iterative deepening search.
+     *
+     * @return the bounds in order; empty for other searches.
+     */
+    public List<Integer> getThresholds()
+    {
+        return thresholds;
+    }
+
+    /**
+     * Gets the number of states expanded by each thread of a parallel search.
+     *
+     * @return one count per thread; empty for other searches.
+     */
+    public int[] getThreadExpansions()
+    {
+        return threadExpansions.clone();
+    }
+
+    /**
+     * Gets the number of nodes dropped without being expanded by a search
+     * that prunes, such as beam search.
+     *
+     * @return the number of nodes pruned.
+     */
+    public int getPrunedCount()
+    {
+        return statistics.getPruned();
+    }
+
+    /**
+     * Tells whether the solution is proven optimal, that is, its length
+     * equals the proven lower bound.
+     *
+     * @return true if the solution is proven optimal; false if there is no
+     * solution, no lower bound, or a gap between the two.
+     */
+    public boolean isProvenOptimal()
+    {
+        return path != null && lowerBound == path.size();
+    }
+
+    /**
+     * Gets the proven lower bound on the cost of an optimal solution, for
+     * searches that report one.
+     *
+     * @return the lower bound, or -1 if the search reports none.
+     */
+    public int getLowerBound()
+    {
+        return lowerBound;
+    }
+
+    /**
+     * Gets how far the solution may be from optimal: its length divided by
+     * the proven lower bound.
+     *
+     * @return the bound, 1 if the solution is proven optimal, infinite if no
+     * solution was found, or NaN if the search reports no lower bound.
+     */
+    public double getSuboptimalityBound()
+    {
+        if (path == null)
+        {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (lowerBound < 0)
+        {
+            return Double.NaN;
+        }
+        return lowerBound == 0 ? 1.0 : (double) path.size() / lowerBound;
+    }
+
+    /**
+     * Tells whether a deadline or a budget stopped the search before it was
+     * done. The solution, if any, is then the best found in time.
+     *
+     * @return true if the search was stopped early.
+     */
+    public boolean isStoppedEarly()
+    {
+        return stoppedEarly;
+    }
+
+    /**
+     * The algorithm that was run.
+     */
+    private final SearchAlgorithm algorithm;
+
+    /**
+     * The start state.
+     */
+    private final State start;
+
+    /**
+     * The solution path, or null.
+     */
+    private final List<State> path;
+
+    /**
+     * The statistics of the search.
+     */
+    private final SearchStatistics statistics;
+
+    /**
+     * bound of each iterative deepening iteration.
+     */
+    private final List<Integer> thresholds;
+
+    /**
+     * # of states expanded by each parallel search thread.
+     */
+    private final int[] threadExpansions;
+
+    /**
+     * proven lower bound on the optimal solution cost, or -1.
+     */
+    private final int lowerBound;
+
+    /**
+     * whether a deadline or a budget stopped the search.
+     */
+    private final boolean stoppedEarly;
+}
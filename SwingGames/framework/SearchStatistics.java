@@ -0,0 +1,292 @@
+package framework;
+
+/**
+ * The statistics of one search: how many states it generated, expanded and
+ * discarded, how it used its queue, and how long it took.
+ *
+ * Statistics are immutable and come with every <b>SearchResult</b>. The same
+ * counts are added to the totals of <b>SolverMetrics</b> when a search ends.
+ *
+ * @author jmacvey
+ */
+public final class SearchStatistics
+{
+
+    /**
+     * Creates the statistics of a search.
+     *
+     * @param generated the number of states generated by the moves.
+     * @param expanded the number of states expanded.
+     * @param duplicates the number of generated states already known.
+     * @param pruned the number of nodes pruned.
+     * @param pushes the number of states put on the queue.
+     * @param pops the number of states taken off the queue.
+     * @param queueOps the number of queue operations.
+     * @param peakFrontier the largest queue size.
+     * @param openRediscoveries the number of open rediscoveries.
+     * @param closedRediscoveries the number of closed rediscoveries.
+     * @param wallTimeNanos the elapsed time of the search in nanoseconds.
+     * @param solutionLength the length of the solution, or -1.
+     */
+    SearchStatistics(int generated, int expanded, int duplicates, int pruned,
+            int pushes, int pops, int queueOps, int peakFrontier,
+            int openRediscoveries, int closedRediscoveries, long wallTimeNanos,
+            int solutionLength)
+    {
+        this.generated = generated;
+        this.expanded = expanded;
+        this.duplicates = duplicates;
+        this.pruned = pruned;
+        this.pushes = pushes;
+        this.pops = pops;
+        this.queueOps = queueOps;
+        this.peakFrontier = peakFrontier;
+        this.openRediscoveries = openRediscoveries;
+        this.closedRediscoveries = closedRediscoveries;
+        this.wallTimeNanos = wallTimeNanos;
+        this.solutionLength = solutionLength;
+    }
+
+    /**
+     * Gets the number of states generated by the moves, duplicates
+     * included.
+     *
+     * @return the number of states generated.
+     */
+    public int getGenerated()
+    {
+        return generated;
+    }
+
+    /**
+     * Gets the number of states expanded.
+     *
+     * @return the number of expansions.
+     */
+    public int getExpanded()
+    {
+        return expanded;
+    }
+
+    /**
+     * Gets the number of generated states that were already known to the
+     * search: on the current path, seen, open or closed, depending on the
+     * algorithm.
+     *
+     * @return the number of duplicates.
+     */
+    public int getDuplicates()
+    {
+        return duplicates;
+    }
+
+    /**
+     * Gets the number of nodes dropped without being expanded by a search
+     * that prunes.
+     *
+     * @return the number of nodes pruned.
+     */
+    public int getPruned()
+    {
+        return pruned;
+    }
+
+    /**
+     * Gets the number of states put on the queue.
+     *
+     * @return the number of pushes.
+     */
+    public int getPushes()
+    {
+        return pushes;
+    }
+
+    /**
+     * Gets the number of states taken off the queue.
+     *
+     * @return the number of pops.
+     */
+    public int getPops()
+    {
+        return pops;
+    }
+
+    /**
+     * Gets the number of queue operations: pushes, pops and promotions in
+     * place.
+     *
+     * @return the number of queue operations.
+     */
+    public int getQueueOps()
+    {
+        return queueOps;
+    }
+
+    /**
+     * Gets the largest number of states queued at once.
+     *
+     * @return the peak frontier size.
+     */
+    public int getPeakFrontier()
+    {
+        return peakFrontier;
+    }
+
+    /**
+     * Gets the number of shorter paths found to open states.
+     *
+     * @return the number of open rediscoveries.
+     */
+    public int getOpenRediscoveries()
+    {
+        return openRediscoveries;
+    }
+
+    /**
+     * Gets the number of closed states generated again.
+     *
+     * @return the number of closed rediscoveries.
+     */
+    public int getClosedRediscoveries()
+    {
+        return closedRediscoveries;
+    }
+
+    /**
+     * Gets the elapsed time of the search.
+     *
+     * @return the wall time in nanoseconds.
+     */
+    public long getWallTimeNanos()
+    {
+        return wallTimeNanos;
+    }
+
+    /**
+     * Gets the effective branching factor b*: the branching factor a uniform
+     * tree as deep as the solution would need to hold the states generated,
+     * that is, the b solving N = b + b^2 + ... + b^d for N states generated
+     * and a solution of length d.
+     *
+     * @return the effective branching factor, or NaN if there is no solution
+     * or it has no moves.
+     */
+    public double getEffectiveBranchingFactor()
+    {
+        if (solutionLength < 1)
+        {
+            return Double.NaN;
+        }
+        double low = 0;
+        double high = Math.max(1, generated);
+        for (int i = 0; i < BISECTIONS; i++)
+        {
+            double b = (low + high) / 2;
+            if (treeSize(b) < generated)
+            {
+                low = b;
+            } else
+            {
+                high = b;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "generated=" + generated + ", expanded=" + expanded
+                + ", duplicates=" + duplicates + ", pruned=" + pruned
+                + ", pushes=" + pushes + ", pops=" + pops
+                + ", peakFrontier=" + peakFrontier
+                + ", wallTimeNanos=" + wallTimeNanos;
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Helper Methods and Instance Fields
+    //--------------------------------------------------------------------------
+    /**
+     * Sums b + b^2 + ... + b^d for the solution length d, stopping once the
+     * sum passes the number of states generated.
+     *
+     * @param b the branching factor.
+     * @return the sum, or a value above the states generated.
+     */
+    private double treeSize(double b)
+    {
+        double sum = 0;
+        double term = 1;
+        for (int depth = 1; depth <= solutionLength && sum <= generated; depth++)
+        {
+            term *= b;
+            sum += term;
+        }
+        return sum;
+    }
+
+    /**
+     * Halvings of the interval searched for the effective branching factor.
+     */
+    private static final int BISECTIONS = 60;
+
+    /**
+     * # of states generated.
+     */
+    private final int generated;
+
+    /**
+     * # of states expanded.
+     */
+    private final int expanded;
+
+    /**
+     * # of duplicate states generated.
+     */
+    private final int duplicates;
+
+    /**
+     * # of nodes pruned.
+     */
+    private final int pruned;
+
+    /**
+     * # of states put on the queue.
+     */
+    private final int pushes;
+
+    /**
+     * # of states taken off the queue.
+     */
+    private final int pops;
+
+    /**
+     * # of queue operations.
+     */
+    private final int queueOps;
+
+    /**
+     * # of maximum items on the queue.
+     */
+    private final int peakFrontier;
+
+    /**
+     * # of open rediscoveries.
+     */
+    private final int openRediscoveries;
+
+    /**
+     * # of closed rediscoveries.
+     */
+    private final int closedRediscoveries;
+
+    /**
+     * elapsed time of the search, in nanoseconds.
+     */
+    private final long wallTimeNanos;
+
+    /**
+     * length of the solution, or -1.
+     */
+    private final int solutionLength;
+}
@@ -0,0 +1,198 @@
+package framework;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a trace written by <b>SearchTraceWriter</b>, mapping the file a chunk
+ * at a time.
+ *
+ * A trace whose writer was not closed, say because the process died, has no
+ * record count in its header; its records are then counted from the size of
+ * the file, up to the last record that holds an event type.
+ *
+ * @author jmacvey
+ */
+public final class SearchTraceReader implements Closeable
+{
+
+    /**
+     * Receives the records of a trace in the order they were written.
+     */
+    public interface Visitor
+    {
+
+        /**
+         * Receives a record.
+         *
+         * @param type EXPANDED or GENERATED.
+         * @param stateKey the key of the state.
+         * @param parentKey the key of its parent, or -1.
+         * @param g the path cost of the state.
+         * @param h the heuristic value of the state, or -1.
+         * @param nanoTime the System.nanoTime() of the event.
+         */
+        void record(int type, long stateKey, long parentKey, int g, int h,
+                long nanoTime);
+    }
+
+    /**
+     * Opens a trace file.
+     *
+     * @param file the trace file.
+     * @throws IOException if the file cannot be read or is not a trace.
+     */
+    public SearchTraceReader(Path file) throws IOException
+    {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                SearchTraceWriter.HEADER_SIZE);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt() != SearchTraceWriter.MAGIC
+                || header.getShort() != SearchTraceWriter.VERSION
+                || header.getShort() != SearchTraceWriter.RECORD_SIZE)
+        {
+            channel.close();
+            throw new IOException("not a search trace: " + file);
+        }
+        long count = header.getLong();
+        recordCount = (count > 0) ? count : countRecords();
+    }
+
+    /**
+     * Gets the number of records in the trace.
+     *
+     * @return the record count.
+     */
+    public long getRecordCount()
+    {
+        return recordCount;
+    }
+
+    /**
+     * Replays the records of the trace, in order.
+     *
+     * @param visitor the receiver of the records.
+     * @throws IOException if the file cannot be read.
+     */
+    public void replay(Visitor visitor) throws IOException
+    {
+        for (long first = 0; first < recordCount; first += CHUNK_RECORDS)
+        {
+            int n = (int) Math.min(CHUNK_RECORDS, recordCount - first);
+            MappedByteBuffer chunk = map(first, n);
+            for (int i = 0; i < n; i++)
+            {
+                long nanoTime = chunk.getLong();
+                long stateKey = chunk.getLong();
+                long parentKey = chunk.getLong();
+                int g = chunk.getInt();
+                int h = chunk.getInt();
+                int type = chunk.getInt();
+                visitor.record(type, stateKey, parentKey, g, h, nanoTime);
+            }
+        }
+    }
+
+    /**
+     * Counts the records of each event type.
+     *
+     * @return the counts indexed by event type.
+     * @throws IOException if the file cannot be read.
+     */
+    public long[] countByType() throws IOException
+    {
+        final long[] counts = new long[SearchTraceWriter.GENERATED + 1];
+        replay(new Visitor()
+        {
+            @Override
+            public void record(int type, long stateKey, long parentKey, int g,
+                    int h, long nanoTime)
+            {
+                if (type >= 0 && type < counts.length)
+                {
+                    counts[type]++;
+                }
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Closes the trace file.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Helper Methods and Instance Fields
+    //--------------------------------------------------------------------------
+    /**
+     * Maps a run of records.
+     *
+     * @param first the index of the first record.
+     * @param n the number of records.
+     * @return the records, positioned at the first.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private MappedByteBuffer map(long first, int n) throws IOException
+    {
+        MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY,
+                SearchTraceWriter.HEADER_SIZE + first * SearchTraceWriter.RECORD_SIZE,
+                (long) n * SearchTraceWriter.RECORD_SIZE);
+        chunk.order(ByteOrder.LITTLE_ENDIAN);
+        return chunk;
+    }
+
+    /**
+     * Counts the records of a trace that was not closed. Records are written
+     * in order into a zeroed file, so the written ones are those before the
+     * first record of type 0, found by binary search.
+     *
+     * @return the record count.
+     * @throws IOException if the file cannot be read.
+     */
+    private long countRecords() throws IOException
+    {
+        long low = 0;
+        long high = (channel.size() - SearchTraceWriter.HEADER_SIZE)
+                / SearchTraceWriter.RECORD_SIZE;
+        while (low < high)
+        {
+            long mid = (low + high) >>> 1;
+            if (map(mid, 1).getInt(SearchTraceWriter.RECORD_SIZE - 4) != 0)
+            {
+                low = mid + 1;
+            } else
+            {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Records per mapped chunk.
+     */
+    private static final int CHUNK_RECORDS = 1 << 20;
+
+    /**
+     * The trace file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The number of records in the trace.
+     */
+    private final long recordCount;
+}
@@ -0,0 +1,235 @@
+package framework;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A binary trace of the states expanded and generated by searches, appended
+ * to a memory-mapped file.
+ *
+ * The file starts with a header of HEADER_SIZE bytes (the magic number, the
+ * format version, the record size and the record count) followed by records
+ * of RECORD_SIZE bytes, all in little-endian byte order: the
+ * <b>System.nanoTime()</b> of the event, the key of the state, the key of its
+ * parent (-1 for a start state), g, h (-1 if the search does not compute
+ * it) and the event type. Keys are state ordinals if the problem has a state
+ * indexer (see <b>Problem.getStateIndexer()</b>) and hash codes otherwise.
+ *
+ * The file is mapped a chunk at a time, so appending a record is a few
+ * stores into memory; the operating system writes the pages out. A trace is
+ * attached to a problem with <b>Problem.setTraceWriter</b>, and is read back
+ * with <b>SearchTraceReader</b>. Appending is synchronized, so searches on
+ * several threads may share a trace, their records interleaved.
+ *
+ * @author jmacvey
+ */
+public final class SearchTraceWriter implements Closeable
+{
+
+    /**
+     * Event type of an expanded state.
+     */
+    public static final int EXPANDED = 1;
+
+    /**
+     * Event type of a generated state.
+     */
+    public static final int GENERATED = 2;
+
+    /**
+     * Creates a trace file, replacing any file of the same name.
+     *
+     * @param file the trace file.
+     * @throws IOException if the file cannot be created or mapped.
+     */
+    public SearchTraceWriter(Path file) throws IOException
+    {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try
+        {
+            map(0);
+        } catch (IOException | RuntimeException ex)
+        {
+            // the caller never gets the writer, so it cannot close the file
+            try
+            {
+                channel.close();
+            } catch (IOException closeFailure)
+            {
+                ex.addSuppressed(closeFailure);
+            }
+            throw ex;
+        }
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) RECORD_SIZE);
+        buffer.putLong(0); // the record count, written on close
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param type EXPANDED or GENERATED.
+     * @param stateKey the key of the state.
+     * @param parentKey the key of its parent, or -1.
+     * @param g the path cost of the state.
+     * @param h the heuristic value of the state, or -1.
+     * @throws IllegalStateException if the trace is closed or the next chunk
+     * cannot be mapped.
+     */
+    public synchronized void append(int type, long stateKey, long parentKey,
+            int g, int h)
+    {
+        if (buffer == null)
+        {
+            throw new IllegalStateException("the trace is closed");
+        }
+        if (!buffer.hasRemaining())
+        {
+            try
+            {
+                map(mappedAt + buffer.capacity());
+            } catch (IOException ex)
+            {
+                throw new IllegalStateException("cannot extend the trace", ex);
+            }
+        }
+        buffer.putLong(System.nanoTime());
+        buffer.putLong(stateKey);
+        buffer.putLong(parentKey);
+        buffer.putInt(g);
+        buffer.putInt(h);
+        buffer.putInt(type);
+        records++;
+    }
+
+    /**
+     * Gets the number of records appended.
+     *
+     * @return the record count.
+     */
+    public synchronized long getRecordCount()
+    {
+        return records;
+    }
+
+    /**
+     * Writes the record count, cuts the file to the records written and
+     * closes it.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (buffer == null)
+        {
+            return;
+        }
+        long end = mappedAt + buffer.position();
+        MappedByteBuffer first = (mappedAt == 0) ? buffer
+                : channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        first.order(ByteOrder.LITTLE_ENDIAN).putLong(COUNT_OFFSET, records);
+        first.force();
+        buffer.force();
+        buffer = null;
+        channel.truncate(end);
+        channel.close();
+    }
+
+    /**
+     * Gets the trace key of a state.
+     *
+     * @param indexer the problem's state indexer, or null.
+     * @param state the state, or null.
+     * @return its ordinal or hash code, or -1 for null.
+     */
+    static long key(StateIndexer indexer, State state)
+    {
+        if (state == null)
+        {
+            return -1;
+        }
+        return (indexer != null) ? indexer.indexOf(state) : state.hashCode();
+    }
+
+    /**
+     * Size in bytes of the file header.
+     */
+    static final int HEADER_SIZE = 16;
+
+    /**
+     * Size in bytes of a record.
+     */
+    static final int RECORD_SIZE = 36;
+
+    /**
+     * Magic number at the start of a trace file: "STRC".
+     */
+    static final int MAGIC = 0x43525453;
+
+    /**
+     * Version of the file format.
+     */
+    static final short VERSION = 1;
+
+    /**
+     * Offset in bytes of the record count in the header.
+     */
+    static final int COUNT_OFFSET = 8;
+
+    //--------------------------------------------------------------------------
+    // Private Helper Methods and Instance Fields
+    //--------------------------------------------------------------------------
+    /**
+     * Maps the chunk of the file starting at an offset.
+     *
+     * @param offset the offset of the chunk; the header or a whole number of
+     * records.
+     * @throws IOException if the chunk cannot be mapped.
+     */
+    private void map(long offset) throws IOException
+    {
+        if (buffer != null)
+        {
+            buffer.force();
+        }
+        int size = (offset == 0) ? HEADER_SIZE + CHUNK_RECORDS * RECORD_SIZE
+                : CHUNK_RECORDS * RECORD_SIZE;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, offset, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        mappedAt = offset;
+    }
+
+    /**
+     * Records per mapped chunk after the first.
+     */
+    private static final int CHUNK_RECORDS = 1 << 20;
+
+    /**
+     * The trace file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The chunk being written, or null once closed.
+     */
+    private MappedByteBuffer buffer;
+
+    /**
+     * Offset in the file of the chunk being written.
+     */
+    private long mappedAt;
+
+    /**
+     * # of records appended.
+     */
+    private long records;
+}
@@ -0,0 +1,188 @@
+package framework;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of search results, kept in front of the searches of a
+ * <b>Problem</b> (see <b>Problem.setSolutionCache</b>).
+ *
+ * Results are keyed by the start state, the final state of the problem and
+ * the algorithm run (for <b>Problem.search</b>, the class of the deque adder,
+ * so adders must not keep state of their own). Since search results are
+ * immutable, a hit hands back the cached path and statistics as they were.
+ * When the cache is full the least recently used result is evicted. All
+ * methods are synchronized, so one cache may serve any number of threads, but
+ * it should not be shared between problems with different success tests.
+ *
+ * @author jmacvey
+ */
+public final class SolutionCache
+{
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity the most results the cache holds.
+     */
+    public SolutionCache(final int capacity)
+    {
+        if (capacity < 1)
+        {
+            throw new IllegalArgumentException("capacity must be positive: "
+                    + capacity);
+        }
+        this.capacity = capacity;
+        this.results = new LinkedHashMap<Object, SearchResult>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<Object, SearchResult> eldest)
+            {
+                if (size() > capacity)
+                {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the most results the cache holds.
+     *
+     * @return the capacity.
+     */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of results in the cache.
+     *
+     * @return the number of results.
+     */
+    public synchronized int size()
+    {
+        return results.size();
+    }
+
+    /**
+     * Gets the number of lookups that found a result.
+     *
+     * @return the number of hits.
+     */
+    public synchronized long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that found no result.
+     *
+     * @return the number of misses.
+     */
+    public synchronized long getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * Gets the number of results evicted to make room for others.
+     *
+     * @return the number of evictions.
+     */
+    public synchronized long getEvictions()
+    {
+        return evictions;
+    }
+
+    /**
+     * Removes every result. The counters are kept.
+     */
+    public synchronized void clear()
+    {
+        results.clear();
+    }
+
+    /**
+     * Looks up a result.
+     *
+     * @param start the start state.
+     * @param goal the final state of the problem, or null.
+     * @param variant the algorithm, or the class of the deque adder.
+     * @return the cached result, or null.
+     */
+    synchronized SearchResult get(State start, State goal, Object variant)
+    {
+        SearchResult result = results.get(key(start, goal, variant));
+        if (result == null)
+        {
+            misses++;
+        } else
+        {
+            hits++;
+        }
+        SolverMetrics.getInstance().recordCacheLookup(result != null);
+        return result;
+    }
+
+    /**
+     * Stores a result, evicting the least recently used one if the cache is
+     * full.
+     *
+     * @param start the start state.
+     * @param goal the final state of the problem, or null.
+     * @param variant the algorithm, or the class of the deque adder.
+     * @param result the result of the search.
+     */
+    synchronized void put(State start, State goal, Object variant,
+            SearchResult result)
+    {
+        results.put(key(start, goal, variant), result);
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Helper Methods and Instance Fields
+    //--------------------------------------------------------------------------
+    /**
+     * Makes the key of a result.
+     *
+     * @param start the start state.
+     * @param goal the final state, or null.
+     * @param variant the algorithm or adder class.
+     * @return a key comparing all three by value.
+     */
+    private static Object key(State start, State goal, Object variant)
+    {
+        return Arrays.asList(start, goal, variant);
+    }
+
+    /**
+     * The most results the cache holds.
+     */
+    private final int capacity;
+
+    /**
+     * The results, least recently used first.
+     */
+    private final LinkedHashMap<Object, SearchResult> results;
+
+    /**
+     * # of lookups that found a result.
+     */
+    private long hits;
+
+    /**
+     * # of lookups that found no result.
+     */
+    private long misses;
+
+    /**
+     * # of results evicted.
+     */
+    private long evictions;
+}
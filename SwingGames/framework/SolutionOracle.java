@@ -0,0 +1,293 @@
+package framework;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The distance to the goal and the next move of every state from which a
+ * goal can be reached.
+ *
+ * The table is built by one breadth-first search backwards from the goal
+ * states of a problem (see <b>Problem.getGoalStates()</b>), using
+ * <b>ReversibleMove.undoMove</b> to generate predecessors, so every move of
+ * the problem must be reversible and the goal states must be all the states
+ * the problem's <b>success</b> test accepts. Each state is reached first along
+ * a shortest path, so its distance is exact and its next move starts a
+ * shortest solution. After that a solution from any state is a walk through
+ * the table: one lookup and one move per step, no search.
+ *
+ * If the problem has a state indexer the table is kept in two arrays indexed
+ * by ordinal; otherwise in a hash table. The table is immutable once built
+ * and may be shared by any number of threads. A problem builds its table on
+ * first use with <b>Problem.getSolutionOracle()</b>.
+ *
+ * @author jmacvey
+ */
+public final class SolutionOracle
+{
+
+    /**
+     * Builds the table of a problem.
+     *
+     * @param problem the problem.
+     */
+    SolutionOracle(Problem problem)
+    {
+        this.problem = problem;
+        this.moves = problem.getMoves();
+        for (Move move : moves)
+        {
+            if (!(move instanceof ReversibleMove))
+            {
+                throw new UnsupportedOperationException(
+                        "a solution table needs reversible moves: "
+                        + move.getMoveName());
+            }
+        }
+        this.indexer = problem.getStateIndexer();
+        if (indexer != null)
+        {
+            int n = indexer.getStateCount();
+            distances = new int[n];
+            nextMoves = new int[n];
+            Arrays.fill(distances, UNREACHABLE);
+            table = null;
+        } else
+        {
+            distances = null;
+            nextMoves = null;
+            table = new HashMap<>();
+        }
+        build(problem.getGoalStates());
+    }
+
+    /**
+     * Gets the number of moves on a shortest path from a state to a goal.
+     *
+     * @param state the state.
+     * @return the distance, or -1 if no goal can be reached from the state.
+     */
+    public int getDistance(State state)
+    {
+        if (indexer != null)
+        {
+            return distances[indexer.indexOf(state)];
+        }
+        Entry entry = table.get(state);
+        return entry == null ? UNREACHABLE : entry.distance;
+    }
+
+    /**
+     * Gets the first move of a shortest path from a state to a goal.
+     *
+     * @param state the state.
+     * @return the move, or null if the state is a goal or no goal can be
+     * reached from it.
+     */
+    public Move getNextMove(State state)
+    {
+        int move = nextMove(state);
+        return move == NONE ? null : moves.get(move);
+    }
+
+    /**
+     * Walks the table from a state to a goal.
+     *
+     * @param start the state to walk from.
+     * @return the states on a shortest path from the start (excluded) to a
+     * goal (included), or null if no goal can be reached from the start.
+     */
+    public List<State> getPath(State start)
+    {
+        if (getDistance(start) == UNREACHABLE)
+        {
+            return null;
+        }
+        List<State> path = new ArrayList<>(getDistance(start));
+        State state = start;
+        for (int move = nextMove(state); move != NONE; move = nextMove(state))
+        {
+            state = problem.successor(state, move);
+            path.add(state);
+        }
+        return path;
+    }
+
+    /**
+     * Gets the number of states from which a goal can be reached.
+     *
+     * @return the number of states in the table.
+     */
+    public int getStateCount()
+    {
+        return stateCount;
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Helper Methods and Instance Fields
+    //--------------------------------------------------------------------------
+    /**
+     * Fills the table by breadth-first search backwards from the goals.
+     *
+     * @param goals the goal states.
+     */
+    private void build(List<State> goals)
+    {
+        Deque<State> queue = new ArrayDeque<>();
+        for (State goal : goals)
+        {
+            if (record(goal, 0, NONE))
+            {
+                queue.add(goal);
+            }
+        }
+        SearchMonitor monitor = problem.getSearchMonitor();
+        int expanded = 0;
+        while (!queue.isEmpty())
+        {
+            State state = queue.remove();
+            if (monitor != null)
+            {
+                monitor.expanded(++expanded, queue.size());
+            }
+            int distance = getDistance(state) + 1;
+            for (int i = 0; i < moves.size(); i++)
+            {
+                for (State pred : ((ReversibleMove) moves.get(i)).undoMove(state))
+                {
+                    if (record(pred, distance, i))
+                    {
+                        queue.add(pred);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the distance and next move of a state the first time it is
+     * reached.
+     *
+     * @param state the state.
+     * @param distance its distance to a goal.
+     * @param move the index of the move leading one step closer, or NONE.
+     * @return true if the state had not been reached before.
+     */
+    private boolean record(State state, int distance, int move)
+    {
+        if (indexer != null)
+        {
+            int i = indexer.indexOf(state);
+            if (distances[i] != UNREACHABLE)
+            {
+                return false;
+            }
+            distances[i] = distance;
+            nextMoves[i] = move;
+        } else
+        {
+            if (table.containsKey(state))
+            {
+                return false;
+            }
+            table.put(state, new Entry(distance, move));
+        }
+        stateCount++;
+        return true;
+    }
+
+    /**
+     * Gets the index of the next move of a state.
+     *
+     * @param state a state in the table.
+     * @return the index of the move, or NONE for a goal.
+     */
+    private int nextMove(State state)
+    {
+        if (indexer != null)
+        {
+            int i = indexer.indexOf(state);
+            return distances[i] == UNREACHABLE ? NONE : nextMoves[i];
+        }
+        Entry entry = table.get(state);
+        return entry == null ? NONE : entry.move;
+    }
+
+    /**
+     * The distance and next move of a state in the hash table.
+     */
+    private static final class Entry
+    {
+
+        /**
+         * Creates an entry.
+         *
+         * @param distance the distance to a goal.
+         * @param move the index of the next move, or NONE.
+         */
+        Entry(int distance, int move)
+        {
+            this.distance = distance;
+            this.move = move;
+        }
+
+        /**
+         * Distance to a goal.
+         */
+        private final int distance;
+
+        /**
+         * Index of the next move, or NONE.
+         */
+        private final int move;
+    }
+
+    /**
+     * Distance of a state from which no goal can be reached.
+     */
+    private static final int UNREACHABLE = -1;
+
+    /**
+     * Next move of a goal state.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The problem of the table.
+     */
+    private final Problem problem;
+
+    /**
+     * The problem's moves.
+     */
+    private final List<Move> moves;
+
+    /**
+     * The problem's state indexer, or null.
+     */
+    private final StateIndexer indexer;
+
+    /**
+     * Distance of each ordinal, when the problem has an indexer.
+     */
+    private final int[] distances;
+
+    /**
+     * Next move of each ordinal, when the problem has an indexer.
+     */
+    private final int[] nextMoves;
+
+    /**
+     * Distance and next move of each state, when it has no indexer.
+     */
+    private final HashMap<State, Entry> table;
+
+    /**
+     * # of states in the table.
+     */
+    private int stateCount;
+}
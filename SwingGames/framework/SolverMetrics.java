@@ -0,0 +1,239 @@
+package framework;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The cumulative counters of every search run in this virtual machine.
+ *
+ * Each search adds its statistics here when it ends, and each solution cache
+ * lookup counts a hit or a miss. The counters are <b>LongAdder</b>s, so
+ * searches on many threads add to them without contending. The single
+ * instance registers itself with the platform MBean server under
+ * <b>OBJECT_NAME</b> when it is first used.
+ *
+ * @author jmacvey
+ */
+public final class SolverMetrics implements SolverMetricsMBean
+{
+
+    /**
+     * The name the metrics are registered under.
+     */
+    public static final String OBJECT_NAME = "framework:type=SolverMetrics";
+
+    /**
+     * Gets the metrics of this virtual machine.
+     *
+     * @return the single instance.
+     */
+    public static SolverMetrics getInstance()
+    {
+        return Holder.INSTANCE;
+    }
+
+    @Override
+    public long getSearches()
+    {
+        return searches.sum();
+    }
+
+    @Override
+    public long getSolved()
+    {
+        return solved.sum();
+    }
+
+    @Override
+    public long getStatesGenerated()
+    {
+        return generated.sum();
+    }
+
+    @Override
+    public long getStatesExpanded()
+    {
+        return expanded.sum();
+    }
+
+    @Override
+    public long getDuplicates()
+    {
+        return duplicates.sum();
+    }
+
+    @Override
+    public long getPruned()
+    {
+        return pruned.sum();
+    }
+
+    @Override
+    public long getPushes()
+    {
+        return pushes.sum();
+    }
+
+    @Override
+    public long getPops()
+    {
+        return pops.sum();
+    }
+
+    @Override
+    public long getWallTimeNanos()
+    {
+        return wallTimeNanos.sum();
+    }
+
+    @Override
+    public long getCacheHits()
+    {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses()
+    {
+        return cacheMisses.sum();
+    }
+
+    @Override
+    public void reset()
+    {
+        searches.reset();
+        solved.reset();
+        generated.reset();
+        expanded.reset();
+        duplicates.reset();
+        pruned.reset();
+        pushes.reset();
+        pops.reset();
+        wallTimeNanos.reset();
+        cacheHits.reset();
+        cacheMisses.reset();
+    }
+
+    /**
+     * Adds the statistics of a finished search.
+     *
+     * @param result the result of the search.
+     */
+    void record(SearchResult result)
+    {
+        SearchStatistics statistics = result.getStatistics();
+        searches.increment();
+        if (result.isSolved())
+        {
+            solved.increment();
+        }
+        generated.add(statistics.getGenerated());
+        expanded.add(statistics.getExpanded());
+        duplicates.add(statistics.getDuplicates());
+        pruned.add(statistics.getPruned());
+        pushes.add(statistics.getPushes());
+        pops.add(statistics.getPops());
+        wallTimeNanos.add(statistics.getWallTimeNanos());
+    }
+
+    /**
+     * Counts a solution cache lookup.
+     *
+     * @param hit true if the lookup found a result.
+     */
+    void recordCacheLookup(boolean hit)
+    {
+        (hit ? cacheHits : cacheMisses).increment();
+    }
+
+    //--------------------------------------------------------------------------
+    // Private Helper Methods and Instance Fields
+    //--------------------------------------------------------------------------
+    /**
+     * Creates the metrics; there is a single instance.
+     */
+    private SolverMetrics()
+    {
+    }
+
+    /**
+     * Holds the single instance, created and registered on first use.
+     */
+    private static final class Holder
+    {
+
+        /**
+         * The single instance.
+         */
+        private static final SolverMetrics INSTANCE = new SolverMetrics();
+
+        static
+        {
+            try
+            {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(
+                        INSTANCE, new ObjectName(OBJECT_NAME));
+            } catch (JMException | SecurityException ex)
+            {
+                // the counters still work; they are just not published
+            }
+        }
+    }
+
+    /**
+     * # of searches.
+     */
+    private final LongAdder searches = new LongAdder();
+
+    /**
+     * # of searches that found a solution.
+     */
+    private final LongAdder solved = new LongAdder();
+
+    /**
+     * # of states generated.
+     */
+    private final LongAdder generated = new LongAdder();
+
+    /**
+     * # of states expanded.
+     */
+    private final LongAdder expanded = new LongAdder();
+
+    /**
+     * # of duplicate states generated.
+     */
+    private final LongAdder duplicates = new LongAdder();
+
+    /**
+     * # of nodes pruned.
+     */
+    private final LongAdder pruned = new LongAdder();
+
+    /**
+     * # of queue pushes.
+     */
+    private final LongAdder pushes = new LongAdder();
+
+    /**
+     * # of queue pops.
+     */
+    private final LongAdder pops = new LongAdder();
+
+    /**
+     * summed wall time, in nanoseconds.
+     */
+    private final LongAdder wallTimeNanos = new LongAdder();
+
+    /**
+     * # of solution cache hits.
+     */
+    private final LongAdder cacheHits = new LongAdder();
+
+    /**
+     * # of solution cache misses.
+     */
+    private final LongAdder cacheMisses = new LongAdder();
+}
@@ -0,0 +1,94 @@
+package framework;
+
+/**
+ * The management interface of <b>SolverMetrics</b>: the cumulative counters
+ * of every search run in this virtual machine, as shown by JConsole or read
+ * by a JMX exporter.
+ *
+ * @author jmacvey
+ */
+public interface SolverMetricsMBean
+{
+
+    /**
+     * Gets the number of searches run.
+     *
+     * @return the number of searches.
+     */
+    long getSearches();
+
+    /**
+     * Gets the number of searches that found a solution.
+     *
+     * @return the number of solved searches.
+     */
+    long getSolved();
+
+    /**
+     * Gets the number of states generated by all searches.
+     *
+     * @return the number of states generated.
+     */
+    long getStatesGenerated();
+
+    /**
+     * Gets the number of states expanded by all searches.
+     *
+     * @return the number of states expanded.
+     */
+    long getStatesExpanded();
+
+    /**
+     * Gets the number of duplicate states generated by all searches.
+     *
+     * @return the number of duplicates.
+     */
+    long getDuplicates();
+
+    /**
+     * Gets the number of nodes pruned by all searches.
+     *
+     * @return the number of nodes pruned.
+     */
+    long getPruned();
+
+    /**
+     * Gets the number of queue pushes of all searches.
+     *
+     * @return the number of pushes.
+     */
+    long getPushes();
+
+    /**
+     * Gets the number of queue pops of all searches.
+     *
+     * @return the number of pops.
+     */
+    long getPops();
+
+    /**
+     * Gets the summed wall time of all searches.
+     *
+     * @return the total time in nanoseconds.
+     */
+    long getWallTimeNanos();
+
+    /**
+     * Gets the number of results answered by a solution cache.
+     *
+     * @return the number of cache hits.
+     */
+    long getCacheHits();
+
+    /**
+     * Gets the number of lookups a solution cache could not answer.
+     *
+     * @return the number of cache misses.
+     */
+    long getCacheMisses();
+
+    /**
+     * Sets every counter back to zero.
+     */
+    void reset();
+}
@@ -0,0 +1,42 @@
+package framework;
+
+/**
+ * An optional capability of a <b>Problem</b>: numbering its states densely.
+ *
+ * A problem whose state space is bounded and can be enumerated may return an
+ * indexer from <b>Problem.getStateIndexer()</b>. Every state then has an
+ * ordinal between 0 and <b>getStateCount()</b> - 1, and the search algorithms
+ * keep their visited sets, distances and predecessors in bit sets and
+ * primitive arrays indexed by ordinal instead of hash tables and per-node
+ * objects. Ordinals need not all be used, but the count should not be much
+ * larger than the number of states, since arrays of that size are allocated
+ * for every search.
+ *
+ * @author jmacvey
+ */
+public interface StateIndexer
+{
+
+    /**
+     * Gets the number of ordinals, one more than the largest ordinal.
+     *
+     * @return the number of ordinals.
+     */
+    int getStateCount();
+
+    /**
+     * Gets the ordinal of a state.
+     *
+     * @param state a state of the problem.
+     * @return its ordinal, from 0 to getStateCount() - 1.
+     */
+    int indexOf(State state);
+
+    /**
+     * Gets the state with an ordinal.
+     *
+     * @param index an ordinal returned by <b>indexOf</b>.
+     * @return the state.
+     */
+    State stateAt(int index);
+}